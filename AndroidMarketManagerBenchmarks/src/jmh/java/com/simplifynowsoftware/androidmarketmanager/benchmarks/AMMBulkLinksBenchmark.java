@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMAppDescriptor;
+import com.simplifynowsoftware.androidmarketmanager.AMMBulkLinks;
+import com.simplifynowsoftware.androidmarketmanager.AMMBulkResult;
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+
+/**
+ * Benchmarks generating all links for a catalog of apps.  Each operation
+ *  builds appCount * 4 markets * 2 modes links.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+public class AMMBulkLinksBenchmark {
+    private static final int[] SELECTORS = {
+            AMMConstants.MARKET_SELECTOR_GOOGLE,
+            AMMConstants.MARKET_SELECTOR_AMAZON,
+            AMMConstants.MARKET_SELECTOR_BLACKBERRY,
+            AMMConstants.MARKET_SELECTOR_SAMSUNG
+    };
+
+    @Param({"400", "125000"})
+    public int appCount;
+
+    private List<AMMAppDescriptor> mApps;
+
+    @Setup
+    public void setup() {
+        mApps = new ArrayList<AMMAppDescriptor>(appCount);
+        for(int i = 0; i < appCount; i++) {
+            mApps.add(new AMMAppDescriptor( "com.example.app" + i,
+                                            null,
+                                            Integer.toString(50000 + i),
+                                            "24165",
+                                            "Example Corporation",
+                                            "com.example.app" + i,
+                                            "adevqewb3c",
+                                            "Example"));
+        }
+    }
+
+    @Benchmark
+    public AMMBulkResult generate() {
+        return AMMBulkLinks.generate(mApps, SELECTORS);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMClickCounter;
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+
+/**
+ * Compares counting a click in AMMClickCounter with a single shared
+ *  AtomicLong.  Run with several threads (-t) to see the effect of striping.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+public class AMMClickCounterBenchmark {
+    private final AMMClickCounter mCounter = new AMMClickCounter();
+    private final AtomicLong mShared = new AtomicLong();
+
+    @Benchmark
+    public void clickCounter() {
+        mCounter.increment("spring", AMMConstants.MARKET_SELECTOR_GOOGLE);
+    }
+
+    @Benchmark
+    public long sharedAtomic() {
+        return mShared.incrementAndGet();
+    }
+}
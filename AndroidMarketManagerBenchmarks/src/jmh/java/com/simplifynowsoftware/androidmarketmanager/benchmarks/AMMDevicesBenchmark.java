@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMDeviceProfile;
+import com.simplifynowsoftware.androidmarketmanager.AMMDevices;
+
+/**
+ * Benchmarks the device checks behind AMMUtils.isDeviceNook, isDeviceNookCT,
+ *  isDeviceNookHD and isDeviceKindleFire, for matching and non-matching models.
+ *  The profile* benchmarks read a cached AMMDeviceProfile, which is what
+ *  AMMUtils does; classify measures the one-time cost of building it.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+public class AMMDevicesBenchmark {
+    @Param({"Kindle Fire", "BNRV200", "BNTV600", "SM-T230NU", "Pixel 7"})
+    public String model;
+
+    private AMMDeviceProfile mProfile;
+
+    @Setup
+    public void setup() {
+        mProfile = AMMDeviceProfile.classify("Amazon", model);
+    }
+
+    @Benchmark
+    public boolean isKindleFire() {
+        return AMMDevices.isKindleFire(model);
+    }
+
+    @Benchmark
+    public boolean isNook() {
+        return AMMDevices.isNook(model);
+    }
+
+    @Benchmark
+    public boolean isNookCT() {
+        return AMMDevices.isNookCT(model);
+    }
+
+    @Benchmark
+    public boolean isNookHD() {
+        return AMMDevices.isNookHD(model);
+    }
+
+    @Benchmark
+    public AMMDeviceProfile classify() {
+        return AMMDeviceProfile.classify("Amazon", model);
+    }
+
+    @Benchmark
+    public boolean profileIsNook() {
+        return mProfile.isNook();
+    }
+
+    @Benchmark
+    public boolean profileIsKindleFire() {
+        return mProfile.isKindleFire();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMUrls;
+
+/**
+ * Benchmarks the message formatting behind AMMLinks.generateMarketMessage and
+ *  the developer package guess used when no developer ID is given.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+public class AMMMessageBenchmark {
+    /*
+     * Same text as the English string resources
+     */
+    public String prefix = "Cannot automatically start your app market.  Please search for \"";
+    public String postfix = "\" to find all of our apps.";
+    public String developerName = "Evernote";
+    public String packageName = "com.evernote.widget";
+
+    @Benchmark
+    public String marketMessage() {
+        return AMMUrls.marketMessage(prefix, developerName, postfix);
+    }
+
+    @Benchmark
+    public String developerPackage() {
+        return AMMUrls.developerPackage(packageName);
+    }
+}
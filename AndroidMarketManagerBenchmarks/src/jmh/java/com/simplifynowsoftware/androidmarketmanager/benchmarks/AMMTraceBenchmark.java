@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+import com.simplifynowsoftware.androidmarketmanager.AMMTrace;
+
+/**
+ * Measures the cost of an AMMTrace trace point with tracing off and on.
+ *  Run with several threads (-t) to see contention on the ring buffer.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+public class AMMTraceBenchmark {
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    @Setup
+    public void setup() {
+        if(enabled) {
+            AMMTrace.enable();
+        } else {
+            AMMTrace.disable();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        AMMTrace.disable();
+    }
+
+    @Benchmark
+    public void record() {
+        AMMTrace.record(AMMTrace.EVENT_LAUNCH,
+                        AMMConstants.MARKET_SELECTOR_GOOGLE,
+                        AMMConstants.LINK_MODE_APP,
+                        AMMConstants.LAUNCH_OUTCOME_LAUNCHED,
+                        1500);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMUrlEncoder;
+
+/**
+ * Compares AMMUrlEncoder with java.net.URLEncoder on typical market URL
+ *  values: a package name (nothing to encode), a developer name with spaces
+ *  and a comma, and a name with non-ASCII characters.
+ *
+ * android.net.Uri.encode is not included, since it only runs on a device.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+public class AMMUrlEncoderBenchmark {
+    @Param({"package", "name", "unicode"})
+    public String valueKind;
+
+    private String mValue;
+
+    @Setup
+    public void setup() {
+        if("package".equals(valueKind)) {
+            mValue = "com.evernote.widget";
+        } else if("name".equals(valueKind)) {
+            mValue = "Evernote Corporation, Inc.";
+        } else {
+            mValue = "Soci\u00e9t\u00e9 G\u00e9n\u00e9rale \u00c9ditions";
+        }
+    }
+
+    @Benchmark
+    public String ammEncoder() {
+        return AMMUrlEncoder.encode(mValue, AMMUrlEncoder.COMPONENT_QUERY);
+    }
+
+    @Benchmark
+    public String urlEncoder() throws UnsupportedEncodingException {
+        return URLEncoder.encode(mValue, "UTF-8");
+    }
+}
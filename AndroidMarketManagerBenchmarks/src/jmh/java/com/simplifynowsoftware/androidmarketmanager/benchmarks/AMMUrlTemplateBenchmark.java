@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+import com.simplifynowsoftware.androidmarketmanager.AMMUrlTemplates;
+
+/**
+ * Compares the precompiled URL templates with the string concatenation that
+ *  AMMLinks used before them.
+ *
+ * HotSpot rewrites StringBuilder chains like the concatenation here; ART
+ *  does not.  Add -jvmArgsAppend -XX:-OptimizeStringConcat to see allocation
+ *  closer to what a device does.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+public class AMMUrlTemplateBenchmark {
+    public String appPackage = "com.evernote";
+
+    @Benchmark
+    public String amazonShowAllConcat() {
+        String marketUrl;
+        if(AMMConstants.AMAZON_USE_HTTP) {
+            marketUrl =   AMMConstants.AMAZON_URL_PREFIX_COMMON;
+        } else {
+            marketUrl =   AMMConstants.AMAZON_AMZ_PREFIX_COMMON;
+        }
+
+        marketUrl +=  AMMConstants.AMAZON_URL_TYPE_APP + appPackage
+                + AMMConstants.AMAZON_URL_POSTFIX_SHOWALL;
+
+        return marketUrl;
+    }
+
+    @Benchmark
+    public String amazonShowAllTemplate() {
+        return AMMUrlTemplates.AMAZON_SHOWALL.fill(appPackage);
+    }
+
+    @Benchmark
+    public String googleAppConcat() {
+        return AMMConstants.MARKET_URL_APP_PREFIX + appPackage;
+    }
+
+    @Benchmark
+    public String googleAppTemplate() {
+        return AMMUrlTemplates.GOOGLE_APP.fill(appPackage);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMUrls;
+
+/**
+ * Benchmarks every branch of the market URL rules behind AMMLinks.marketShowAll
+ *  and AMMLinks.marketShowApp, in both URL styles (0 native, 1 web).
+ *
+ * With nullIds set, the optional IDs are null so the fallback paths run, such
+ *  as guessing the developer package from the app's package name or using
+ *  the app package in place of the Amazon package ID.  The package names are
+ *  always set, since without them there is nothing to fall back on.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+public class AMMUrlsBenchmark {
+    @Param({"0", "1", "2", "4", "5"})
+    public int marketSelector;
+
+    @Param({"0", "1"})
+    public int urlStyle;
+
+    @Param({"false", "true"})
+    public boolean nullIds;
+
+    private String mPackageName;
+    private String mGoogleDeveloperID;
+    private String mAmazonPackageID;
+    private String mBbID;
+    private String mBbDeveloperID;
+    private String mSamsungDeveloperID;
+    private String mDeveloperName;
+    private String mAppPackage;
+
+    @Setup
+    public void setup() {
+        mPackageName = "com.evernote.widget";
+        mGoogleDeveloperID = nullIds ? null : "Evernote Corporation";
+        mAmazonPackageID = nullIds ? null : "com.evernote";
+        mBbID = nullIds ? null : "56171";
+        mBbDeveloperID = nullIds ? null : "24165";
+        mSamsungDeveloperID = nullIds ? null : "adevqewb3c";
+        mDeveloperName = nullIds ? null : "Evernote Corporation";
+        mAppPackage = "com.evernote";
+    }
+
+    @Benchmark
+    public String showAllUrl() {
+        return AMMUrls.showAllUrl(  marketSelector,
+                                    urlStyle,
+                                    mPackageName,
+                                    mGoogleDeveloperID,
+                                    mAmazonPackageID,
+                                    mBbDeveloperID,
+                                    mSamsungDeveloperID,
+                                    mDeveloperName);
+    }
+
+    @Benchmark
+    public String showAppUrl() {
+        return AMMUrls.showAppUrl(  marketSelector,
+                                    urlStyle,
+                                    mAppPackage,
+                                    null,
+                                    mBbID,
+                                    mBbDeveloperID);
+    }
+}
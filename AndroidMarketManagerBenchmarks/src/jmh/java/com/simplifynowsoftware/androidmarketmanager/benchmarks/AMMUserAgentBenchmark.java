@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+import com.simplifynowsoftware.androidmarketmanager.AMMDeviceProfile;
+import com.simplifynowsoftware.androidmarketmanager.AMMUserAgentClassifier;
+
+/**
+ * Benchmarks AMMUserAgentClassifier on typical User-Agents: a single pass of
+ *  the token automaton (uncached), a repeat visitor (cached), and a chain of
+ *  contains checks over the same tokens for comparison.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+public class AMMUserAgentBenchmark {
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Linux; Android 9; KFTRWI) AppleWebKit/537.36 (KHTML, like Gecko) Silk/124.1.1 like Chrome/124.0.6367.82 Safari/537.36",
+            "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/24.0 Chrome/117.0.0.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36"
+    };
+
+    private static final String[] CONTAINS_TOKENS = {
+            AMMConstants.USER_AGENT_TOKEN_KINDLE,
+            AMMConstants.USER_AGENT_TOKEN_SILK,
+            AMMConstants.USER_AGENT_TOKEN_FIRE_MODEL,
+            AMMConstants.DEVICE_MODEL_NOOK_COLOR,
+            AMMConstants.DEVICE_MODEL_NOOK_TABLET_16GB,
+            AMMConstants.DEVICE_MODEL_NOOK_HD,
+            AMMConstants.DEVICE_MODEL_NOOK_HDPLUS,
+            AMMConstants.DEVICE_MODEL_NOOK_SAMSUNG_TAB_4,
+            AMMConstants.USER_AGENT_TOKEN_SAMSUNG,
+            AMMConstants.USER_AGENT_TOKEN_SAMSUNG_MODEL,
+            AMMConstants.USER_AGENT_TOKEN_BB10,
+            AMMConstants.USER_AGENT_TOKEN_BLACKBERRY,
+            AMMConstants.USER_AGENT_TOKEN_PLAYBOOK
+    };
+
+    @Param({"0", "1", "2", "3"})
+    public int userAgent;
+
+    private final AMMUserAgentClassifier mClassifier = new AMMUserAgentClassifier();
+    private String mUserAgent;
+
+    @Setup
+    public void setup() {
+        mUserAgent = USER_AGENTS[userAgent];
+        mClassifier.classify(mUserAgent);
+    }
+
+    @Benchmark
+    public AMMDeviceProfile uncached() {
+        return AMMUserAgentClassifier.classifyUncached(mUserAgent);
+    }
+
+    @Benchmark
+    public AMMDeviceProfile cached() {
+        return mClassifier.classify(mUserAgent);
+    }
+
+    /*
+     * Case-insensitive contains for each token, as a baseline
+     */
+    @Benchmark
+    public int containsChain() {
+        final String lower = mUserAgent.toLowerCase();
+        int found = 0;
+        for(int i = 0; i < CONTAINS_TOKENS.length; i++) {
+            if(lower.contains(CONTAINS_TOKENS[i].toLowerCase())) {
+                found |= 1 << i;
+            }
+        }
+        return found;
+    }
+}
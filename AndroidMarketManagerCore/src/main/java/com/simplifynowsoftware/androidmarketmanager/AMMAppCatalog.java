@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AMMAppCatalog holds the per-market identifiers of many apps in columns of
+ *  primitive arrays, one row per app, instead of an AMMAppDescriptor each.
+ *
+ * - Package names (app and Amazon) are ints into a shared AMMPackagePool,
+ *    so common prefixes are stored once.
+ * - Nook EANs and BlackBerry IDs are longs.  The rare value that is not a
+ *    plain number is kept as text on the side.
+ * - Developer IDs and names are ints into a shared AMMStringPool.
+ * <br>
+ * Rows are also indexed by a hash of the full package name, so finding an
+ *  app is one hash of the name and, normally, one probe that is checked
+ *  against the package tree.  Neither depends on the size of the catalog.
+ * <br>
+ * Build the catalog on one thread, then share it for reading.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMAppCatalog {
+    public static final long NO_ID = -1;
+
+    /*
+     * In a numeric column: the value is text, see mTextIds
+     */
+    private static final long TEXT_ID = -2;
+
+    private static final int COLUMN_NOOK_EAN = 0;
+    private static final int COLUMN_BB_ID = 1;
+    private static final int COLUMN_BB_VENDOR_ID = 2;
+    private static final int NUMERIC_COLUMNS = 3;
+
+    /*
+     * Longest plain number that always fits in a long
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private final AMMPackagePool mPackages;
+    private final AMMStringPool mStrings;
+    private final Map<Long, String> mTextIds = new HashMap<Long, String>();
+
+    /*
+     * Open addressing: row + 1 by hash of the package name, 0 is empty.
+     *  Kept at most half full; the hash of each row is kept for a quick
+     *  reject before the package is compared.
+     */
+    private int[] mRowTable;
+    private int[] mPackageHash;
+
+    private int[] mAppPackage;
+    private int[] mAmazonPackageID;
+    private long[] mNookEAN;
+    private long[] mBbID;
+    private long[] mBbVendorID;
+    private int[] mGoogleDeveloperID;
+    private int[] mSamsungDeveloperID;
+    private int[] mDeveloperName;
+    private int mSize;
+
+    public AMMAppCatalog() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedApps number of apps to size for
+     */
+    public AMMAppCatalog(final int expectedApps) {
+        final int capacity = Math.max(16, expectedApps);
+        mPackages = new AMMPackagePool(capacity);
+        mStrings = new AMMStringPool();
+        mRowTable = new int[tableSizeFor(capacity)];
+        mPackageHash = new int[capacity];
+
+        mAppPackage = new int[capacity];
+        mAmazonPackageID = new int[capacity];
+        mNookEAN = new long[capacity];
+        mBbID = new long[capacity];
+        mBbVendorID = new long[capacity];
+        mGoogleDeveloperID = new int[capacity];
+        mSamsungDeveloperID = new int[capacity];
+        mDeveloperName = new int[capacity];
+    }
+
+    private static int tableSizeFor(final int size) {
+        int tableSize = 16;
+        while(tableSize < size * 2) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    /*
+     * Same as String.hashCode, which Strings cache, then spread for the
+     *  power of two table
+     */
+    private static int hash(final CharSequence text) {
+        int h = 0;
+        if(text instanceof String) {
+            h = text.hashCode();
+        } else {
+            for(int i = 0; i < text.length(); i++) {
+                h = 31 * h + text.charAt(i);
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private void index(final int row) {
+        final int mask = mRowTable.length - 1;
+        int slot = mPackageHash[row] & mask;
+        while(mRowTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        mRowTable[slot] = row + 1;
+    }
+
+    /**
+     * Add an app, or replace the app with the same package
+     *
+     * @param app  the app's identifiers; the app package is required
+     * @return the app's row
+     */
+    public int add(final AMMAppDescriptor app) {
+        if(null == app.getAppPackage()) {
+            throw new IllegalArgumentException("App package is required");
+        }
+
+        int row = find(app.getAppPackage());
+        if(row < 0) {
+            row = mSize++;
+            ensureCapacity(mSize);
+            mAppPackage[row] = mPackages.intern(app.getAppPackage());
+            mPackageHash[row] = hash(app.getAppPackage());
+
+            if(mSize * 2 > mRowTable.length) {
+                mRowTable = new int[mRowTable.length * 2];
+                for(int i = 0; i < mSize; i++) {
+                    index(i);
+                }
+            } else {
+                index(row);
+            }
+        }
+
+        mAmazonPackageID[row] = mPackages.intern(app.getAmazonPackageID());
+        mNookEAN[row] = numeric(row, COLUMN_NOOK_EAN, app.getNookEAN());
+        mBbID[row] = numeric(row, COLUMN_BB_ID, app.getBbID());
+        mBbVendorID[row] = numeric(row, COLUMN_BB_VENDOR_ID, app.getBbVendorID());
+        mGoogleDeveloperID[row] = mStrings.intern(app.getGoogleDeveloperID());
+        mSamsungDeveloperID[row] = mStrings.intern(app.getSamsungDeveloperID());
+        mDeveloperName[row] = mStrings.intern(app.getDeveloperName());
+
+        return row;
+    }
+
+    private void ensureCapacity(final int size) {
+        if(size <= mAppPackage.length) {
+            return;
+        }
+
+        final int capacity = mAppPackage.length * 2;
+        mAppPackage = Arrays.copyOf(mAppPackage, capacity);
+        mAmazonPackageID = Arrays.copyOf(mAmazonPackageID, capacity);
+        mNookEAN = Arrays.copyOf(mNookEAN, capacity);
+        mBbID = Arrays.copyOf(mBbID, capacity);
+        mBbVendorID = Arrays.copyOf(mBbVendorID, capacity);
+        mGoogleDeveloperID = Arrays.copyOf(mGoogleDeveloperID, capacity);
+        mSamsungDeveloperID = Arrays.copyOf(mSamsungDeveloperID, capacity);
+        mDeveloperName = Arrays.copyOf(mDeveloperName, capacity);
+        mPackageHash = Arrays.copyOf(mPackageHash, capacity);
+    }
+
+    /*
+     * Plain numbers are stored as is.  Anything else (leading zeros, letters,
+     *  too long) would not survive the round trip, so it is kept as text.
+     */
+    private long numeric(final int row, final int column, final String value) {
+        final Long key = Long.valueOf((long) row * NUMERIC_COLUMNS + column);
+        if(!mTextIds.isEmpty()) {
+            mTextIds.remove(key);
+        }
+
+        if(null == value) {
+            return NO_ID;
+        }
+
+        final long number = parse(value);
+        if(number == NO_ID) {
+            mTextIds.put(key, value);
+            return TEXT_ID;
+        }
+        return number;
+    }
+
+    private static long parse(final String value) {
+        final int length = value.length();
+        if(     length == 0 || length > MAX_DIGITS ||
+                (length > 1 && value.charAt(0) == '0')) {
+            return NO_ID;
+        }
+
+        long number = 0;
+        for(int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if(c < '0' || c > '9') {
+                return NO_ID;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private String text(final int row, final int column, final long value) {
+        if(value == NO_ID) {
+            return null;
+        } else if(value == TEXT_ID) {
+            return mTextIds.get(Long.valueOf((long) row * NUMERIC_COLUMNS + column));
+        }
+        return Long.toString(value);
+    }
+
+    /**
+     * @param appPackage   full package name
+     * @return the app's row, or -1 if it is not in the catalog
+     */
+    public int find(final CharSequence appPackage) {
+        if(null == appPackage) {
+            return -1;
+        }
+
+        final int h = hash(appPackage);
+        final int mask = mRowTable.length - 1;
+        for(int slot = h & mask; mRowTable[slot] != 0; slot = (slot + 1) & mask) {
+            final int row = mRowTable[slot] - 1;
+            if(mPackageHash[row] == h && mPackages.matches(mAppPackage[row], appPackage)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param appPackage   full package name
+     * @return the app, or null if it is not in the catalog
+     */
+    public AMMAppDescriptor get(final CharSequence appPackage) {
+        final int row = find(appPackage);
+        return (row < 0) ? null : get(row);
+    }
+
+    /**
+     * Build a descriptor for one row, e.g. to pass to AMMUrls or AMMLinks
+     *
+     * @param row  the app's row
+     * @return the app
+     */
+    public AMMAppDescriptor get(final int row) {
+        checkRow(row);
+
+        return new AMMAppDescriptor(
+                mPackages.get(mAppPackage[row]),
+                text(row, COLUMN_NOOK_EAN, mNookEAN[row]),
+                text(row, COLUMN_BB_ID, mBbID[row]),
+                text(row, COLUMN_BB_VENDOR_ID, mBbVendorID[row]),
+                mStrings.get(mGoogleDeveloperID[row]),
+                mPackages.get(mAmazonPackageID[row]),
+                mStrings.get(mSamsungDeveloperID[row]),
+                mStrings.get(mDeveloperName[row]));
+    }
+
+    private void checkRow(final int row) {
+        if(row < 0 || row >= mSize) {
+            throw new IndexOutOfBoundsException("Row " + row + ", size " + mSize);
+        }
+    }
+
+    public String getAppPackage(final int row) {
+        checkRow(row);
+        return mPackages.get(mAppPackage[row]);
+    }
+
+    /**
+     * @param row  the app's row
+     * @return the Nook EAN, or NO_ID if unknown or not a plain number
+     */
+    public long getNookEAN(final int row) {
+        checkRow(row);
+        return Math.max(NO_ID, mNookEAN[row]);
+    }
+
+    /**
+     * @param row  the app's row
+     * @return the BlackBerry content ID, or NO_ID if unknown or not a plain number
+     */
+    public long getBbID(final int row) {
+        checkRow(row);
+        return Math.max(NO_ID, mBbID[row]);
+    }
+
+    /**
+     * @param row  the app's row
+     * @return the BlackBerry vendor ID, or NO_ID if unknown or not a plain number
+     */
+    public long getBbVendorID(final int row) {
+        checkRow(row);
+        return Math.max(NO_ID, mBbVendorID[row]);
+    }
+
+    /**
+     * @return number of apps
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public AMMPackagePool getPackagePool() {
+        return mPackages;
+    }
+
+    public AMMStringPool getStringPool() {
+        return mStrings;
+    }
+}
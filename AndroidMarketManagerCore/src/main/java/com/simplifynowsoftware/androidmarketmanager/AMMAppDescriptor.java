@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMAppDescriptor holds the per-market identifiers of a single app, as they
+ *  would be passed to AMMLinks.marketShowApp and AMMLinks.marketShowAll.
+ *
+ * Any identifier may be null if it is not known; links that need it will not
+ *  be generated.  Instances are immutable, and equal when all identifiers are.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMAppDescriptor implements AMMStoreLinks {
+    private final String mAppPackage;
+    private final String mNookEAN;
+    private final String mBbID;
+    private final String mBbVendorID;
+    private final String mGoogleDeveloperID;
+    private final String mAmazonPackageID;
+    private final String mSamsungDeveloperID;
+    private final String mDeveloperName;
+
+    /**
+     * @param appPackage           Full package name for Google and Amazon (e.g. com.x.x)
+     * @param nookEAN              Numeric ID for app on Nook Store, no longer used
+     * @param bbID                 Numeric ID for app on BlackBerry Appworld
+     * @param bbVendorID           Numeric ID for vendor on BlackBerry Appworld
+     * @param googleDeveloperID    developer ID for Google Play
+     * @param amazonPackageID      package ID for an app released on the Amazon Appstore by same developer
+     * @param samsungDeveloperID   seller ID for Samsung Apps
+     * @param developerName        name used to search for developer in app markets
+     */
+    public AMMAppDescriptor(    final String appPackage,
+                                final String nookEAN,
+                                final String bbID,
+                                final String bbVendorID,
+                                final String googleDeveloperID,
+                                final String amazonPackageID,
+                                final String samsungDeveloperID,
+                                final String developerName) {
+        mAppPackage = appPackage;
+        mNookEAN = nookEAN;
+        mBbID = bbID;
+        mBbVendorID = bbVendorID;
+        mGoogleDeveloperID = googleDeveloperID;
+        mAmazonPackageID = amazonPackageID;
+        mSamsungDeveloperID = samsungDeveloperID;
+        mDeveloperName = developerName;
+    }
+
+    /**
+     * Generate the URL for this app in the selected market and mode.
+     *
+     * @param marketSelector   numeric identifier for the app market to link to
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @return the market URL, or null if none can be generated
+     */
+    public String getUrl(final int marketSelector, final int linkMode) {
+        return getUrl(marketSelector, linkMode, AMMConstants.URL_STYLE_NATIVE);
+    }
+
+    /**
+     * Generate the URL for this app in the selected market, mode and style.
+     *
+     * @param marketSelector   numeric identifier for the app market to link to
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @param urlStyle         AMMConstants.URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @return the market URL, or null if none can be generated
+     */
+    public String getUrl(final int marketSelector, final int linkMode, final int urlStyle) {
+        final AMMMarketProvider provider = AMMMarketRegistry.get(marketSelector);
+        if(null == provider) {
+            return null;
+        }
+
+        if(linkMode == AMMConstants.LINK_MODE_ALL) {
+            return provider.getAllUrl(urlStyle, this);
+        }
+        return provider.getAppUrl(urlStyle, this);
+    }
+
+    public String getAppPackage() {
+        return mAppPackage;
+    }
+
+    public String getNookEAN() {
+        return mNookEAN;
+    }
+
+    public String getBbID() {
+        return mBbID;
+    }
+
+    public String getBbVendorID() {
+        return mBbVendorID;
+    }
+
+    public String getGoogleDeveloperID() {
+        return mGoogleDeveloperID;
+    }
+
+    public String getAmazonPackageID() {
+        return mAmazonPackageID;
+    }
+
+    public String getSamsungDeveloperID() {
+        return mSamsungDeveloperID;
+    }
+
+    public String getDeveloperName() {
+        return mDeveloperName;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof AMMAppDescriptor)) {
+            return false;
+        }
+
+        final AMMAppDescriptor other = (AMMAppDescriptor) o;
+        return  same(mAppPackage, other.mAppPackage) &&
+                same(mNookEAN, other.mNookEAN) &&
+                same(mBbID, other.mBbID) &&
+                same(mBbVendorID, other.mBbVendorID) &&
+                same(mGoogleDeveloperID, other.mGoogleDeveloperID) &&
+                same(mAmazonPackageID, other.mAmazonPackageID) &&
+                same(mSamsungDeveloperID, other.mSamsungDeveloperID) &&
+                same(mDeveloperName, other.mDeveloperName);
+    }
+
+    private static boolean same(final String a, final String b) {
+        return (null == a) ? (null == b) : a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for(final String field : new String[] {
+                mAppPackage, mNookEAN, mBbID, mBbVendorID,
+                mGoogleDeveloperID, mAmazonPackageID, mSamsungDeveloperID, mDeveloperName }) {
+            hash = 31 * hash + ((null == field) ? 0 : field.hashCode());
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMAttributedLinks is an app's market links with AMMAttribution parameters
+ *  added to every URL.  Create it with AMMAttribution.wrap().
+ *
+ * When launched through AMMLinks, the campaign is also counted by the
+ *  registered AMMClickCounter.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMAttributedLinks implements AMMStoreLinks {
+    private final AMMStoreLinks mLinks;
+    private final AMMAttribution mAttribution;
+
+    AMMAttributedLinks(final AMMStoreLinks links, final AMMAttribution attribution) {
+        mLinks = links;
+        mAttribution = attribution;
+    }
+
+    public String getUrl(final int marketSelector, final int linkMode, final int urlStyle) {
+        return mAttribution.apply(marketSelector, mLinks.getUrl(marketSelector, linkMode, urlStyle));
+    }
+
+    public String getDeveloperName() {
+        return mLinks.getDeveloperName();
+    }
+
+    public AMMAttribution getAttribution() {
+        return mAttribution;
+    }
+
+    /*
+     * Equal when wrapping equal links with equal attribution, so links
+     *  wrapped on each call still share AMMLinks cache entries
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof AMMAttributedLinks)) {
+            return false;
+        }
+
+        final AMMAttributedLinks other = (AMMAttributedLinks) o;
+        return mLinks.equals(other.mLinks) && mAttribution.equals(other.mAttribution);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mLinks.hashCode() + mAttribution.hashCode();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMAttribution holds the campaign, associate and referral values to add to
+ *  market links, so installs and sales can be traced back to the link.
+ *
+ * For Amazon the associate tag becomes &t= and the referral (or, if there is
+ *  none, the campaign) becomes &ref=.  For every other market the referral
+ *  and campaign go into a Google Play style referrer parameter:
+ *  referrer=utm_source%3D<referral>%26utm_campaign%3D<campaign>
+ * <br>
+ * Parameters are only added to URLs that already have a query.  URLs that
+ *  end in an ID path segment, such as samsungapps://ProductDetail/<package>,
+ *  are left as they are, since the store would read the parameters as part
+ *  of the ID.
+ * <br>
+ * The query text for each kind of market is built once, when the object is
+ *  created.  Instances are immutable.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMAttribution {
+    private final String mCampaign;
+    private final String mAssociateTag;
+    private final String mReferral;
+
+    /*
+     * Parameters to append, without the leading separator; empty if none
+     */
+    private final String mAmazonQuery;
+    private final String mReferrerQuery;
+
+    /**
+     * @param campaign         campaign name, also used for click counts; may be null
+     * @param associateTag     Amazon associate tag; may be null
+     * @param referral         referral or source tag; may be null
+     */
+    public AMMAttribution(final String campaign, final String associateTag, final String referral) {
+        mCampaign = campaign;
+        mAssociateTag = associateTag;
+        mReferral = referral;
+
+        final StringBuilder amazon = new StringBuilder();
+        if(null != associateTag) {
+            amazon.append(AMMConstants.AMAZON_URL_POSTFIX_ASSOCIATE);
+            AMMUrlEncoder.appendEncoded(amazon, associateTag, AMMUrlEncoder.COMPONENT_QUERY);
+        }
+        final String ref = (null == referral) ? campaign : referral;
+        if(null != ref) {
+            amazon.append(AMMConstants.AMAZON_URL_POSTFIX_REFERRAL);
+            AMMUrlEncoder.appendEncoded(amazon, ref, AMMUrlEncoder.COMPONENT_QUERY);
+        }
+        // Postfixes start with '&', which is added when appending
+        mAmazonQuery = (amazon.length() == 0) ? "" : amazon.substring(1);
+
+        final StringBuilder referrer = new StringBuilder();
+        if(null != referral) {
+            referrer.append(AMMConstants.REFERRER_SOURCE);
+            AMMUrlEncoder.appendEncoded(referrer, referral, AMMUrlEncoder.COMPONENT_QUERY);
+        }
+        if(null != campaign) {
+            if(referrer.length() > 0) {
+                referrer.append('&');
+            }
+            referrer.append(AMMConstants.REFERRER_CAMPAIGN);
+            AMMUrlEncoder.appendEncoded(referrer, campaign, AMMUrlEncoder.COMPONENT_QUERY);
+        }
+        mReferrerQuery = (referrer.length() == 0)
+                ? ""
+                : AMMConstants.MARKET_URL_POSTFIX_REFERRER + escapeParameter(referrer);
+    }
+
+    /*
+     * Encode an already encoded query string again, so it is a single
+     *  parameter that decodes back to itself.  AMMUrlEncoder keeps escapes
+     *  and '+' as they are, so it cannot be used for this.
+     */
+    private static String escapeParameter(final CharSequence query) {
+        final StringBuilder builder = new StringBuilder(query.length() + 16);
+
+        for(int i = 0; i < query.length(); i++) {
+            final char c = query.charAt(i);
+            switch(c) {
+                case '%': builder.append("%25"); break;
+                case '&': builder.append("%26"); break;
+                case '=': builder.append("%3D"); break;
+                case '+': builder.append("%2B"); break;
+                default: builder.append(c); break;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Add the attribution parameters to a market URL
+     *
+     * @param marketSelector   the market the URL is for
+     * @param url              the URL; may be null
+     * @return the URL with parameters added, or the same URL if there are
+     *  none for this market or the URL has no query
+     */
+    public String apply(final int marketSelector, final String url) {
+        final String query = (marketSelector == AMMConstants.MARKET_SELECTOR_AMAZON)
+                ? mAmazonQuery
+                : mReferrerQuery;
+
+        if(null == url || query.length() == 0 || url.indexOf('?') < 0) {
+            return url;
+        }
+
+        return new StringBuilder(url.length() + 1 + query.length())
+                .append(url)
+                .append('&')
+                .append(query)
+                .toString();
+    }
+
+    /**
+     * Wrap an app's links so every URL carries these parameters
+     *
+     * @param links    the app's market URLs, such as an AMMAppDescriptor
+     * @return links that can be passed to AMMLinks in place of the original
+     */
+    public AMMAttributedLinks wrap(final AMMStoreLinks links) {
+        return new AMMAttributedLinks(links, this);
+    }
+
+    public String getCampaign() {
+        return mCampaign;
+    }
+
+    public String getAssociateTag() {
+        return mAssociateTag;
+    }
+
+    public String getReferral() {
+        return mReferral;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof AMMAttribution)) {
+            return false;
+        }
+
+        final AMMAttribution other = (AMMAttribution) o;
+        return  same(mCampaign, other.mCampaign) &&
+                same(mAssociateTag, other.mAssociateTag) &&
+                same(mReferral, other.mReferral);
+    }
+
+    private static boolean same(final String a, final String b) {
+        return (null == a) ? (null == b) : a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = (null == mCampaign) ? 0 : mCampaign.hashCode();
+        hash = 31 * hash + ((null == mAssociateTag) ? 0 : mAssociateTag.hashCode());
+        return 31 * hash + ((null == mReferral) ? 0 : mReferral.hashCode());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMBase62 converts numeric IDs to short codes of [0-9A-Za-z] and back, for
+ *  short links that survive any URL or message without escaping.
+ *
+ * A code of 6 characters covers about 56 billion IDs.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMBase62 {
+    private static final char[] DIGITS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int BASE = DIGITS.length;
+
+    /*
+     * Long.MAX_VALUE needs 11 digits
+     */
+    private static final int MAX_LENGTH = 11;
+
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        for(int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = -1;
+        }
+        for(int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private AMMBase62() {
+    }
+
+    /**
+     * @param id   the value to encode; must not be negative
+     * @return the code, without leading zeros (0 encodes as "0")
+     */
+    public static String encode(long id) {
+        if(id < 0) {
+            throw new IllegalArgumentException("Negative ID: " + id);
+        }
+
+        final char[] buffer = new char[MAX_LENGTH];
+        int start = MAX_LENGTH;
+        do {
+            buffer[--start] = DIGITS[(int) (id % BASE)];
+            id /= BASE;
+        } while(id > 0);
+
+        return new String(buffer, start, MAX_LENGTH - start);
+    }
+
+    /**
+     * @param code the code to decode
+     * @return the ID, or -1 if the code is empty, has other characters, or
+     *  does not fit in a long
+     */
+    public static long decode(final CharSequence code) {
+        final int length = (null == code) ? 0 : code.length();
+        if(length == 0 || length > MAX_LENGTH) {
+            return -1;
+        }
+
+        long id = 0;
+        for(int i = 0; i < length; i++) {
+            final char c = code.charAt(i);
+            final int value = (c < VALUES.length) ? VALUES[c] : -1;
+            if(value < 0 || id > (Long.MAX_VALUE - value) / BASE) {
+                return -1;
+            }
+            id = id * BASE + value;
+        }
+
+        return id;
+    }
+}
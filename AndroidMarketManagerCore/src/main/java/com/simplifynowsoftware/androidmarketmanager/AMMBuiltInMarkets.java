@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMBuiltInMarkets holds the providers for the markets supported out of the
+ *  box.  They are registered by AMMMarketRegistry when it is loaded.
+ * See AMMConstants for details on URL construction for each market, and
+ *  AMMUrlTemplates for the compiled form.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+final class AMMBuiltInMarkets {
+    private static final int[] NATIVE_THEN_WEB = {
+            AMMConstants.URL_STYLE_NATIVE,
+            AMMConstants.URL_STYLE_WEB
+    };
+
+    private AMMBuiltInMarkets() {
+    }
+
+    static AMMMarketProvider[] all() {
+        return new AMMMarketProvider[] {
+                new Google(),
+                new Amazon(),
+                new BlackBerry(),
+                new Samsung()
+        };
+    }
+
+    /**
+     * Google Play
+     */
+    static final class Google implements AMMMarketProvider {
+        public int getMarketSelector() {
+            return AMMConstants.MARKET_SELECTOR_GOOGLE;
+        }
+
+        public int[] getUrlStyles() {
+            return NATIVE_THEN_WEB.clone();
+        }
+
+        public String[] getInstallerPackages() {
+            return new String[] {
+                    AMMConstants.INSTALLER_GOOGLE,
+                    AMMConstants.INSTALLER_GOOGLE_FEEDBACK
+            };
+        }
+
+        public String getAppUrl(final int urlStyle, final AMMAppDescriptor app) {
+            final String appPackage = app.getAppPackage();
+            if(null == appPackage) {
+                return null;
+            }
+
+            return (urlStyle == AMMConstants.URL_STYLE_WEB ? AMMUrlTemplates.GOOGLE_APP_WEB : AMMUrlTemplates.GOOGLE_APP)
+                    .fill(appPackage);
+        }
+
+        public String getAllUrl(final int urlStyle, final AMMAppDescriptor app) {
+            final boolean web = (urlStyle == AMMConstants.URL_STYLE_WEB);
+            final String googleDeveloperID = app.getGoogleDeveloperID();
+
+            if(null == googleDeveloperID) {
+                /*
+                 * Attempt to extract developer name from package name.
+                 * This might not work too well - it is better to set the
+                 *  googleDeveloperID.
+                 */
+                final String developerPackage = AMMUrls.developerPackage(app.getAppPackage());
+                if(null == developerPackage) {
+                    return null;
+                }
+
+                return (web ? AMMUrlTemplates.GOOGLE_SEARCH_WEB : AMMUrlTemplates.GOOGLE_SEARCH)
+                        .fill(developerPackage);
+            } else {
+                // Search by developer ID
+                return (web ? AMMUrlTemplates.GOOGLE_DEVSEARCH_WEB : AMMUrlTemplates.GOOGLE_DEVSEARCH)
+                        .fill(googleDeveloperID);
+            }
+        }
+    }
+
+    /**
+     * Amazon Appstore
+     */
+    static final class Amazon implements AMMMarketProvider {
+        /*
+         * If Amazon is set to use HTTP, the native URL already is the web URL
+         */
+        private static final int[] STYLES = AMMConstants.AMAZON_USE_HTTP
+                ? new int[] { AMMConstants.URL_STYLE_WEB }
+                : NATIVE_THEN_WEB;
+
+        public int getMarketSelector() {
+            return AMMConstants.MARKET_SELECTOR_AMAZON;
+        }
+
+        public int[] getUrlStyles() {
+            return STYLES.clone();
+        }
+
+        public String[] getInstallerPackages() {
+            return new String[] { AMMConstants.INSTALLER_AMAZON };
+        }
+
+        public String getAppUrl(final int urlStyle, final AMMAppDescriptor app) {
+            final String appPackage = app.getAppPackage();
+            if(null == appPackage) {
+                return null;
+            }
+
+            return (urlStyle == AMMConstants.URL_STYLE_WEB ? AMMUrlTemplates.AMAZON_APP_WEB : AMMUrlTemplates.AMAZON_APP)
+                    .fill(appPackage);
+        }
+
+        public String getAllUrl(final int urlStyle, final AMMAppDescriptor app) {
+            final AMMUrlTemplate template = (urlStyle == AMMConstants.URL_STYLE_WEB)
+                    ? AMMUrlTemplates.AMAZON_SHOWALL_WEB
+                    : AMMUrlTemplates.AMAZON_SHOWALL;
+            final String amazonPackageID = app.getAmazonPackageID();
+
+            if(null == amazonPackageID) {
+                /*
+                 *  Fallback - find by searching from the current package name.
+                 *  This will NOT find anything if the app has not been released,
+                 *   even if the base package name is shared by your other apps.
+                 */
+                final String appPackage = app.getAppPackage();
+                return (null == appPackage) ? null : template.fill(appPackage);
+            } else {
+                /*
+                 *  Search for developer's apps
+                 */
+                /* WARNING - some have reported that 'showall' with ASIN is more reliable.
+                 *  That is not yet implemented here, but would be trivial to
+                 *  swap the URL as shown below, and passing the correct ASIN
+                 *  for the amazonPackageID value
+                 */
+//                    marketUrl +=  AMMConstants.AMAZON_URL_TYPE_ASIN + amazonPackageID /* pass ASIN to amazonPackageID */
+//                            + AMMConstants.AMAZON_URL_POSTFIX_SHOWALL;
+
+                return template.fill(amazonPackageID);
+            }
+        }
+    }
+
+    /**
+     * BlackBerry Appworld
+     */
+    static final class BlackBerry implements AMMMarketProvider {
+        public int getMarketSelector() {
+            return AMMConstants.MARKET_SELECTOR_BLACKBERRY;
+        }
+
+        public int[] getUrlStyles() {
+            return NATIVE_THEN_WEB.clone();
+        }
+
+        /*
+         * Appworld does not report itself as the installer
+         */
+        public String[] getInstallerPackages() {
+            return new String[0];
+        }
+
+        public String getAppUrl(final int urlStyle, final AMMAppDescriptor app) {
+            /*
+             * Until BB linking works again, reverting to Google Play linking
+             * Note that if your package name is different in BlackBerry,
+             *  you'll have to ensure the proper data is passed in for the
+             *  packageName for that build.
+             * January 2015 - it appears that the appworld:// URLs now work,
+             *  and are needed for 'find all'.  They are not needed here for a
+             *  single app though, so leaving as-is unless there's a problem.
+             */
+            final String appPackage = app.getAppPackage();
+            if(null == appPackage) {
+                return null;
+            }
+
+            return (urlStyle == AMMConstants.URL_STYLE_WEB ? AMMUrlTemplates.GOOGLE_APP_WEB : AMMUrlTemplates.GOOGLE_APP)
+                    .fill(appPackage);
+            // Original logic to restore later...
+//            // Attempt to use bbID, then fall back to bbVendorID
+//            if(null == bbID) {
+//                marketUrl = AMMConstants.BLACKBERRY_URL_VENDOR_ALL_WEB_PREFIX
+//                                    + bbVendorID;
+//            } else {
+//                marketUrl = AMMConstants.BLACKBERRY_URL_PREFIX + bbID;
+//            }
+        }
+
+        public String getAllUrl(final int urlStyle, final AMMAppDescriptor app) {
+            /*
+             * For BlackBerry Appworld, Google play URLs work, and so do
+             *  the custom BlackBerry URLs.
+             *
+             * History: for a while, the BlackBerry links all broke.  Then
+             *  the web one worked but the appworld:// urls didn't.
+             *  However, the web link opened a web browser instead of the
+             *  Appworld app, so apps couldn't be downloaded.
+             *  Now (January 2015), it appears that either the appworld://
+             *  URL or the HTTP:// URL can be used to the same effect.
+             *  Good thing too, since the Google Play URLs now find a lot
+             *  of garbage.
+             */
+            final String bbVendorID = app.getBbVendorID();
+            if(null == bbVendorID) {
+                return null;
+            }
+
+            return (urlStyle == AMMConstants.URL_STYLE_WEB
+                        ? AMMUrlTemplates.BLACKBERRY_VENDOR_ALL_WEB
+                        : AMMUrlTemplates.BLACKBERRY_VENDOR_ALL)
+                    .fill(bbVendorID);
+            /*
+             * As of 2014, using any of the Google Play searches brings
+             *  back a mountain of garbage.
+             */
+//                marketUrl = AMMConstants.MARKET_URL_SEARCH_PREFIX
+//                        + developerName;
+        }
+    }
+
+    /**
+     * Samsung Apps
+     */
+    static final class Samsung implements AMMMarketProvider {
+        public int getMarketSelector() {
+            return AMMConstants.MARKET_SELECTOR_SAMSUNG;
+        }
+
+        public int[] getUrlStyles() {
+            return NATIVE_THEN_WEB.clone();
+        }
+
+        public String[] getInstallerPackages() {
+            return new String[] { AMMConstants.INSTALLER_SAMSUNG };
+        }
+
+        public String getAppUrl(final int urlStyle, final AMMAppDescriptor app) {
+            final String appPackage = app.getAppPackage();
+
+            // No web page for a package name; only native
+            if(null == appPackage || urlStyle == AMMConstants.URL_STYLE_WEB) {
+                return null;
+            }
+
+            return AMMUrlTemplates.SAMSUNG_APP.fill(appPackage);
+        }
+
+        public String getAllUrl(final int urlStyle, final AMMAppDescriptor app) {
+            if(urlStyle == AMMConstants.URL_STYLE_WEB) {
+                /*
+                 * There is no web page for the seller ID, so search the
+                 *  web store by name.  This may or may not find all apps.
+                 */
+                final String developerName = app.getDeveloperName();
+                return (null == developerName) ? null : AMMUrlTemplates.SAMSUNG_SEARCH_WEB.fill(developerName);
+            }
+
+            final String samsungDeveloperID = app.getSamsungDeveloperID();
+            return (null == samsungDeveloperID) ? null : AMMUrlTemplates.SAMSUNG_VENDOR_ALL.fill(samsungDeveloperID);
+        }
+    }
+}
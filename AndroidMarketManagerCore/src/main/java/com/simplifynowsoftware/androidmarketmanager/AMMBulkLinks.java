@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * AMMBulkLinks generates every link for a whole catalog of apps at once.
+ *
+ * The catalog is split into ranges that are processed in parallel on a
+ *  fork/join pool.  Links that cannot be generated are reported in the
+ *  result rather than shown to the user.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMBulkLinks {
+    /*
+     * Below this many apps a range is processed directly instead of being
+     *  split further.
+     */
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private static final int[] ALL_MODES = {
+            AMMConstants.LINK_MODE_APP,
+            AMMConstants.LINK_MODE_ALL
+    };
+
+    /*
+     * Shared pool, created on first use
+     */
+    private static class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+
+    /**
+     * Generate links in both modes for every app and market.
+     *
+     * @param apps         the apps to link to
+     * @param selectors    the MARKET_SELECTOR_* values to link to
+     * @return all links, plus a failure entry for each one that could not be built
+     */
+    public static AMMBulkResult generate(   final Collection<AMMAppDescriptor> apps,
+                                            final int[] selectors) {
+        return generate(apps, selectors, ALL_MODES);
+    }
+
+    /**
+     * Generate links for every app, market and mode.
+     *
+     * @param apps         the apps to link to
+     * @param selectors    the MARKET_SELECTOR_* values to link to
+     * @param linkModes    the LINK_MODE_* values to generate
+     * @return all links, plus a failure entry for each one that could not be built
+     */
+    public static AMMBulkResult generate(   final Collection<AMMAppDescriptor> apps,
+                                            final int[] selectors,
+                                            final int[] linkModes) {
+        return generate(PoolHolder.POOL, apps, selectors, linkModes);
+    }
+
+    /**
+     * Generate links for every app, market and mode on the given pool.
+     *
+     * @param pool         the fork/join pool to run on
+     * @param apps         the apps to link to
+     * @param selectors    the MARKET_SELECTOR_* values to link to
+     * @param linkModes    the LINK_MODE_* values to generate
+     * @return all links, plus a failure entry for each one that could not be built
+     */
+    public static AMMBulkResult generate(   final ForkJoinPool pool,
+                                            final Collection<AMMAppDescriptor> apps,
+                                            final int[] selectors,
+                                            final int[] linkModes) {
+        final AMMAppDescriptor[] appArray = apps.toArray(new AMMAppDescriptor[apps.size()]);
+        final AMMBulkResult result = new AMMBulkResult(appArray, selectors.clone(), linkModes.clone());
+
+        pool.invoke(new RangeTask(result, 0, appArray.length));
+
+        return result;
+    }
+
+    /*
+     * Fills the result slots for apps in [mStart, mEnd)
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AMMBulkResult mResult;
+        private final int mStart;
+        private final int mEnd;
+
+        RangeTask(final AMMBulkResult result, final int start, final int end) {
+            mResult = result;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(mEnd - mStart <= SPLIT_THRESHOLD) {
+                computeDirectly();
+            } else {
+                final int middle = (mStart + mEnd) >>> 1;
+                invokeAll(  new RangeTask(mResult, mStart, middle),
+                            new RangeTask(mResult, middle, mEnd));
+            }
+        }
+
+        private void computeDirectly() {
+            final AMMAppDescriptor[] apps = mResult.getApps();
+            final int[] selectors = mResult.getSelectors();
+            final int[] linkModes = mResult.getLinkModes();
+            List<AMMBulkResult.Failure> failures = null;
+
+            for(int appIndex = mStart; appIndex < mEnd; appIndex++) {
+                final AMMAppDescriptor app = apps[appIndex];
+
+                for(int s = 0; s < selectors.length; s++) {
+                    for(int m = 0; m < linkModes.length; m++) {
+                        String url = null;
+                        Throwable error = null;
+
+                        try {
+                            if(null != app) {
+                                url = app.getUrl(selectors[s], linkModes[m]);
+                            }
+                        } catch (RuntimeException e) {
+                            error = e;
+                        }
+
+                        if(null == url) {
+                            if(null == failures) {
+                                failures = new ArrayList<AMMBulkResult.Failure>();
+                            }
+                            failures.add(new AMMBulkResult.Failure(appIndex, selectors[s], linkModes[m], error));
+                        } else {
+                            mResult.setUrl(appIndex, s, m, url);
+                        }
+                    }
+                }
+            }
+
+            if(null != failures) {
+                mResult.addFailures(failures);
+            }
+        }
+    }
+}
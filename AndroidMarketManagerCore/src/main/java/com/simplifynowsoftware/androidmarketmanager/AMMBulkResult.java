@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AMMBulkResult holds the links generated by AMMBulkLinks.
+ *
+ * Links are stored in one flat array, addressed by app index and by the
+ *  position of the selector and mode in the arrays passed to AMMBulkLinks.
+ *  Slots for links that could not be generated are null, and each has a
+ *  matching Failure entry.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMBulkResult {
+    private final AMMAppDescriptor[] mApps;
+    private final int[] mSelectors;
+    private final int[] mLinkModes;
+    private final String[] mUrls;
+    private final List<Failure> mFailures = new ArrayList<Failure>();
+
+    AMMBulkResult(final AMMAppDescriptor[] apps, final int[] selectors, final int[] linkModes) {
+        mApps = apps;
+        mSelectors = selectors;
+        mLinkModes = linkModes;
+        mUrls = new String[apps.length * selectors.length * linkModes.length];
+    }
+
+    private int slot(final int appIndex, final int selectorIndex, final int modeIndex) {
+        return (appIndex * mSelectors.length + selectorIndex) * mLinkModes.length + modeIndex;
+    }
+
+    void setUrl(final int appIndex, final int selectorIndex, final int modeIndex, final String url) {
+        mUrls[slot(appIndex, selectorIndex, modeIndex)] = url;
+    }
+
+    void addFailures(final List<Failure> failures) {
+        synchronized(mFailures) {
+            mFailures.addAll(failures);
+        }
+    }
+
+    AMMAppDescriptor[] getApps() {
+        return mApps;
+    }
+
+    int[] getSelectors() {
+        return mSelectors;
+    }
+
+    int[] getLinkModes() {
+        return mLinkModes;
+    }
+
+    /**
+     * @param appIndex         position of the app in the input collection
+     * @param selectorIndex    position of the market in the selector array
+     * @param modeIndex        position of the mode in the link mode array
+     * @return the URL, or null if it could not be generated
+     */
+    public String getUrl(final int appIndex, final int selectorIndex, final int modeIndex) {
+        return mUrls[slot(appIndex, selectorIndex, modeIndex)];
+    }
+
+    /**
+     * @return number of apps in the input
+     */
+    public int getAppCount() {
+        return mApps.length;
+    }
+
+    /**
+     * @return number of links generated successfully
+     */
+    public int getLinkCount() {
+        return mUrls.length - getFailures().size();
+    }
+
+    /**
+     * @return the links that could not be generated, in no particular order
+     */
+    public List<Failure> getFailures() {
+        synchronized(mFailures) {
+            return Collections.unmodifiableList(new ArrayList<Failure>(mFailures));
+        }
+    }
+
+    /**
+     * A link that could not be generated
+     */
+    public static final class Failure {
+        private final int mAppIndex;
+        private final int mMarketSelector;
+        private final int mLinkMode;
+        private final Throwable mError;
+
+        Failure(final int appIndex, final int marketSelector, final int linkMode, final Throwable error) {
+            mAppIndex = appIndex;
+            mMarketSelector = marketSelector;
+            mLinkMode = linkMode;
+            mError = error;
+        }
+
+        /**
+         * @return position of the app in the input collection
+         */
+        public int getAppIndex() {
+            return mAppIndex;
+        }
+
+        public int getMarketSelector() {
+            return mMarketSelector;
+        }
+
+        public int getLinkMode() {
+            return mLinkMode;
+        }
+
+        /**
+         * @return the error raised while building the link, or null if the
+         *  market simply has no URL for the identifiers given
+         */
+        public Throwable getError() {
+            return mError;
+        }
+
+        @Override
+        public String toString() {
+            return "app " + mAppIndex + ", market " + mMarketSelector + ", mode " + mLinkMode
+                    + ((null == mError) ? ": no URL" : ": " + mError);
+        }
+    }
+}
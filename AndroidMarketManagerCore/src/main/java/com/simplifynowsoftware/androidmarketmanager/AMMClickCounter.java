@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AMMClickCounter counts store link clicks per campaign and market, in
+ *  memory, for AMMClickLog to write out in batches.
+ *
+ * Counts are striped like a LongAdder: each campaign has one row of counters
+ *  per stripe, and a thread always adds to the same stripe, so threads
+ *  counting at the same time rarely touch the same cache line.  After a
+ *  campaign's first click, counting takes no locks and allocates nothing.
+ *  A campaign with no clicks between two drains is dropped by the second.
+ * <br>
+ * Markets above MAX_SELECTOR share the last slot.  A null campaign is counted
+ *  as "".
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMClickCounter {
+    public static final int MAX_SELECTOR = 15;
+
+    /*
+     * Power of two.  A row of 16 counters is two cache lines.
+     */
+    private static final int STRIPES = 8;
+    private static final int SELECTOR_SLOTS = MAX_SELECTOR + 1;
+
+    private final ConcurrentHashMap<String, Campaign> mCampaigns =
+            new ConcurrentHashMap<String, Campaign>();
+
+    /*
+     * Once retired, a row is no longer in the map and is swept one last time
+     */
+    private static final class Campaign {
+        final AtomicLongArray mCounts = new AtomicLongArray(STRIPES * SELECTOR_SLOTS);
+        volatile boolean mRetired = false;
+    }
+
+    /**
+     * Receives counts from drain() and AMMClickLog.read()
+     */
+    public interface Sink {
+        /**
+         * @param campaign         the campaign; "" if none
+         * @param marketSelector   the market
+         * @param count            number of clicks
+         */
+        void onCount(String campaign, int marketSelector, long count);
+    }
+
+    /**
+     * Count one click
+     *
+     * @param campaign         the campaign; may be null
+     * @param marketSelector   the market
+     */
+    public void increment(final String campaign, final int marketSelector) {
+        add(campaign, marketSelector, 1);
+    }
+
+    /**
+     * @param campaign         the campaign; may be null
+     * @param marketSelector   the market
+     * @param count            number of clicks to add
+     */
+    public void add(final String campaign, final int marketSelector, final long count) {
+        final int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        final int index = stripe * SELECTOR_SLOTS + slot(marketSelector);
+        long pending = count;
+
+        /*
+         * If drain() retired the row meanwhile, its last sweep may have
+         *  missed this count; take back whatever is left and add it to the
+         *  campaign's new row.  Each count is taken by exactly one getAndSet.
+         */
+        while(pending != 0) {
+            final Campaign row = campaign(campaign);
+            row.mCounts.addAndGet(index, pending);
+            if(!row.mRetired) {
+                return;
+            }
+            pending = row.mCounts.getAndSet(index, 0);
+        }
+    }
+
+    private Campaign campaign(final String campaign) {
+        final String key = (null == campaign) ? "" : campaign;
+        Campaign row = mCampaigns.get(key);
+
+        if(null == row) {
+            final Campaign created = new Campaign();
+            row = mCampaigns.putIfAbsent(key, created);
+            if(null == row) {
+                row = created;
+            }
+        }
+
+        return row;
+    }
+
+    private static int slot(final int marketSelector) {
+        if(marketSelector < 0 || marketSelector > MAX_SELECTOR) {
+            return MAX_SELECTOR;
+        }
+        return marketSelector;
+    }
+
+    /**
+     * @param campaign         the campaign; may be null
+     * @param marketSelector   the market
+     * @return clicks counted since the last drain()
+     */
+    public long get(final String campaign, final int marketSelector) {
+        final Campaign row = mCampaigns.get((null == campaign) ? "" : campaign);
+        if(null == row) {
+            return 0;
+        }
+
+        final AtomicLongArray counters = row.mCounts;
+
+        long total = 0;
+        for(int stripe = 0; stripe < STRIPES; stripe++) {
+            total += counters.get(stripe * SELECTOR_SLOTS + slot(marketSelector));
+        }
+        return total;
+    }
+
+    /**
+     * Pass every non-zero count to the sink and reset it.  Clicks counted at
+     *  the same time are kept for the next drain, never lost.  Campaigns with
+     *  nothing to pass on are removed.
+     *
+     * @param sink receives the counts
+     * @return number of counts passed to the sink
+     */
+    public int drain(final Sink sink) {
+        int drained = 0;
+
+        for(final Map.Entry<String, Campaign> entry : mCampaigns.entrySet()) {
+            final Campaign row = entry.getValue();
+            int found = sweep(entry.getKey(), row.mCounts, sink);
+
+            if(found == 0) {
+                row.mRetired = true;
+                mCampaigns.remove(entry.getKey(), row);
+
+                // Clicks that arrived before the row was retired
+                found = sweep(entry.getKey(), row.mCounts, sink);
+            }
+
+            drained += found;
+        }
+
+        return drained;
+    }
+
+    private static int sweep(final String campaign, final AtomicLongArray counters, final Sink sink) {
+        int drained = 0;
+
+        for(int selector = 0; selector < SELECTOR_SLOTS; selector++) {
+            long total = 0;
+            for(int stripe = 0; stripe < STRIPES; stripe++) {
+                total += counters.getAndSet(stripe * SELECTOR_SLOTS + selector, 0);
+            }
+
+            if(total != 0) {
+                sink.onCount(campaign, selector, total);
+                drained++;
+            }
+        }
+
+        return drained;
+    }
+
+    /**
+     * @return number of campaigns currently counted
+     */
+    int size() {
+        return mCampaigns.size();
+    }
+}
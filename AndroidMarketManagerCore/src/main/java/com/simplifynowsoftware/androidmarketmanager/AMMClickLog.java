@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AMMClickLog writes the counts from an AMMClickCounter to a file, in
+ *  batches, on a background thread.  Clicks themselves only touch memory.
+ *
+ * Every period, the counter is drained and all non-zero counts are appended
+ *  with a single write, one line each:
+ *  <time millis> TAB <market selector> TAB <count> TAB <campaign>
+ * <br>
+ * If the write fails, the file is cut back to its length before the batch
+ *  and the counts go back into the counter, to be written with the next
+ *  batch.  If the file cannot be cut back either, the batch is dropped
+ *  rather than risk counting it twice.  Call flush() when the app goes to
+ *  the background, and close() when done.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMClickLog {
+    public static final long DEFAULT_PERIOD_MILLIS = 60 * 1000;
+
+    private static final String CHARSET = "UTF-8";
+
+    private final File mFile;
+    private final AMMClickCounter mCounter;
+    private final ScheduledExecutorService mScheduler;
+
+    /**
+     * Start writing counts every DEFAULT_PERIOD_MILLIS
+     *
+     * @param file     the file to append to, such as one in Context.getFilesDir()
+     * @param counter  the counts to write
+     */
+    public AMMClickLog(final File file, final AMMClickCounter counter) {
+        this(file, counter, DEFAULT_PERIOD_MILLIS);
+    }
+
+    /**
+     * @param file         the file to append to, such as one in Context.getFilesDir()
+     * @param counter      the counts to write
+     * @param periodMillis time between batches
+     */
+    public AMMClickLog(final File file, final AMMClickCounter counter, final long periodMillis) {
+        mFile = file;
+        mCounter = counter;
+        mScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "AMMClickLog");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+
+        mScheduler.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    flush();
+                } catch(IOException e) {
+                    // Counts were put back; retried with the next batch
+                } catch(RuntimeException e) {
+                    // An exception here would cancel all later batches
+                }
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write the current counts now, on the calling thread
+     *
+     * @return number of lines written
+     * @throws IOException if the file could not be written; the counts are
+     *  kept for the next attempt
+     */
+    public synchronized int flush() throws IOException {
+        final List<Count> batch = new ArrayList<Count>();
+        final StringBuilder text = new StringBuilder();
+        final long now = System.currentTimeMillis();
+
+        mCounter.drain(new AMMClickCounter.Sink() {
+            public void onCount(final String campaign, final int marketSelector, final long count) {
+                batch.add(new Count(campaign, marketSelector, count));
+                text.append(now).append('\t')
+                        .append(marketSelector).append('\t')
+                        .append(count).append('\t')
+                        .append(clean(campaign)).append('\n');
+            }
+        });
+
+        if(batch.isEmpty()) {
+            return 0;
+        }
+
+        final byte[] bytes = text.toString().getBytes(CHARSET);
+        RandomAccessFile out = null;
+        long length = -1;
+        try {
+            out = new RandomAccessFile(mFile, "rw");
+            length = out.length();
+            out.seek(length);
+            out.write(bytes);
+            out.close();
+        } catch(IOException e) {
+            if(restore(out, length)) {
+                for(final Count count : batch) {
+                    mCounter.add(count.mCampaign, count.mMarketSelector, count.mCount);
+                }
+            }
+            throw e;
+        }
+
+        return batch.size();
+    }
+
+    /*
+     * Cut off any part of the batch that reached the file.  Returns false if
+     *  that failed, so the batch may be in the file in whole or in part.
+     */
+    private static boolean restore(final RandomAccessFile out, final long length) {
+        if(length < 0) {
+            // Nothing was written
+            closeQuietly(out);
+            return true;
+        }
+
+        try {
+            out.setLength(length);
+            return true;
+        } catch(IOException e) {
+            return false;
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private static void closeQuietly(final RandomAccessFile file) {
+        if(null == file) {
+            return;
+        }
+        try {
+            file.close();
+        } catch(IOException e) {
+            // Nothing more to do
+        }
+    }
+
+    /*
+     * Campaign names are free text; keep each record on one line
+     */
+    private static String clean(final String campaign) {
+        return campaign.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Stop the background thread and write any remaining counts
+     *
+     * @throws IOException if the last batch could not be written
+     */
+    public void close() throws IOException {
+        mScheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * Read back a file written by AMMClickLog, one call per line.  Lines
+     *  that cannot be parsed are skipped.
+     *
+     * @param file the file to read
+     * @param sink receives each count
+     * @throws IOException if the file could not be read
+     */
+    public static void read(final File file, final AMMClickCounter.Sink sink) throws IOException {
+        final BufferedReader reader;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), CHARSET));
+        } catch(FileNotFoundException e) {
+            // Nothing written yet
+            return;
+        }
+
+        try {
+            String line;
+            while(null != (line = reader.readLine())) {
+                final String[] fields = line.split("\t", 4);
+                if(fields.length != 4) {
+                    continue;
+                }
+
+                try {
+                    sink.onCount(fields[3], Integer.parseInt(fields[1]), Long.parseLong(fields[2]));
+                } catch(NumberFormatException e) {
+                    // Skip damaged line
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static final class Count {
+        final String mCampaign;
+        final int mMarketSelector;
+        final long mCount;
+
+        Count(final String campaign, final int marketSelector, final long count) {
+            mCampaign = campaign;
+            mMarketSelector = marketSelector;
+            mCount = count;
+        }
+    }
+}
@@ -60,6 +60,53 @@ public class AMMConstants {
     public static final int MARKET_SELECTOR_BLACKBERRY  = 4;
     public static final int MARKET_SELECTOR_SAMSUNG     = 5;
     
+    /*
+     * Let AMMLinks pick the market for this install.  The choice is made once
+     *  per process, from the package that installed the app, the device, and
+     *  the markets present.  See AMMMarketDetector.
+     */
+    public static final int MARKET_SELECTOR_AUTO        = -1;
+
+    /*
+     * Link modes, matching the two AMMLinks entry points:
+     *  LINK_MODE_APP - a single app (marketShowApp)
+     *  LINK_MODE_ALL - all apps by the developer (marketShowAll)
+     */
+    public static final int LINK_MODE_APP   = 0;
+    public static final int LINK_MODE_ALL   = 1;
+    
+    /*
+     * URL styles.  Each market has a native URL (market://, amzn://, ...) that
+     *  opens the market app, and most have a web URL that works in a browser.
+     *  AMMFallbackPlan tries them in that order.
+     */
+    public static final int URL_STYLE_NATIVE    = 0;
+    public static final int URL_STYLE_WEB       = 1;
+    
+    /*
+     * Launch outcomes, as reported to an AMMLaunchListener or AMMLaunchCallback
+     *  LAUNCHED - the market's own URL was started
+     *  FALLBACK - a later step of the fallback plan was started
+     *  FAILED   - nothing could be started (no URL, or no app to handle it);
+     *              the market message was shown unless a callback handles it
+     *  SKIPPED  - marketShowAsync only: the Activity finished before the link
+     *              was ready, so nothing was started or shown.  Only sent to
+     *              the AMMLaunchCallback, never to a listener.
+     */
+    public static final int LAUNCH_OUTCOME_LAUNCHED = 0;
+    public static final int LAUNCH_OUTCOME_FALLBACK = 1;
+    public static final int LAUNCH_OUTCOME_FAILED   = 2;
+    public static final int LAUNCH_OUTCOME_SKIPPED  = 3;
+    
+    /*
+     * Package names of the market apps, as reported by 
+     *  PackageManager.getInstallerPackageName() for apps they installed.
+     */
+    public static final String INSTALLER_GOOGLE             = "com.android.vending";
+    public static final String INSTALLER_GOOGLE_FEEDBACK    = "com.google.android.feedback"; // older devices
+    public static final String INSTALLER_AMAZON             = "com.amazon.venezia";
+    public static final String INSTALLER_SAMSUNG            = "com.sec.android.app.samsungapps";
+
     /*
      * The Kindle Fire identifies itself as such.
      * The Amazon manufacturer ID may be needed for future Amazon devices.
@@ -90,6 +137,16 @@ public class AMMConstants {
      */
     public static final String DEVICE_MANUFACTURER_AMAZON   = "Amazon";
     public static final String DEVICE_MODEL_KINDLE_FIRE     = "Kindle Fire"; // 1st Gen only
+    public static final String DEVICE_MODEL_KINDLE_FIRE_2           = "KFOT";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HD7_2       = "KFTT";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HD7_3       = "KFSOWI";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HDX7_WIFI   = "KFTHWI";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HDX7_WAN    = "KFTHWA";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HD89_WIFI   = "KFJWI";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HD89_WAN    = "KFJWA";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HDX89_WIFI  = "KFAPWI";
+    public static final String DEVICE_MODEL_KINDLE_FIRE_HDX89_WAN   = "KFAPWA";
+    public static final String DEVICE_MODEL_FIRE_PHONE              = "SD4930UR";
     
     /*
      * Determine which Nook device the app is running on
@@ -112,6 +169,37 @@ public class AMMConstants {
     public static final String DEVICE_MODEL_NOOK_HDPLUS         = "BNTV600";
     public static final String DEVICE_MODEL_NOOK_SAMSUNG_TAB_4  = "SM-T230NU";
     
+    /*
+     * Other manufacturers, as reported by android.os.Build.MANUFACTURER
+     * The BlackBerry Android runtime has reported both "RIM" (PlayBook) and
+     *  "BlackBerry" (BB10).  Compare without case.
+     */
+    public static final String DEVICE_MANUFACTURER_SAMSUNG      = "samsung";
+    public static final String DEVICE_MANUFACTURER_BLACKBERRY   = "BlackBerry";
+    public static final String DEVICE_MANUFACTURER_RIM          = "RIM";
+    
+    /*
+     * Tokens in a browser User-Agent that identify a device family, for web
+     *  requests where android.os.Build is not available.  The model strings
+     *  above appear in the User-Agent too, e.g. "...; KFTHWI Build/...".
+     *  Matched without case.
+     *
+     * Fire tablets run the Silk browser, and later models all start with KF.
+     *  The 1st Gen Kindle Fire is only told apart by its model, followed by
+     *  " Build/".
+     * BB10 and the PlayBook name themselves; Samsung devices report an SM-
+     *  model, and the Samsung browser names itself.
+     */
+    public static final String USER_AGENT_TOKEN_KINDLE_FIRE     = "Kindle Fire Build/";
+    public static final String USER_AGENT_TOKEN_KINDLE          = "Kindle";
+    public static final String USER_AGENT_TOKEN_SILK            = "Silk";
+    public static final String USER_AGENT_TOKEN_FIRE_MODEL      = "; KF";
+    public static final String USER_AGENT_TOKEN_BB10            = "BB10";
+    public static final String USER_AGENT_TOKEN_BLACKBERRY      = "BlackBerry";
+    public static final String USER_AGENT_TOKEN_PLAYBOOK        = "PlayBook";
+    public static final String USER_AGENT_TOKEN_SAMSUNG         = "Samsung";
+    public static final String USER_AGENT_TOKEN_SAMSUNG_MODEL   = "; SM-";
+    
     /*
      * Google Play URLs are constructed:
      *  <prefix><appID>
@@ -121,7 +209,11 @@ public class AMMConstants {
      * A more precise vendor name will help prevent false matches.  
      * In some cases it might be better to use the DEVID prefix rather than the search.
      *  
-     * The vendor name string must use formatting characters, such as:
+     * The vendor name is percent-encoded by AMMUrlEncoder when the URL is
+     *  built, so pass the plain name ("Evernote Corporation"); a '+' or '%'
+     *  in it is taken literally.  A name formatted by hand for older
+     *  versions can still be used with AMMUrlTemplate.fillFormatted.
+     *  The formatting characters are:
      *  Entire phrase must be quoted (%22)
      *  Spaces (%20)
      *  Commas (%2C)
@@ -129,13 +221,24 @@ public class AMMConstants {
      *  Reference:
      *   http://developer.android.com/distribute/tools/promote/linking.html#UriSummary
      */
-    public static final String MARKET_URL_SEARCH_PREFIX         = "market://search?q="; // append vendor name string, using %20 and other formatting chars as appropriate
+    public static final String MARKET_URL_SEARCH_PREFIX         = "market://search?q="; // append vendor name string; encoded by AMMUrlEncoder
     public static final String MARKET_URL_DEVID_PREFIX          = "market://developer?id="; // Does not work for market::/ URLs
     public static final String MARKET_URL_DEVSEARCH_PREFIX      = "market://search?q=pub:"; // 
     public static final String MARKET_URL_APP_PREFIX            = "market://details?id=";
     public static final String MARKET_URL_APP_PREFIX_WEB        = "http://play.google.com/store/apps/details?id=";
     public static final String MARKET_URL_DEVID_PREFIX_WEB      = "http://play.google.com/store/apps/developer?id="; // only for HTTP requests, apparently
     public static final String MARKET_URL_DEVSEARCH_PREFIX_WEB  = "https://play.google.com/store/search?q=pub:";
+    public static final String MARKET_URL_SEARCH_PREFIX_WEB     = "https://play.google.com/store/search?q=";
+
+    /*
+     * Google Play passes the referrer parameter to the installed app through
+     *  the Install Referrer API.  Its value is itself a query string of utm_
+     *  values, encoded as one parameter.  AMMAttribution adds it to links for
+     *  every market except Amazon; other stores ignore it.
+     */
+    public static final String MARKET_URL_POSTFIX_REFERRER      = "referrer=";
+    public static final String REFERRER_SOURCE                  = "utm_source=";
+    public static final String REFERRER_CAMPAIGN                = "utm_campaign=";
     
     /*
      * Amazon Appstore URLs constructed as such:
@@ -160,9 +263,8 @@ public class AMMConstants {
      *  asin    - ASIN for a specific app (as seen on the Amazon product page)
      * 
      * The identifier can be either the app package name or the vendor ID.
-     * The vendor ID should be formatted (spaces are OK, but use formatting 
-     *  characters for quotes or commas).  There are some reports that you
-     *  should use formatting characters for spaces as well.
+     * The vendor ID is percent-encoded by AMMUrlEncoder when the URL is
+     *  built, including spaces, quotes and commas.
      *  
      * Postfix options:
      *  "&showAll=1" - show multiple results (for use with 'p' type)
@@ -177,8 +279,8 @@ public class AMMConstants {
      *      https://developer.amazon.com/sdk/in-app-purchasing/sample-code/deeplink.html
      *      https://developer.amazon.com/appsandservices/community/post/Tx3A1TVL67TB24B/Linking-To-the-Amazon-Appstore-for-Android
      *      
-     *  Note that AMMLinks currently doesn't use the asin, associate, or 
-     *      referral options.  It may in the future.
+     *  The associate and referral options are added by AMMAttribution.
+     *      AMMLinks doesn't use the asin option.
      */
     public static final boolean AMAZON_USE_HTTP              = false;
     public static final String  AMAZON_URL_PREFIX_COMMON     = "http://www.amazon.com/gp/mas/dl/android?";
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMDeviceProfile is the result of classifying a device once, from its
+ *  manufacturer and model strings.  The classification is held as a set of
+ *  FLAG_* bits, so each check afterwards is a single field read.
+ *
+ * Instances are immutable and may be shared between threads.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMDeviceProfile {
+    public static final int FLAG_KINDLE_FIRE    = 1;      // original Kindle Fire (Gen 1)
+    public static final int FLAG_AMAZON         = 1 << 1; // any Amazon device
+    public static final int FLAG_NOOK_CT        = 1 << 2; // Nook Color or Nook Tablet
+    public static final int FLAG_NOOK_HD        = 1 << 3; // Nook HD or Nook HD+
+    public static final int FLAG_NOOK_SAMSUNG   = 1 << 4; // Samsung Galaxy Tab 4 Nook
+    public static final int FLAG_SAMSUNG        = 1 << 5; // any Samsung device
+    public static final int FLAG_BLACKBERRY     = 1 << 6; // BlackBerry Android runtime
+
+    private final int mFlags;
+    private final String mManufacturer;
+    private final String mModel;
+
+    private AMMDeviceProfile(final int flags, final String manufacturer, final String model) {
+        mFlags = flags;
+        mManufacturer = manufacturer;
+        mModel = model;
+    }
+
+    /**
+     * Create a profile for flags that were worked out elsewhere, such as
+     *  from a User-Agent
+     *
+     * @param flags        FLAG_* bits
+     * @param manufacturer the device manufacturer, or null if not known
+     * @param model        the device model, or null if not known
+     * @return the profile
+     */
+    static AMMDeviceProfile fromFlags(final int flags, final String manufacturer, final String model) {
+        return new AMMDeviceProfile(flags, manufacturer, model);
+    }
+
+    /**
+     * Classify a device
+     *
+     * @param manufacturer the device manufacturer (android.os.Build.MANUFACTURER)
+     * @param model        the device model (android.os.Build.MODEL)
+     * @return the profile for this device
+     */
+    public static AMMDeviceProfile classify(final String manufacturer, final String model) {
+        int flags = 0;
+
+        if(AMMDevices.isKindleFire(model)) {
+            flags |= FLAG_KINDLE_FIRE | FLAG_AMAZON;
+        }
+        if(AMMDevices.isNookCT(model)) {
+            flags |= FLAG_NOOK_CT;
+        }
+        if(AMMDevices.isNookHD(model)) {
+            flags |= FLAG_NOOK_HD;
+        }
+        if(AMMConstants.DEVICE_MODEL_NOOK_SAMSUNG_TAB_4.equals(model)) {
+            flags |= FLAG_NOOK_SAMSUNG | FLAG_SAMSUNG;
+        }
+
+        if(AMMConstants.DEVICE_MANUFACTURER_AMAZON.equalsIgnoreCase(manufacturer)) {
+            flags |= FLAG_AMAZON;
+        } else if(AMMConstants.DEVICE_MANUFACTURER_SAMSUNG.equalsIgnoreCase(manufacturer)) {
+            flags |= FLAG_SAMSUNG;
+        } else if(  AMMConstants.DEVICE_MANUFACTURER_BLACKBERRY.equalsIgnoreCase(manufacturer) ||
+                    AMMConstants.DEVICE_MANUFACTURER_RIM.equalsIgnoreCase(manufacturer)) {
+            flags |= FLAG_BLACKBERRY;
+        }
+
+        return new AMMDeviceProfile(flags, manufacturer, model);
+    }
+
+    /**
+     * @param flag one or more FLAG_* values
+     * @return true if this device has any of the given flags
+     */
+    public boolean hasAny(final int flag) {
+        return (mFlags & flag) != 0;
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    public boolean isKindleFire() {
+        return (mFlags & FLAG_KINDLE_FIRE) != 0;
+    }
+
+    public boolean isAmazon() {
+        return (mFlags & FLAG_AMAZON) != 0;
+    }
+
+    /**
+     * @return true for a Nook Color, Nook Tablet, Nook HD or Nook HD+
+     */
+    public boolean isNook() {
+        return (mFlags & (FLAG_NOOK_CT | FLAG_NOOK_HD)) != 0;
+    }
+
+    public boolean isNookCT() {
+        return (mFlags & FLAG_NOOK_CT) != 0;
+    }
+
+    public boolean isNookHD() {
+        return (mFlags & FLAG_NOOK_HD) != 0;
+    }
+
+    public boolean isSamsung() {
+        return (mFlags & FLAG_SAMSUNG) != 0;
+    }
+
+    public boolean isBlackBerry() {
+        return (mFlags & FLAG_BLACKBERRY) != 0;
+    }
+
+    public String getManufacturer() {
+        return mManufacturer;
+    }
+
+    public String getModel() {
+        return mModel;
+    }
+
+    @Override
+    public String toString() {
+        return mManufacturer + " " + mModel + " (flags 0x" + Integer.toHexString(mFlags) + ")";
+    }
+}
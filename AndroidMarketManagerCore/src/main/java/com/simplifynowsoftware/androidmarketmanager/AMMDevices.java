@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMDevices classifies devices from their model string (android.os.Build.MODEL
+ *  on a device), without any dependency on Android.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMDevices {
+    /**
+     * Verify if this model is a Kindle Fire
+     *
+     * @param model - the device model string
+     * @return true if this model is the Kindle Fire (Gen 1)
+     */
+    public static boolean isKindleFire(final String model) {
+        return AMMConstants.DEVICE_MODEL_KINDLE_FIRE.equals(model);
+    }
+
+    /**
+     * Verify if this model is any known flavor of Nook
+     *
+     * @param model - the device model string
+     * @return true if this model is a known Nook device
+     */
+    public static boolean isNook(final String model) {
+        return ( isNookCT(model) || isNookHD(model) );
+    }
+
+    /**
+     * Verify if this model is a Nook Color or Nook Tablet
+     *
+     * @param model - the device model string
+     * @return true if this model is a Nook Color or Nook Tablet
+     */
+    public static boolean isNookCT(final String model) {
+        return  AMMConstants.DEVICE_MODEL_NOOK_COLOR.equals(model) ||       // BNRV200  = NOOK Color
+                AMMConstants.DEVICE_MODEL_NOOK_TABLET_16GB.equals(model) || // BNTV250  = NOOK Tablet 16GB
+                AMMConstants.DEVICE_MODEL_NOOK_TABLET_8GB.equals(model);    // BNTV250A = NOOK Tablet 8GB
+    }
+
+    /**
+     * Verify if this model is a Nook HD or Nook HD+
+     *
+     * @param model - the device model string
+     * @return true if this model is a Nook HD or Nook HD+
+     */
+    public static boolean isNookHD(final String model) {
+        return  AMMConstants.DEVICE_MODEL_NOOK_HD.equals(model) ||      // BNTV400 = NOOK HD
+                AMMConstants.DEVICE_MODEL_NOOK_HDPLUS.equals(model);    // BNTV600 = NOOK HD+
+    }
+}
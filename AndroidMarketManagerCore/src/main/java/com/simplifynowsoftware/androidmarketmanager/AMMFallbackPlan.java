@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMFallbackPlan is the ordered list of URL styles to try for one market
+ *  and link mode: normally the native market URL first, then the web URL.
+ *  If no step can be launched, the caller shows the market message.
+ *
+ * Plans are built by AMMMarketRegistry when a market is registered, from the
+ *  provider's URL styles, and are immutable.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMFallbackPlan {
+    private static final AMMFallbackPlan EMPTY = new AMMFallbackPlan(
+            null, AMMConstants.LINK_MODE_APP, new int[0]);
+
+    private final AMMMarketProvider mProvider;
+    private final int mLinkMode;
+    private final int[] mStyles;
+
+    AMMFallbackPlan(final AMMMarketProvider provider, final int linkMode, final int[] styles) {
+        mProvider = provider;
+        mLinkMode = linkMode;
+        mStyles = styles;
+    }
+
+    /**
+     * Get the plan for a market and link mode
+     *
+     * @param marketSelector   numeric identifier for the app market
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @return the plan; unknown markets get a plan with no steps
+     */
+    public static AMMFallbackPlan get(final int marketSelector, final int linkMode) {
+        final AMMFallbackPlan plan = AMMMarketRegistry.getPlan(marketSelector, linkMode);
+
+        return (null == plan) ? EMPTY : plan;
+    }
+
+    /**
+     * @return number of URLs to try, in order
+     */
+    public int getStepCount() {
+        return mStyles.length;
+    }
+
+    /**
+     * @param step position in the plan
+     * @return URL_STYLE_NATIVE or URL_STYLE_WEB
+     */
+    public int getStyle(final int step) {
+        return mStyles[step];
+    }
+
+    /**
+     * Build the URL for one step of the plan
+     *
+     * @param step position in the plan
+     * @param app  the app to link to
+     * @return the URL, or null if this step has no URL for the app
+     */
+    public String getUrl(final int step, final AMMAppDescriptor app) {
+        if(mLinkMode == AMMConstants.LINK_MODE_ALL) {
+            return mProvider.getAllUrl(mStyles[step], app);
+        }
+        return mProvider.getAppUrl(mStyles[step], app);
+    }
+
+    public int getMarketSelector() {
+        return (null == mProvider) ? AMMConstants.MARKET_SELECTOR_NONE : mProvider.getMarketSelector();
+    }
+
+    public int getLinkMode() {
+        return mLinkMode;
+    }
+}
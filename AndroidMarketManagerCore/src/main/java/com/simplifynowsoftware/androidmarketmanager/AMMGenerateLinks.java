@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * AMMGenerateLinks asks the AndroidMarketManagerProcessor annotation
+ *  processor to build an app's market URLs at compile time.
+ *
+ * For an annotated class Foo, the processor generates FooStoreLinks in the
+ *  same package: an AMMStoreLinks with a String constant for every market,
+ *  link mode and URL style, built with the same rules as AMMLinks.
+ * <pre>
+ *  &#64;AMMGenerateLinks(
+ *          appPackage = "com.example.app",
+ *          bbVendorID = "12345",
+ *          googleDeveloperID = "Example Inc",
+ *          developerName = "Example Inc")
+ *  public class MainActivity extends Activity {
+ *      ...
+ *      AMMLinks.marketShow(this, MainActivityStoreLinks.INSTANCE,
+ *              AMMConstants.MARKET_SELECTOR_AUTO, AMMConstants.LINK_MODE_APP);
+ * </pre>
+ *
+ * Empty strings (the default) mean the value is not known.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface AMMGenerateLinks {
+    /**
+     * Full package name for Google and Amazon (e.g. com.x.x)
+     */
+    String appPackage();
+
+    String nookEAN() default "";
+
+    String bbID() default "";
+
+    String bbVendorID() default "";
+
+    String googleDeveloperID() default "";
+
+    String amazonPackageID() default "";
+
+    String samsungDeveloperID() default "";
+
+    String developerName() default "";
+
+    /**
+     * Name of the generated class; defaults to the annotated class name
+     *  followed by "StoreLinks"
+     */
+    String className() default "";
+}
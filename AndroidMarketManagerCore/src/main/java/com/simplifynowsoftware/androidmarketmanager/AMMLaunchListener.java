@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMLaunchListener receives timing and outcome for every market launch.
+ *  Register one with AMMLinks.setLaunchListener; AMMLaunchStats is a ready
+ *  made implementation that aggregates the numbers.
+ *
+ * Called on the thread that launched the market, so implementations should
+ *  return quickly and must be thread-safe.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public interface AMMLaunchListener {
+    /**
+     * @param marketSelector   the market that was linked to
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @param outcome          one of AMMConstants.LAUNCH_OUTCOME_*
+     * @param buildNanos       time spent building URLs and Intents; -1 if the
+     *                          link came from the AMMLinks link cache
+     * @param resolveNanos     time spent checking which markets can handle
+     *                          them; -1 if the link came from the cache
+     * @param startNanos       time spent in startActivity
+     */
+    void onLaunch(  int marketSelector,
+                    int linkMode,
+                    int outcome,
+                    long buildNanos,
+                    long resolveNanos,
+                    long startNanos);
+}
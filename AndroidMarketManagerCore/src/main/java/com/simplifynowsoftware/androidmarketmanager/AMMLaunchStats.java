@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AMMLaunchStats aggregates launches per market: a counter for each outcome,
+ *  and a latency histogram for each phase (build, resolve, start).
+ *
+ * All storage is allocated up front in flat atomic arrays, so recording a
+ *  launch takes no locks and allocates nothing.
+ * <br>
+ * Histogram bucket i counts durations below 2^i microseconds; the last bucket
+ *  counts everything longer.  Markets above MAX_SELECTOR share the last slot.
+ *  Links from the AMMLinks link cache were not built or resolved, so they are
+ *  left out of those two histograms and counted with getCachedCount instead.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMLaunchStats implements AMMLaunchListener {
+    public static final int MAX_SELECTOR = 15;
+
+    public static final int PHASE_BUILD     = 0;
+    public static final int PHASE_RESOLVE   = 1;
+    public static final int PHASE_START     = 2;
+
+    /*
+     * 1us, 2us, 4us ... 2^18us (about 260ms), then overflow
+     */
+    public static final int BUCKET_COUNT = 20;
+
+    private static final int SELECTOR_SLOTS = MAX_SELECTOR + 1;
+    private static final int OUTCOME_COUNT = AMMConstants.LAUNCH_OUTCOME_FAILED + 1;
+    private static final int PHASE_COUNT = PHASE_START + 1;
+
+    private final AtomicLongArray mOutcomes = new AtomicLongArray(SELECTOR_SLOTS * OUTCOME_COUNT);
+    private final AtomicLongArray mBuckets = new AtomicLongArray(SELECTOR_SLOTS * PHASE_COUNT * BUCKET_COUNT);
+    private final AtomicLongArray mCached = new AtomicLongArray(SELECTOR_SLOTS);
+
+    public void onLaunch(   final int marketSelector,
+                            final int linkMode,
+                            final int outcome,
+                            final long buildNanos,
+                            final long resolveNanos,
+                            final long startNanos) {
+        final int slot = slot(marketSelector);
+
+        if(outcome >= 0 && outcome < OUTCOME_COUNT) {
+            mOutcomes.incrementAndGet(slot * OUTCOME_COUNT + outcome);
+        }
+
+        if(buildNanos < 0) {
+            mCached.incrementAndGet(slot);
+        }
+
+        record(slot, PHASE_BUILD, buildNanos);
+        record(slot, PHASE_RESOLVE, resolveNanos);
+        record(slot, PHASE_START, startNanos);
+    }
+
+    /*
+     * Negative means not measured, as for a cached link
+     */
+    private void record(final int slot, final int phase, final long nanos) {
+        if(nanos >= 0) {
+            mBuckets.incrementAndGet((slot * PHASE_COUNT + phase) * BUCKET_COUNT + bucket(nanos));
+        }
+    }
+
+    private static int slot(final int marketSelector) {
+        if(marketSelector < 0 || marketSelector > MAX_SELECTOR) {
+            return MAX_SELECTOR;
+        }
+        return marketSelector;
+    }
+
+    /*
+     * Index of the highest set bit of the duration in microseconds
+     */
+    private static int bucket(final long nanos) {
+        final long micros = nanos / 1000;
+        final int bucket = (micros <= 0) ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @param marketSelector   the market
+     * @param outcome          one of AMMConstants.LAUNCH_OUTCOME_*
+     * @return number of launches with that outcome
+     */
+    public long getCount(final int marketSelector, final int outcome) {
+        return mOutcomes.get(slot(marketSelector) * OUTCOME_COUNT + outcome);
+    }
+
+    /**
+     * @param marketSelector   the market
+     * @return number of launches of links from the AMMLinks link cache
+     */
+    public long getCachedCount(final int marketSelector) {
+        return mCached.get(slot(marketSelector));
+    }
+
+    /**
+     * @param marketSelector   the market
+     * @param phase            one of the PHASE_* values
+     * @return a copy of the histogram counts, BUCKET_COUNT entries
+     */
+    public long[] getHistogram(final int marketSelector, final int phase) {
+        final long[] histogram = new long[BUCKET_COUNT];
+        final int base = (slot(marketSelector) * PHASE_COUNT + phase) * BUCKET_COUNT;
+
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            histogram[i] = mBuckets.get(base + i);
+        }
+
+        return histogram;
+    }
+
+    /**
+     * @param bucket   histogram index
+     * @return the exclusive upper bound of the bucket in microseconds, or
+     *  Long.MAX_VALUE for the last bucket
+     */
+    public static long getBucketLimitMicros(final int bucket) {
+        return (bucket >= BUCKET_COUNT - 1) ? Long.MAX_VALUE : (1L << bucket);
+    }
+
+    /**
+     * Set all counts back to zero.  Launches recorded at the same time may be
+     *  partly kept.
+     */
+    public void reset() {
+        for(int i = 0; i < mOutcomes.length(); i++) {
+            mOutcomes.set(i, 0);
+        }
+        for(int i = 0; i < mBuckets.length(); i++) {
+            mBuckets.set(i, 0);
+        }
+        for(int i = 0; i < mCached.length(); i++) {
+            mCached.set(i, 0);
+        }
+    }
+}
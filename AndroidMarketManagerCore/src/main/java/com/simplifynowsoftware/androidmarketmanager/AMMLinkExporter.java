@@ -0,0 +1,521 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * AMMLinkExporter writes every market link for a stream of apps, as JSON
+ *  Lines, CSV and XML sitemaps, using the same rules as AMMLinks.
+ *
+ * Apps are written as they are added, through fixed-size NIO buffers, so
+ *  memory use does not grow with the number of apps.  Each output is
+ *  optional.
+ * <ul>
+ *  <li>JSON Lines and CSV have one row per link: key, app, market, mode,
+ *      style and URL.</li>
+ *  <li>Sitemaps hold the web (http/https) links only, gzip-compressed as
+ *      they are written, in files of at most SITEMAP_MAX_URLS URLs and
+ *      SITEMAP_MAX_BYTES uncompressed.  If a base URL is given, a sitemap
+ *      index listing them is written on close.</li>
+ * </ul>
+ * <pre>
+ *  final AMMLinkExporter exporter = new AMMLinkExporter(jsonFile, null, sitemapDir, "https://example.com/");
+ *  try {
+ *      exporter.addAll(catalog);
+ *  } finally {
+ *      exporter.close();
+ *  }
+ * </pre>
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMLinkExporter implements Closeable {
+    public static final int SITEMAP_MAX_URLS = 50000;
+    public static final long SITEMAP_MAX_BYTES = 50L * 1024 * 1024;
+
+    public static final String SITEMAP_PREFIX = "sitemap-";
+    public static final String SITEMAP_SUFFIX = ".xml.gz";
+    public static final String SITEMAP_INDEX_NAME = "sitemap-index.xml";
+
+    private static final String CSV_HEADER = "key,app,market,mode,style,url\n";
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    private static final String SITEMAP_OPEN = XML_HEADER
+            + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n";
+    private static final String SITEMAP_CLOSE = "</urlset>\n";
+    private static final String INDEX_OPEN = XML_HEADER
+            + "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n";
+    private static final String INDEX_CLOSE = "</sitemapindex>\n";
+
+    /*
+     * Markets without a name here are written by selector number
+     */
+    private static final String[] MARKET_NAMES = { null, "google", "amazon", null, "blackberry", "samsung" };
+
+    /*
+     * More than enough for every market, mode and style of one app
+     */
+    private static final int MAX_LINKS_PER_APP = 64;
+
+    private final int[] mSelectors;
+    private final int[][] mStyles;
+
+    private final ChannelWriter mJson;
+    private final ChannelWriter mCsv;
+    private final File mSitemapDirectory;
+    private final String mSitemapBaseUrl;
+
+    private ChannelWriter mSitemap;
+    private int mSitemapCount = 0;
+    private int mSitemapUrls = 0;
+
+    private final String[] mAppWebUrls = new String[MAX_LINKS_PER_APP];
+    private final StringBuilder mRow = new StringBuilder(256);
+    private long mLinkCount = 0;
+    private long mSitemapUrlCount = 0;
+
+    /**
+     * @param jsonFile             JSON Lines output; may be null
+     * @param csvFile              CSV output; may be null
+     * @param sitemapDirectory     directory for sitemap files; may be null
+     * @param sitemapBaseUrl       URL the sitemap files will be served from,
+     *                              ending in '/', for the sitemap index; may be
+     *                              null to skip the index
+     * @throws IOException if an output cannot be created
+     */
+    public AMMLinkExporter( final File jsonFile,
+                            final File csvFile,
+                            final File sitemapDirectory,
+                            final String sitemapBaseUrl) throws IOException {
+        int count = 0;
+        for(int selector = 0; selector <= AMMMarketRegistry.MAX_SELECTOR; selector++) {
+            if(null != AMMMarketRegistry.get(selector)) {
+                count++;
+            }
+        }
+
+        mSelectors = new int[count];
+        mStyles = new int[count][];
+        count = 0;
+        for(int selector = 0; selector <= AMMMarketRegistry.MAX_SELECTOR; selector++) {
+            final AMMMarketProvider provider = AMMMarketRegistry.get(selector);
+            if(null != provider) {
+                mSelectors[count] = selector;
+                mStyles[count] = provider.getUrlStyles();
+                count++;
+            }
+        }
+
+        mSitemapDirectory = sitemapDirectory;
+        mSitemapBaseUrl = sitemapBaseUrl;
+        mJson = (null == jsonFile) ? null : ChannelWriter.open(jsonFile, false);
+        mCsv = (null == csvFile) ? null : ChannelWriter.open(csvFile, false);
+
+        if(null != mCsv) {
+            mCsv.append(CSV_HEADER);
+        }
+    }
+
+    /**
+     * Write all links for one app
+     *
+     * @param key  the app's key, such as a short link code; may be null to
+     *              use the app package
+     * @param app  the app's identifiers
+     * @throws IOException if an output cannot be written
+     */
+    public void add(final String key, final AMMAppDescriptor app) throws IOException {
+        final String rowKey = (null == key) ? app.getAppPackage() : key;
+        int webUrls = 0;
+
+        for(int i = 0; i < mSelectors.length; i++) {
+            final int selector = mSelectors[i];
+
+            for(int mode = AMMConstants.LINK_MODE_APP; mode <= AMMConstants.LINK_MODE_ALL; mode++) {
+                for(final int style : mStyles[i]) {
+                    final String url = app.getUrl(selector, mode, style);
+                    if(null == url) {
+                        continue;
+                    }
+
+                    mLinkCount++;
+                    writeJson(rowKey, app.getAppPackage(), selector, mode, style, url);
+                    writeCsv(rowKey, app.getAppPackage(), selector, mode, style, url);
+
+                    // Several markets share web pages; list each once per app
+                    if(null != mSitemapDirectory && isWebUrl(url)
+                            && !contains(mAppWebUrls, webUrls, url) && webUrls < MAX_LINKS_PER_APP) {
+                        mAppWebUrls[webUrls++] = url;
+                    }
+                }
+            }
+        }
+
+        for(int i = 0; i < webUrls; i++) {
+            writeSitemapUrl(mAppWebUrls[i]);
+            mAppWebUrls[i] = null;
+        }
+    }
+
+    /**
+     * Write all links for every app in a catalog, keyed by app package
+     *
+     * @param catalog  the apps
+     * @throws IOException if an output cannot be written
+     */
+    public void addAll(final AMMAppCatalog catalog) throws IOException {
+        final int size = catalog.size();
+        for(int row = 0; row < size; row++) {
+            add(null, catalog.get(row));
+        }
+    }
+
+    private static boolean isWebUrl(final String url) {
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    private static boolean contains(final String[] urls, final int count, final String url) {
+        for(int i = 0; i < count; i++) {
+            if(urls[i].equals(url)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String marketName(final int selector) {
+        if(selector < MARKET_NAMES.length && null != MARKET_NAMES[selector]) {
+            return MARKET_NAMES[selector];
+        }
+        return String.valueOf(selector);
+    }
+
+    private void writeJson( final String key,
+                            final String appPackage,
+                            final int selector,
+                            final int mode,
+                            final int style,
+                            final String url) throws IOException {
+        if(null == mJson) {
+            return;
+        }
+
+        final StringBuilder row = mRow;
+        row.setLength(0);
+        row.append("{\"key\":");
+        appendJson(row, key);
+        row.append(",\"app\":");
+        appendJson(row, appPackage);
+        row.append(",\"market\":\"").append(marketName(selector))
+                .append("\",\"mode\":\"").append((mode == AMMConstants.LINK_MODE_ALL) ? "all" : "app")
+                .append("\",\"style\":\"").append((style == AMMConstants.URL_STYLE_WEB) ? "web" : "native")
+                .append("\",\"url\":");
+        appendJson(row, url);
+        row.append("}\n");
+
+        mJson.append(row);
+    }
+
+    private void writeCsv(  final String key,
+                            final String appPackage,
+                            final int selector,
+                            final int mode,
+                            final int style,
+                            final String url) throws IOException {
+        if(null == mCsv) {
+            return;
+        }
+
+        final StringBuilder row = mRow;
+        row.setLength(0);
+        appendCsv(row, key);
+        row.append(',');
+        appendCsv(row, appPackage);
+        row.append(',').append(marketName(selector))
+                .append(',').append((mode == AMMConstants.LINK_MODE_ALL) ? "all" : "app")
+                .append(',').append((style == AMMConstants.URL_STYLE_WEB) ? "web" : "native")
+                .append(',');
+        appendCsv(row, url);
+        row.append('\n');
+
+        mCsv.append(row);
+    }
+
+    private void writeSitemapUrl(final String url) throws IOException {
+        final StringBuilder row = mRow;
+        row.setLength(0);
+        row.append("<url><loc>");
+        appendXml(row, url);
+        row.append("</loc></url>\n");
+
+        if(null != mSitemap
+                && (mSitemapUrls >= SITEMAP_MAX_URLS
+                    || mSitemap.getBytesWritten() + row.length() * 3 + SITEMAP_CLOSE.length() > SITEMAP_MAX_BYTES)) {
+            closeSitemap();
+        }
+
+        if(null == mSitemap) {
+            mSitemapCount++;
+            mSitemap = ChannelWriter.open(new File(mSitemapDirectory, sitemapName(mSitemapCount)), true);
+            mSitemap.append(SITEMAP_OPEN);
+        }
+
+        mSitemap.append(row);
+        mSitemapUrls++;
+        mSitemapUrlCount++;
+    }
+
+    private void closeSitemap() throws IOException {
+        mSitemap.append(SITEMAP_CLOSE);
+        mSitemap.close();
+        mSitemap = null;
+        mSitemapUrls = 0;
+    }
+
+    private static String sitemapName(final int number) {
+        return SITEMAP_PREFIX + number + SITEMAP_SUFFIX;
+    }
+
+    private static void appendJson(final StringBuilder builder, final String value) {
+        if(null == value) {
+            builder.append("null");
+            return;
+        }
+
+        builder.append('"');
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if(c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if(c < 0x20) {
+                builder.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+
+    private static void appendCsv(final StringBuilder builder, final String value) {
+        if(null == value) {
+            return;
+        }
+
+        boolean quote = false;
+        for(int i = 0; i < value.length() && !quote; i++) {
+            final char c = value.charAt(i);
+            quote = (c == ',' || c == '"' || c == '\n' || c == '\r');
+        }
+
+        if(!quote) {
+            builder.append(value);
+            return;
+        }
+
+        builder.append('"');
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if(c == '"') {
+                builder.append('"');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+
+    private static void appendXml(final StringBuilder builder, final String value) {
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch(c) {
+                case '&': builder.append("&amp;"); break;
+                case '<': builder.append("&lt;"); break;
+                case '>': builder.append("&gt;"); break;
+                case '"': builder.append("&quot;"); break;
+                case '\'': builder.append("&apos;"); break;
+                default: builder.append(c); break;
+            }
+        }
+    }
+
+    /**
+     * Finish all outputs, and write the sitemap index if a base URL was given
+     *
+     * @throws IOException if an output cannot be written
+     */
+    public void close() throws IOException {
+        try {
+            if(null != mSitemap) {
+                closeSitemap();
+            }
+
+            if(null != mSitemapDirectory && null != mSitemapBaseUrl && mSitemapCount > 0) {
+                final ChannelWriter index = ChannelWriter.open(new File(mSitemapDirectory, SITEMAP_INDEX_NAME), false);
+                try {
+                    index.append(INDEX_OPEN);
+                    for(int number = 1; number <= mSitemapCount; number++) {
+                        mRow.setLength(0);
+                        mRow.append("<sitemap><loc>");
+                        appendXml(mRow, mSitemapBaseUrl + sitemapName(number));
+                        mRow.append("</loc></sitemap>\n");
+                        index.append(mRow);
+                    }
+                    index.append(INDEX_CLOSE);
+                } finally {
+                    index.close();
+                }
+            }
+        } finally {
+            if(null != mJson) {
+                mJson.close();
+            }
+            if(null != mCsv) {
+                mCsv.close();
+            }
+        }
+    }
+
+    /**
+     * @return number of links written to JSON Lines and CSV
+     */
+    public long getLinkCount() {
+        return mLinkCount;
+    }
+
+    /**
+     * @return number of URLs written to sitemaps
+     */
+    public long getSitemapUrlCount() {
+        return mSitemapUrlCount;
+    }
+
+    /**
+     * @return number of sitemap files written so far
+     */
+    public int getSitemapCount() {
+        return mSitemapCount;
+    }
+
+    /*
+     * Encodes text as UTF-8 into a fixed direct buffer and writes it to a
+     *  channel whenever the buffer fills.  An unpaired surrogate is written
+     *  as '?'.
+     */
+    private static final class ChannelWriter implements Closeable {
+        private static final int BUFFER_SIZE = 64 * 1024;
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        private final WritableByteChannel mChannel;
+        private final CharsetEncoder mEncoder = UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long mBytesWritten = 0;
+
+        /*
+         * A high surrogate left at the end of the last append, which may be
+         *  paired by the next one
+         */
+        private String mPending = null;
+
+        private ChannelWriter(final WritableByteChannel channel) {
+            mChannel = channel;
+        }
+
+        static ChannelWriter open(final File file, final boolean gzip) throws IOException {
+            final FileOutputStream out = new FileOutputStream(file);
+            if(!gzip) {
+                return new ChannelWriter(out.getChannel());
+            }
+
+            try {
+                return new ChannelWriter(Channels.newChannel(
+                        new GZIPOutputStream(Channels.newOutputStream(out.getChannel()), BUFFER_SIZE)));
+            } catch(IOException e) {
+                out.close();
+                throw e;
+            }
+        }
+
+        void append(final CharSequence text) throws IOException {
+            final CharBuffer chars = (null == mPending)
+                    ? CharBuffer.wrap(text)
+                    : CharBuffer.wrap(mPending + text);
+            mPending = null;
+
+            encode(chars, false);
+            if(chars.hasRemaining()) {
+                mPending = chars.toString();
+            }
+        }
+
+        private void encode(final CharBuffer chars, final boolean endOfInput) throws IOException {
+            while(true) {
+                final CoderResult result = mEncoder.encode(chars, mBuffer, endOfInput);
+                if(result.isOverflow()) {
+                    drain();
+                } else if(result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            mBuffer.flip();
+            mBytesWritten += mBuffer.remaining();
+            while(mBuffer.hasRemaining()) {
+                mChannel.write(mBuffer);
+            }
+            mBuffer.clear();
+        }
+
+        /**
+         * @return uncompressed bytes written, including those still buffered
+         */
+        long getBytesWritten() {
+            return mBytesWritten + mBuffer.position();
+        }
+
+        public void close() throws IOException {
+            try {
+                encode(CharBuffer.wrap((null == mPending) ? "" : mPending), true);
+                mPending = null;
+                while(mEncoder.flush(mBuffer).isOverflow()) {
+                    drain();
+                }
+                drain();
+            } finally {
+                mChannel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMLongIntMap maps long keys to int values without boxing: open
+ *  addressing over parallel primitive arrays, at most three quarters full.
+ *  Values may not be negative; get returns -1 for missing keys.
+ *
+ * Not thread-safe for puts; safe for concurrent reads once fully built.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+final class AMMLongIntMap {
+    private long[] mKeys;
+
+    /*
+     * Value + 1; 0 marks an empty slot
+     */
+    private int[] mValues;
+    private int mSize;
+
+    AMMLongIntMap(final int expectedSize) {
+        int capacity = 16;
+        while(capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+    }
+
+    private static int slot(final long key, final int mask) {
+        // Murmur3 finalizer, so clustered keys spread over the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    int get(final long key) {
+        final int mask = mKeys.length - 1;
+        for(int slot = slot(key, mask); mValues[slot] != 0; slot = (slot + 1) & mask) {
+            if(mKeys[slot] == key) {
+                return mValues[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    void put(final long key, final int value) {
+        final int mask = mKeys.length - 1;
+        int slot = slot(key, mask);
+
+        while(mValues[slot] != 0) {
+            if(mKeys[slot] == key) {
+                mValues[slot] = value + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        mKeys[slot] = key;
+        mValues[slot] = value + 1;
+        if(++mSize * 4 > mKeys.length * 3) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        final long[] keys = mKeys;
+        final int[] values = mValues;
+        mKeys = new long[keys.length * 2];
+        mValues = new int[values.length * 2];
+        final int mask = mKeys.length - 1;
+
+        for(int i = 0; i < keys.length; i++) {
+            if(values[i] != 0) {
+                int slot = slot(keys[i], mask);
+                while(mValues[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                mKeys[slot] = keys[i];
+                mValues[slot] = values[i];
+            }
+        }
+    }
+
+    int size() {
+        return mSize;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AMMLruCache is a bounded, thread-safe map that drops the least recently
+ *  used entries once it is full.
+ *
+ * The cache is split into segments by key hash, each an access-ordered
+ *  LinkedHashMap with its own lock, so threads working on different keys
+ *  rarely wait for each other.  Eviction is least recently used within a
+ *  segment, which is close to global LRU once there are more than a few
+ *  entries per segment.
+ * <br>
+ * Each segment evicts on its own once its share of maxSize is full, so a
+ *  striped cache can drop entries before it holds maxSize of them.  Use a
+ *  single segment where the exact capacity matters, such as small caches.
+ * <br>
+ * Null keys and values are not supported.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMLruCache<K, V> {
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment<K, V>[] mSegments;
+    private final int mMask;
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+
+    /**
+     * @param maxSize  maximum number of entries kept
+     */
+    public AMMLruCache(final int maxSize) {
+        this(maxSize, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param maxSize      maximum number of entries kept
+     * @param segments     lock stripes; rounded up to a power of two, and
+     *                      reduced so each holds at least one entry
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AMMLruCache(final int maxSize, final int segments) {
+        if(maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+
+        int count = 1;
+        while(count < segments && count * 2 <= maxSize) {
+            count <<= 1;
+        }
+
+        mSegments = new Segment[count];
+        mMask = count - 1;
+        for(int i = 0; i < count; i++) {
+            // Spread the remainder so the total is exactly maxSize
+            mSegments[i] = new Segment<K, V>(maxSize / count + ((i < maxSize % count) ? 1 : 0));
+        }
+    }
+
+    private Segment<K, V> segmentFor(final Object key) {
+        final int h = key.hashCode();
+        return mSegments[(h ^ (h >>> 16)) & mMask];
+    }
+
+    /**
+     * @param key  the key to look up
+     * @return the cached value, or null if not present
+     */
+    public V get(final K key) {
+        final Segment<K, V> segment = segmentFor(key);
+        final V value;
+        synchronized(segment) {
+            value = segment.get(key);
+        }
+
+        (null == value ? mMisses : mHits).incrementAndGet();
+        return value;
+    }
+
+    /**
+     * @param key      the key
+     * @param value    the value to cache
+     * @return the previous value, or null
+     */
+    public V put(final K key, final V value) {
+        if(null == value) {
+            throw new NullPointerException("value");
+        }
+
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized(segment) {
+            return segment.put(key, value);
+        }
+    }
+
+    /**
+     * @param key  the key to drop
+     * @return the value that was cached, or null
+     */
+    public V remove(final K key) {
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized(segment) {
+            return segment.remove(key);
+        }
+    }
+
+    /**
+     * Drop every entry.  Hit and miss counts are kept.
+     */
+    public void clear() {
+        for(final Segment<K, V> segment : mSegments) {
+            synchronized(segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return current number of entries
+     */
+    public int size() {
+        int size = 0;
+        for(final Segment<K, V> segment : mSegments) {
+            synchronized(segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return mHits.get();
+    }
+
+    public long getMissCount() {
+        return mMisses.get();
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int mMaxSize;
+
+        Segment(final int maxSize) {
+            super(16, 0.75f, true);
+            mMaxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > mMaxSize;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMMarketProvider knows how to link to one app market.
+ *
+ * The built-in markets are registered with AMMMarketRegistry automatically.
+ *  Additional markets can be added by implementing this interface (or using
+ *  AMMPackageMarketProvider for markets addressed by package name) and
+ *  registering the provider under a new MARKET_SELECTOR value.
+ * <br>
+ * Providers must be immutable and thread-safe.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public interface AMMMarketProvider {
+    /**
+     * @return the MARKET_SELECTOR value this provider handles; must be zero
+     *  or greater
+     */
+    int getMarketSelector();
+
+    /**
+     * @return the URL styles to try, in order, for the fallback plan
+     */
+    int[] getUrlStyles();
+
+    /**
+     * @return package names of this market's app, as reported for apps it
+     *  installed; may be empty
+     */
+    String[] getInstallerPackages();
+
+    /**
+     * Build a URL for a single app
+     *
+     * @param urlStyle AMMConstants.URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @param app      the app's identifiers
+     * @return the URL, or null if none can be generated
+     */
+    String getAppUrl(int urlStyle, AMMAppDescriptor app);
+
+    /**
+     * Build a URL for all apps by the app's developer
+     *
+     * @param urlStyle AMMConstants.URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @param app      the app's identifiers; the app package stands in for
+     *                  the developer if other IDs are missing
+     * @return the URL, or null if none can be generated
+     */
+    String getAllUrl(int urlStyle, AMMAppDescriptor app);
+}
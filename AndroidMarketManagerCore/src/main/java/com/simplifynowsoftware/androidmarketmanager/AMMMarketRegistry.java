@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMMarketRegistry maps MARKET_SELECTOR values to their AMMMarketProvider.
+ *
+ * Providers are kept in a flat array indexed by selector, along with their
+ *  precompiled fallback plans, so finding the provider for a link is a single
+ *  array load.  Registration copies the table, which is then published in one
+ *  volatile write; lookups never lock.
+ * <br>
+ * The Google, Amazon, BlackBerry and Samsung markets are registered when this
+ *  class is loaded.  Registering another provider for the same selector
+ *  replaces the previous one.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMMarketRegistry {
+    /*
+     * Keep the table from being sized by a typo
+     */
+    public static final int MAX_SELECTOR = 1023;
+
+    private static volatile Table sTable = new Table(new AMMMarketProvider[0]);
+
+    static {
+        for(final AMMMarketProvider provider : AMMBuiltInMarkets.all()) {
+            register(provider);
+        }
+    }
+
+    private AMMMarketRegistry() {
+    }
+
+    /**
+     * Add a market, or replace the provider for an existing one
+     *
+     * @param provider the provider; its selector must be 0 to MAX_SELECTOR
+     */
+    public static synchronized void register(final AMMMarketProvider provider) {
+        final int selector = provider.getMarketSelector();
+        if(selector < 0 || selector > MAX_SELECTOR) {
+            throw new IllegalArgumentException("Market selector out of range: " + selector);
+        }
+
+        final AMMMarketProvider[] current = sTable.mProviders;
+        final AMMMarketProvider[] providers = new AMMMarketProvider[Math.max(current.length, selector + 1)];
+        System.arraycopy(current, 0, providers, 0, current.length);
+        providers[selector] = provider;
+
+        sTable = new Table(providers);
+    }
+
+    /**
+     * @param marketSelector   numeric identifier for the app market
+     * @return the provider, or null if no market is registered for it
+     */
+    public static AMMMarketProvider get(final int marketSelector) {
+        final AMMMarketProvider[] providers = sTable.mProviders;
+
+        if(marketSelector < 0 || marketSelector >= providers.length) {
+            return null;
+        }
+        return providers[marketSelector];
+    }
+
+    /**
+     * @param marketSelector   numeric identifier for the app market
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @return the precompiled plan, or null if no market is registered for it
+     */
+    static AMMFallbackPlan getPlan(final int marketSelector, final int linkMode) {
+        final AMMFallbackPlan[] plans = (linkMode == AMMConstants.LINK_MODE_ALL)
+                ? sTable.mAllPlans
+                : sTable.mAppPlans;
+
+        if(marketSelector < 0 || marketSelector >= plans.length) {
+            return null;
+        }
+        return plans[marketSelector];
+    }
+
+    /**
+     * Find the market whose app installed a package
+     *
+     * @param installerPackage package name of the installer; may be null
+     * @return the market selector, or MARKET_SELECTOR_NONE if unknown
+     */
+    public static int findByInstaller(final String installerPackage) {
+        if(null == installerPackage) {
+            return AMMConstants.MARKET_SELECTOR_NONE;
+        }
+
+        final String[][] installers = sTable.mInstallers;
+        for(int selector = 0; selector < installers.length; selector++) {
+            for(final String installer : installers[selector]) {
+                if(installer.equals(installerPackage)) {
+                    return selector;
+                }
+            }
+        }
+
+        return AMMConstants.MARKET_SELECTOR_NONE;
+    }
+
+    /**
+     * @return the installer packages of every registered market with a
+     *  selector below 32, so each fits in a market bitmask
+     */
+    public static String[] getInstallerPackages() {
+        final String[][] installers = sTable.mInstallers;
+        final int limit = Math.min(installers.length, Integer.SIZE);
+
+        int count = 0;
+        for(int selector = 0; selector < limit; selector++) {
+            count += installers[selector].length;
+        }
+
+        final String[] packages = new String[count];
+        int next = 0;
+        for(int selector = 0; selector < limit; selector++) {
+            for(final String installer : installers[selector]) {
+                packages[next++] = installer;
+            }
+        }
+
+        return packages;
+    }
+
+    /*
+     * Everything derived from the providers, replaced as a unit
+     */
+    private static final class Table {
+        final AMMMarketProvider[] mProviders;
+        final AMMFallbackPlan[] mAppPlans;
+        final AMMFallbackPlan[] mAllPlans;
+        final String[][] mInstallers;
+
+        Table(final AMMMarketProvider[] providers) {
+            mProviders = providers;
+            mAppPlans = new AMMFallbackPlan[providers.length];
+            mAllPlans = new AMMFallbackPlan[providers.length];
+            mInstallers = new String[providers.length][];
+
+            for(int selector = 0; selector < providers.length; selector++) {
+                final AMMMarketProvider provider = providers[selector];
+
+                if(null == provider) {
+                    mInstallers[selector] = new String[0];
+                } else {
+                    final int[] styles = provider.getUrlStyles();
+                    mAppPlans[selector] = new AMMFallbackPlan(provider, AMMConstants.LINK_MODE_APP, styles);
+                    mAllPlans[selector] = new AMMFallbackPlan(provider, AMMConstants.LINK_MODE_ALL, styles);
+                    mInstallers[selector] = provider.getInstallerPackages();
+                }
+            }
+        }
+    }
+}
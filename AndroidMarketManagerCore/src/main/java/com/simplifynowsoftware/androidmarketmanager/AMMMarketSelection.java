@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMMarketSelection holds the rules for picking a MARKET_SELECTOR_* value
+ *  automatically.  The inputs are gathered on the device by AMMMarketDetector.
+ *
+ * The order of preference is:
+ *  1. The market that installed the app
+ *  2. The market that comes with the device (Amazon, BlackBerry)
+ *  3. The first market found on the device: Google, Amazon, then Samsung
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMMarketSelection {
+    /**
+     * Map an installer package name to its market
+     *
+     * @param installerPackage package that installed the app; may be null
+     * @return the matching market, or MARKET_SELECTOR_NONE if unknown
+     */
+    public static int selectorForInstaller(final String installerPackage) {
+        return AMMMarketRegistry.findByInstaller(installerPackage);
+    }
+
+    /**
+     * Map a device to the market built into it.  Devices that merely ship
+     *  an extra market next to Google Play (such as Samsung) are not mapped.
+     *
+     * @param profile  the device profile
+     * @return the device's own market, or MARKET_SELECTOR_NONE
+     */
+    public static int selectorForDevice(final AMMDeviceProfile profile) {
+        if(profile.isAmazon()) {
+            return AMMConstants.MARKET_SELECTOR_AMAZON;
+        } else if(profile.isBlackBerry()) {
+            return AMMConstants.MARKET_SELECTOR_BLACKBERRY;
+        }
+
+        return AMMConstants.MARKET_SELECTOR_NONE;
+    }
+
+    /**
+     * Combine the inputs, in order of preference
+     *
+     * @param installerPackage package that installed the app; may be null
+     * @param profile          the device profile
+     * @param hasGoogle        true if Google Play can be launched
+     * @param hasAmazon        true if the Amazon Appstore can be launched
+     * @param hasSamsung       true if Samsung Apps can be launched
+     * @return the market to link to, or MARKET_SELECTOR_NONE if none is available
+     */
+    public static int choose(   final String installerPackage,
+                                final AMMDeviceProfile profile,
+                                final boolean hasGoogle,
+                                final boolean hasAmazon,
+                                final boolean hasSamsung) {
+        int selector = selectorForInstaller(installerPackage);
+
+        if(selector == AMMConstants.MARKET_SELECTOR_NONE) {
+            selector = selectorForDevice(profile);
+        }
+
+        if(selector == AMMConstants.MARKET_SELECTOR_NONE) {
+            if(hasGoogle) {
+                selector = AMMConstants.MARKET_SELECTOR_GOOGLE;
+            } else if(hasAmazon) {
+                selector = AMMConstants.MARKET_SELECTOR_AMAZON;
+            } else if(hasSamsung) {
+                selector = AMMConstants.MARKET_SELECTOR_SAMSUNG;
+            }
+        }
+
+        return selector;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMPackageMarketProvider is a ready-made provider for markets that find
+ *  apps by package name, which covers most Android app stores.
+ *
+ * Example, registering a market under a selector defined by the app:
+ * <pre>
+ *  public static final int MARKET_SELECTOR_MYSTORE = 100;
+ *
+ *  AMMMarketRegistry.register(new AMMPackageMarketProvider(
+ *          MARKET_SELECTOR_MYSTORE,
+ *          AMMUrlTemplate.compile("mystore://details?id="),
+ *          AMMUrlTemplate.compile("https://mystore.example.com/app/"),
+ *          null,
+ *          "com.example.mystore"));
+ * </pre>
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMPackageMarketProvider implements AMMMarketProvider {
+    private final int mMarketSelector;
+    private final AMMUrlTemplate mNativeApp;
+    private final AMMUrlTemplate mWebApp;
+    private final AMMUrlTemplate mNativeAll;
+    private final String[] mInstallerPackages;
+    private final int[] mUrlStyles;
+
+    /**
+     * @param marketSelector       the selector to register under
+     * @param nativeApp            template for the market's own app URL, filled with the package name
+     * @param webApp               template for the web page of an app; may be null
+     * @param nativeAll            template for all apps by the developer, filled with the
+     *                              developer package (package name without its last segment);
+     *                              may be null
+     * @param installerPackages    package names of the market app
+     */
+    public AMMPackageMarketProvider(final int marketSelector,
+                                    final AMMUrlTemplate nativeApp,
+                                    final AMMUrlTemplate webApp,
+                                    final AMMUrlTemplate nativeAll,
+                                    final String... installerPackages) {
+        mMarketSelector = marketSelector;
+        mNativeApp = nativeApp;
+        mWebApp = webApp;
+        mNativeAll = nativeAll;
+        mInstallerPackages = installerPackages.clone();
+
+        if(null == webApp) {
+            mUrlStyles = new int[] { AMMConstants.URL_STYLE_NATIVE };
+        } else {
+            mUrlStyles = new int[] { AMMConstants.URL_STYLE_NATIVE, AMMConstants.URL_STYLE_WEB };
+        }
+    }
+
+    public int getMarketSelector() {
+        return mMarketSelector;
+    }
+
+    public int[] getUrlStyles() {
+        return mUrlStyles.clone();
+    }
+
+    public String[] getInstallerPackages() {
+        return mInstallerPackages.clone();
+    }
+
+    public String getAppUrl(final int urlStyle, final AMMAppDescriptor app) {
+        final String appPackage = app.getAppPackage();
+        if(null == appPackage) {
+            return null;
+        }
+
+        if(urlStyle == AMMConstants.URL_STYLE_WEB) {
+            return (null == mWebApp) ? null : mWebApp.fill(appPackage);
+        }
+        return mNativeApp.fill(appPackage);
+    }
+
+    public String getAllUrl(final int urlStyle, final AMMAppDescriptor app) {
+        final String appPackage = app.getAppPackage();
+        if(null == appPackage || null == mNativeAll || urlStyle != AMMConstants.URL_STYLE_NATIVE) {
+            return null;
+        }
+
+        final String developerPackage = AMMUrls.developerPackage(appPackage);
+        return (null == developerPackage) ? null : mNativeAll.fill(developerPackage);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.Arrays;
+
+/**
+ * AMMPackagePool stores package names as a tree of their dot-separated
+ *  segments, so a common prefix such as "com.evernote" is stored once for
+ *  every package under it.  Each distinct package (and each prefix) is a
+ *  node with a dense int ID.
+ *
+ * Nodes are two ints (parent and segment), and segment text is shared
+ *  through an AMMStringPool.  Finding a package walks its segments through a
+ *  primitive hash table and allocates nothing.
+ * <br>
+ * Not thread-safe for adds; safe for concurrent reads once fully built.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMPackagePool {
+    public static final int NONE = -1;
+
+    private final AMMStringPool mSegments;
+    private final AMMLongIntMap mChildren;
+    private int[] mParents;
+    private int[] mSegmentIds;
+    private int mSize;
+
+    /**
+     * @param expectedPackages number of packages to size for
+     */
+    public AMMPackagePool(final int expectedPackages) {
+        final int capacity = Math.max(16, expectedPackages);
+        mSegments = new AMMStringPool(capacity);
+        mChildren = new AMMLongIntMap(capacity);
+        mParents = new int[capacity];
+        mSegmentIds = new int[capacity];
+    }
+
+    private static long childKey(final int parent, final int segment) {
+        return ((long) (parent + 1) << 32) | (segment & 0xffffffffL);
+    }
+
+    /**
+     * Add a package name, and any of its prefixes not yet present
+     *
+     * @param packageName  the package name; may be null
+     * @return the node ID of the package, or NONE for null
+     */
+    public int intern(final CharSequence packageName) {
+        if(null == packageName) {
+            return NONE;
+        }
+
+        final int length = packageName.length();
+        int node = NONE;
+        int start = 0;
+
+        while(start <= length) {
+            final int end = segmentEnd(packageName, start);
+            final int segment = mSegments.intern(packageName, start, end);
+            final long key = childKey(node, segment);
+
+            int child = mChildren.get(key);
+            if(child < 0) {
+                child = addNode(node, segment);
+                mChildren.put(key, child);
+            }
+
+            node = child;
+            start = end + 1;
+        }
+
+        return node;
+    }
+
+    private int addNode(final int parent, final int segment) {
+        if(mSize == mParents.length) {
+            mParents = Arrays.copyOf(mParents, mSize * 2);
+            mSegmentIds = Arrays.copyOf(mSegmentIds, mSize * 2);
+        }
+        mParents[mSize] = parent;
+        mSegmentIds[mSize] = segment;
+        return mSize++;
+    }
+
+    private static int segmentEnd(final CharSequence text, final int start) {
+        final int length = text.length();
+        for(int i = start; i < length; i++) {
+            if(text.charAt(i) == '.') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @param packageName  the package name; may be null
+     * @return its node ID, or NONE if it is null or was never added
+     */
+    public int find(final CharSequence packageName) {
+        if(null == packageName) {
+            return NONE;
+        }
+
+        final int length = packageName.length();
+        int node = NONE;
+        int start = 0;
+
+        while(start <= length) {
+            final int end = segmentEnd(packageName, start);
+            final int segment = mSegments.find(packageName, start, end);
+            if(segment == AMMStringPool.NONE) {
+                return NONE;
+            }
+
+            node = mChildren.get(childKey(node, segment));
+            if(node < 0) {
+                return NONE;
+            }
+            start = end + 1;
+        }
+
+        return node;
+    }
+
+    /**
+     * @param node a node ID, or NONE
+     * @return the full package name, or null for NONE
+     */
+    public String get(final int node) {
+        if(node == NONE) {
+            return null;
+        }
+
+        final StringBuilder builder = new StringBuilder(64);
+        append(builder, node);
+        return builder.toString();
+    }
+
+    private void append(final StringBuilder builder, final int node) {
+        final int parent = mParents[node];
+        if(parent != NONE) {
+            append(builder, parent);
+            builder.append('.');
+        }
+        mSegments.appendTo(builder, mSegmentIds[node]);
+    }
+
+    /**
+     * Compare a package name with a node, from the last segment back,
+     *  without creating any strings
+     *
+     * @param node         a node ID
+     * @param packageName  the package name
+     * @return true if the node is that package
+     */
+    public boolean matches(int node, final CharSequence packageName) {
+        int end = packageName.length();
+
+        while(node != NONE) {
+            final int segment = mSegmentIds[node];
+            final int start = end - mSegments.length(segment);
+            if(start < 0 || !mSegments.equals(segment, packageName, start, end)) {
+                return false;
+            }
+
+            node = mParents[node];
+            if(node != NONE) {
+                if(start == 0 || packageName.charAt(start - 1) != '.') {
+                    return false;
+                }
+                end = start - 1;
+            } else {
+                end = start;
+            }
+        }
+
+        return end == 0;
+    }
+
+    /**
+     * @return number of nodes: packages plus the prefixes they share
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return number of distinct segments
+     */
+    public int getSegmentCount() {
+        return mSegments.size();
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * AMMSchemeStore remembers, across process starts, whether each market URL
+ *  scheme could be handled on this device, so the first launch after a cold
+ *  start can skip schemes that are known to fail without asking the
+ *  PackageManager.
+ *
+ * The file is append-only: each change adds one small record, and a "clear"
+ *  record forgets everything before it.  It is read in one pass through a
+ *  FileChannel.  Records carry a CRC, so a record cut short by a crash is
+ *  ignored and overwritten by the next append.  compact() rewrites the file
+ *  with one record per scheme once it holds mostly stale records.
+ * <br>
+ * File layout (big-endian):
+ * <pre>
+ *  header  magic int "AMMR", version int
+ *  record  type byte (0 unavailable, 1 available, 2 clear)
+ *          time long (millis)
+ *          scheme length byte, scheme bytes (ASCII)
+ *          CRC32 int of the bytes above
+ * </pre>
+ * Not thread-safe on its own; AMMMarketResolver uses it from one background
+ *  thread.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMSchemeStore {
+    static final int MAGIC = 0x414D4D52; // "AMMR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    /*
+     * Packages can change while the process is not running, so old answers
+     *  are not trusted
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final byte TYPE_UNAVAILABLE  = 0;
+    private static final byte TYPE_AVAILABLE    = 1;
+    private static final byte TYPE_CLEAR        = 2;
+
+    private static final int RECORD_FIXED_SIZE = 1 + 8 + 1 + 4;
+    private static final int MAX_SCHEME_LENGTH = 255;
+
+    /*
+     * Compact once the file holds this many more records than schemes
+     */
+    private static final int STALE_RECORD_LIMIT = 64;
+
+    private final File mFile;
+    private final long mMaxAgeMillis;
+    private final Map<String, Boolean> mSchemes = new HashMap<String, Boolean>();
+    private final Map<String, Long> mTimes = new HashMap<String, Long>();
+
+    private long mValidLength = 0;
+    private int mRecordCount = 0;
+
+    /**
+     * @param file the file to use; created on the first write
+     */
+    public AMMSchemeStore(final File file) {
+        this(file, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * @param file         the file to use; created on the first write
+     * @param maxAgeMillis answers older than this are forgotten when loading
+     */
+    public AMMSchemeStore(final File file, final long maxAgeMillis) {
+        mFile = file;
+        mMaxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Read the file.  A missing, foreign or damaged file is treated as empty
+     *  and replaced by the next write.
+     *
+     * @return the last known answer for each scheme, leaving out answers
+     *  older than the maximum age
+     * @throws IOException if the file exists but cannot be read
+     */
+    public Map<String, Boolean> load() throws IOException {
+        mSchemes.clear();
+        mTimes.clear();
+        mValidLength = 0;
+        mRecordCount = 0;
+
+        if(!mFile.exists()) {
+            return new HashMap<String, Boolean>();
+        }
+
+        final RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        final ByteBuffer buffer;
+        try {
+            final FileChannel channel = file.getChannel();
+            buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            while(buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+            buffer.flip();
+        } finally {
+            file.close();
+        }
+
+        if(buffer.remaining() < HEADER_SIZE
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION) {
+            return new HashMap<String, Boolean>();
+        }
+        mValidLength = HEADER_SIZE;
+
+        final CRC32 crc = new CRC32();
+        final byte[] bytes = buffer.array();
+
+        while(buffer.remaining() >= RECORD_FIXED_SIZE) {
+            final int start = buffer.position();
+            final byte type = buffer.get();
+            final long time = buffer.getLong();
+            final int length = buffer.get() & 0xFF;
+            if(buffer.remaining() < length + 4) {
+                break;
+            }
+
+            final String scheme = new String(bytes, buffer.position(), length, "US-ASCII");
+            buffer.position(buffer.position() + length);
+
+            crc.reset();
+            crc.update(bytes, start, buffer.position() - start);
+            if(buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+
+            apply(type, scheme, time);
+            mValidLength = buffer.position();
+            mRecordCount++;
+        }
+
+        final long oldest = System.currentTimeMillis() - mMaxAgeMillis;
+        for(final Iterator<Map.Entry<String, Long>> i = mTimes.entrySet().iterator(); i.hasNext(); ) {
+            final Map.Entry<String, Long> entry = i.next();
+            if(entry.getValue().longValue() < oldest) {
+                mSchemes.remove(entry.getKey());
+                i.remove();
+            }
+        }
+
+        return new HashMap<String, Boolean>(mSchemes);
+    }
+
+    private void apply(final byte type, final String scheme, final long time) {
+        if(type == TYPE_CLEAR) {
+            mSchemes.clear();
+            mTimes.clear();
+        } else {
+            mSchemes.put(scheme, Boolean.valueOf(type == TYPE_AVAILABLE));
+            mTimes.put(scheme, Long.valueOf(time));
+        }
+    }
+
+    /**
+     * Record the answer for a scheme.  Nothing is written if it is already
+     *  the last known answer, unless that answer is getting old.
+     *
+     * @param scheme       the URL scheme
+     * @param available    true if an installed app can handle it
+     * @throws IOException if the file cannot be written
+     */
+    public void put(final String scheme, final boolean available) throws IOException {
+        if(scheme.length() > MAX_SCHEME_LENGTH) {
+            return;
+        }
+        if(Boolean.valueOf(available).equals(mSchemes.get(scheme))
+                && mTimes.get(scheme).longValue() >= System.currentTimeMillis() - mMaxAgeMillis / 2) {
+            return;
+        }
+
+        append(available ? TYPE_AVAILABLE : TYPE_UNAVAILABLE, scheme);
+    }
+
+    /**
+     * Forget all schemes, such as after a package was installed or removed
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void clear() throws IOException {
+        if(mSchemes.isEmpty()) {
+            return;
+        }
+
+        append(TYPE_CLEAR, "");
+    }
+
+    private void append(final byte type, final String scheme) throws IOException {
+        final long time = System.currentTimeMillis();
+        final RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+
+        try {
+            final FileChannel channel = file.getChannel();
+            final ByteBuffer buffer;
+
+            if(mValidLength < HEADER_SIZE) {
+                buffer = ByteBuffer.allocate(HEADER_SIZE + RECORD_FIXED_SIZE + scheme.length());
+                buffer.putInt(MAGIC).putInt(VERSION);
+                mValidLength = 0;
+            } else {
+                buffer = ByteBuffer.allocate(RECORD_FIXED_SIZE + scheme.length());
+            }
+            putRecord(buffer, type, time, scheme);
+            buffer.flip();
+
+            // Drops any damaged tail left by a crash
+            channel.truncate(mValidLength);
+            channel.position(mValidLength);
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            mValidLength = channel.position();
+        } finally {
+            file.close();
+        }
+
+        apply(type, scheme, time);
+        mRecordCount++;
+    }
+
+    private static void putRecord(final ByteBuffer buffer, final byte type, final long time, final String scheme)
+            throws IOException {
+        final int start = buffer.position();
+        final byte[] name = scheme.getBytes("US-ASCII");
+
+        buffer.put(type).putLong(time).put((byte) name.length).put(name);
+
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, buffer.position() - start);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * @return true if the file holds enough stale records to be worth
+     *  rewriting with compact()
+     */
+    public boolean needsCompaction() {
+        return mRecordCount > mSchemes.size() + STALE_RECORD_LIMIT;
+    }
+
+    /**
+     * Rewrite the file with one record per known scheme.  The new file is
+     *  written beside the old one and renamed over it, so a crash leaves
+     *  one or the other intact.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void compact() throws IOException {
+        int size = HEADER_SIZE;
+        for(final String scheme : mSchemes.keySet()) {
+            size += RECORD_FIXED_SIZE + scheme.length();
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        for(final Map.Entry<String, Boolean> entry : mSchemes.entrySet()) {
+            putRecord(  buffer,
+                        entry.getValue().booleanValue() ? TYPE_AVAILABLE : TYPE_UNAVAILABLE,
+                        mTimes.get(entry.getKey()).longValue(),
+                        entry.getKey());
+        }
+        buffer.flip();
+        final int length = buffer.limit();
+
+        final File temp = new File(mFile.getPath() + ".tmp");
+        final RandomAccessFile file = new RandomAccessFile(temp, "rw");
+        try {
+            final FileChannel channel = file.getChannel();
+            channel.truncate(0);
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } finally {
+            file.close();
+        }
+
+        if(!temp.renameTo(mFile)) {
+            temp.delete();
+            throw new IOException("Can't replace " + mFile);
+        }
+
+        mValidLength = length;
+        mRecordCount = mSchemes.size();
+    }
+
+    /**
+     * @return number of records in the file, including stale ones
+     */
+    public int getRecordCount() {
+        return mRecordCount;
+    }
+}
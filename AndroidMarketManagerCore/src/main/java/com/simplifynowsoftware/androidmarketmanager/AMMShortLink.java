@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMShortLink is what a short code stands for: an app, and the set of
+ *  markets the campaign links to.
+ *
+ * The market set is a bit mask, with bit N set for MARKET_SELECTOR N; see
+ *  maskOf.  Instances are immutable.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMShortLink {
+    private final long mId;
+    private final AMMAppDescriptor mApp;
+    private final int mMarketMask;
+
+    public AMMShortLink(final long id, final AMMAppDescriptor app, final int marketMask) {
+        mId = id;
+        mApp = app;
+        mMarketMask = marketMask;
+    }
+
+    /**
+     * @param marketSelectors  selectors from 0 to 31
+     * @return the mask with a bit set for each
+     */
+    public static int maskOf(final int... marketSelectors) {
+        int mask = 0;
+        for(final int selector : marketSelectors) {
+            if(selector < 0 || selector >= Integer.SIZE) {
+                throw new IllegalArgumentException("Market selector out of range: " + selector);
+            }
+            mask |= 1 << selector;
+        }
+        return mask;
+    }
+
+    /**
+     * @param marketSelector   numeric identifier for the app market
+     * @return true if the link covers that market
+     */
+    public boolean hasMarket(final int marketSelector) {
+        return marketSelector >= 0 && marketSelector < Integer.SIZE && (mMarketMask & (1 << marketSelector)) != 0;
+    }
+
+    /**
+     * Expand the link for one market
+     *
+     * @param marketSelector   numeric identifier for the app market
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @param urlStyle         AMMConstants.URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @return the market URL, or null if the market is not in the set or no
+     *  URL can be generated
+     */
+    public String getUrl(final int marketSelector, final int linkMode, final int urlStyle) {
+        if(!hasMarket(marketSelector)) {
+            return null;
+        }
+        return mApp.getUrl(marketSelector, linkMode, urlStyle);
+    }
+
+    public long getId() {
+        return mId;
+    }
+
+    public String getCode() {
+        return AMMBase62.encode(mId);
+    }
+
+    public AMMAppDescriptor getApp() {
+        return mApp;
+    }
+
+    public int getMarketMask() {
+        return mMarketMask;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * AMMShortLinkStore looks up short codes in a file written by
+ *  AMMShortLinkWriter.  The file is memory-mapped, so opening it reads only
+ *  the header, and a lookup touches only the pages it needs: a binary search
+ *  over the sorted records, then the one app the record points to.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *  header   magic, version, record count, app count, app and string offsets
+ *  records  record count * (long id, int app index, int market mask), sorted by id
+ *  apps     app count * 8 ints: string offsets of the AMMAppDescriptor fields, -1 for null
+ *  strings  int length, UTF-8 bytes
+ * </pre>
+ *
+ * Apps are decoded the first time they are used and then kept.  Lookups are
+ *  thread-safe.  The header is checked when the file is opened; a record that
+ *  points outside the file is found as if it were missing.  The mapping is
+ *  released by the garbage collector some time after close.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMShortLinkStore implements Closeable {
+    static final int MAGIC = 0x414D4D53; // "AMMS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int RECORD_SIZE = 16;
+    static final int APP_FIELDS = 8;
+    static final int APP_SIZE = APP_FIELDS * 4;
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /*
+     * String offset written for a null field
+     */
+    static final int NO_STRING = -1;
+
+    /*
+     * Records are mapped in chunks, since one mapping is limited to 2GB
+     */
+    private static final int RECORDS_PER_CHUNK_SHIFT = 26;
+    private static final int RECORDS_PER_CHUNK = 1 << RECORDS_PER_CHUNK_SHIFT;
+
+    private final RandomAccessFile mFile;
+    private final MappedByteBuffer[] mRecords;
+    private final MappedByteBuffer mApps;
+    private final MappedByteBuffer mStrings;
+    private final long mRecordCount;
+    private final AtomicReferenceArray<AMMAppDescriptor> mDecodedApps;
+
+    private AMMShortLinkStore(final RandomAccessFile file) throws IOException {
+        mFile = file;
+        final FileChannel channel = file.getChannel();
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while(header.hasRemaining()) {
+            if(channel.read(header, header.position()) < 0) {
+                throw new IOException("Short link file is truncated");
+            }
+        }
+        header.flip();
+
+        if(header.getInt() != MAGIC) {
+            throw new IOException("Not a short link file");
+        }
+        final int version = header.getInt();
+        if(version != VERSION) {
+            throw new IOException("Unsupported short link file version " + version);
+        }
+
+        mRecordCount = header.getLong();
+        final int appCount = header.getInt();
+        final long appOffset = header.getLong();
+        final long stringOffset = header.getLong();
+        final long size = channel.size();
+
+        if(     mRecordCount < 0 || appCount < 0 ||
+                appOffset != HEADER_SIZE + mRecordCount * RECORD_SIZE ||
+                stringOffset != appOffset + (long) appCount * APP_SIZE ||
+                stringOffset > size ||
+                size - stringOffset > Integer.MAX_VALUE) {
+            throw new IOException("Short link file is corrupt");
+        }
+
+        final int chunks = (int) ((mRecordCount + RECORDS_PER_CHUNK - 1) >>> RECORDS_PER_CHUNK_SHIFT);
+        mRecords = new MappedByteBuffer[chunks];
+        for(int i = 0; i < chunks; i++) {
+            final long first = (long) i << RECORDS_PER_CHUNK_SHIFT;
+            final long count = Math.min(RECORDS_PER_CHUNK, mRecordCount - first);
+            mRecords[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * RECORD_SIZE, count * RECORD_SIZE);
+        }
+
+        mApps = channel.map(FileChannel.MapMode.READ_ONLY, appOffset, (long) appCount * APP_SIZE);
+        mStrings = channel.map(FileChannel.MapMode.READ_ONLY, stringOffset, size - stringOffset);
+        mDecodedApps = new AtomicReferenceArray<AMMAppDescriptor>(appCount);
+    }
+
+    /**
+     * Open a short link file.  Only the header is read.
+     *
+     * @param file the file written by AMMShortLinkWriter
+     * @return the store
+     * @throws IOException if the file cannot be read or is not valid
+     */
+    public static AMMShortLinkStore open(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return new AMMShortLinkStore(raf);
+        } catch(IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param code a base62 short code
+     * @return the link, or null if the code is not valid or not in the store
+     */
+    public AMMShortLink find(final CharSequence code) {
+        final long id = AMMBase62.decode(code);
+        return (id < 0) ? null : find(id);
+    }
+
+    /**
+     * @param id   numeric ID of the short code
+     * @return the link, or null if the ID is not in the store or its record
+     *  is damaged
+     */
+    public AMMShortLink find(final long id) {
+        long low = 0;
+        long high = mRecordCount - 1;
+
+        while(low <= high) {
+            final long mid = (low + high) >>> 1;
+            final ByteBuffer chunk = mRecords[(int) (mid >>> RECORDS_PER_CHUNK_SHIFT)];
+            final int position = (int) (mid & (RECORDS_PER_CHUNK - 1)) * RECORD_SIZE;
+            final long midId = chunk.getLong(position);
+
+            if(midId < id) {
+                low = mid + 1;
+            } else if(midId > id) {
+                high = mid - 1;
+            } else {
+                final AMMAppDescriptor app = app(chunk.getInt(position + 8));
+                return (null == app) ? null : new AMMShortLink(id, app, chunk.getInt(position + 12));
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * Returns null if the index or any of the app's strings is out of range
+     */
+    private AMMAppDescriptor app(final int index) {
+        if(index < 0 || index >= mDecodedApps.length()) {
+            return null;
+        }
+
+        AMMAppDescriptor app = mDecodedApps.get(index);
+        if(null == app) {
+            // Decoding twice in a race is harmless; both results are equal
+            final int base = index * APP_SIZE;
+            try {
+                app = new AMMAppDescriptor(
+                        string(mApps.getInt(base)),
+                        string(mApps.getInt(base + 4)),
+                        string(mApps.getInt(base + 8)),
+                        string(mApps.getInt(base + 12)),
+                        string(mApps.getInt(base + 16)),
+                        string(mApps.getInt(base + 20)),
+                        string(mApps.getInt(base + 24)),
+                        string(mApps.getInt(base + 28)));
+            } catch(IOException e) {
+                return null;
+            }
+            mDecodedApps.set(index, app);
+        }
+        return app;
+    }
+
+    private String string(final int offset) throws IOException {
+        if(offset == NO_STRING) {
+            return null;
+        }
+
+        final int limit = mStrings.limit();
+        if(offset < 0 || offset > limit - 4) {
+            throw new IOException("String offset out of range: " + offset);
+        }
+
+        final ByteBuffer buffer = mStrings.duplicate();
+        buffer.position(offset);
+        final int length = buffer.getInt();
+        if(length < 0 || length > buffer.remaining()) {
+            throw new IOException("String length out of range: " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * @return number of short codes in the store
+     */
+    public long size() {
+        return mRecordCount;
+    }
+
+    /**
+     * @return number of distinct apps in the store
+     */
+    public int getAppCount() {
+        return mDecodedApps.length();
+    }
+
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AMMShortLinkWriter creates the file read by AMMShortLinkStore.
+ *
+ * Records are streamed to disk as they are added, so memory use does not
+ *  grow with the number of codes; only the apps and their strings are held
+ *  until close.  IDs must be added in increasing order, which is how they
+ *  come out of a sequence.
+ * <pre>
+ *  final AMMShortLinkWriter writer = new AMMShortLinkWriter(file);
+ *  try {
+ *      final int app = writer.addApp(descriptor);
+ *      final String code = writer.add(nextId++, app, AMMShortLink.maskOf(
+ *              AMMConstants.MARKET_SELECTOR_GOOGLE, AMMConstants.MARKET_SELECTOR_AMAZON));
+ *  } finally {
+ *      writer.close();
+ *  }
+ * </pre>
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMShortLinkWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final List<int[]> mApps = new ArrayList<int[]>();
+    private final Map<AMMAppDescriptor, Integer> mAppIndexes = new HashMap<AMMAppDescriptor, Integer>();
+    private final ByteArrayOutputStream mStringBytes = new ByteArrayOutputStream();
+    private final DataOutputStream mStrings = new DataOutputStream(mStringBytes);
+    private final Map<String, Integer> mStringOffsets = new HashMap<String, Integer>();
+
+    private long mRecordCount;
+    private long mLastId = -1;
+    private boolean mClosed;
+
+    /**
+     * @param file the file to create; replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public AMMShortLinkWriter(final File file) throws IOException {
+        mFile = new RandomAccessFile(file, "rw");
+        mFile.setLength(0);
+        mChannel = mFile.getChannel();
+        mChannel.position(AMMShortLinkStore.HEADER_SIZE);
+    }
+
+    /**
+     * Add an app, or find one added before
+     *
+     * @param app  the app's identifiers
+     * @return the app index to pass to add
+     * @throws IOException if the app cannot be stored
+     */
+    public int addApp(final AMMAppDescriptor app) throws IOException {
+        final Integer existing = mAppIndexes.get(app);
+        if(null != existing) {
+            return existing;
+        }
+
+        final int[] offsets = {
+                string(app.getAppPackage()),
+                string(app.getNookEAN()),
+                string(app.getBbID()),
+                string(app.getBbVendorID()),
+                string(app.getGoogleDeveloperID()),
+                string(app.getAmazonPackageID()),
+                string(app.getSamsungDeveloperID()),
+                string(app.getDeveloperName())
+        };
+
+        final int index = mApps.size();
+        mApps.add(offsets);
+        mAppIndexes.put(app, index);
+
+        return index;
+    }
+
+    private int string(final String value) throws IOException {
+        if(null == value) {
+            return AMMShortLinkStore.NO_STRING;
+        }
+
+        final Integer existing = mStringOffsets.get(value);
+        if(null != existing) {
+            return existing;
+        }
+
+        final int offset = mStrings.size();
+        final byte[] bytes = value.getBytes(AMMShortLinkStore.UTF8);
+        mStrings.writeInt(bytes.length);
+        mStrings.write(bytes);
+        mStringOffsets.put(value, offset);
+
+        return offset;
+    }
+
+    /**
+     * Add a short code
+     *
+     * @param id           numeric ID; must be greater than the previous one
+     * @param appIndex     value returned by addApp
+     * @param marketMask   markets the link covers, see AMMShortLink.maskOf
+     * @return the base62 short code for the ID
+     * @throws IOException if the record cannot be written
+     */
+    public String add(final long id, final int appIndex, final int marketMask) throws IOException {
+        if(id <= mLastId) {
+            throw new IllegalArgumentException("IDs must increase: " + id + " after " + mLastId);
+        }
+        if(appIndex < 0 || appIndex >= mApps.size()) {
+            throw new IllegalArgumentException("Unknown app index: " + appIndex);
+        }
+
+        if(mBuffer.remaining() < AMMShortLinkStore.RECORD_SIZE) {
+            flush();
+        }
+        mBuffer.putLong(id).putInt(appIndex).putInt(marketMask);
+
+        mLastId = id;
+        mRecordCount++;
+
+        return AMMBase62.encode(id);
+    }
+
+    private void flush() throws IOException {
+        mBuffer.flip();
+        while(mBuffer.hasRemaining()) {
+            mChannel.write(mBuffer);
+        }
+        mBuffer.clear();
+    }
+
+    /**
+     * Write the apps and header, and close the file.  The store is not
+     *  readable until this is done.
+     */
+    public void close() throws IOException {
+        if(mClosed) {
+            return;
+        }
+        mClosed = true;
+
+        try {
+            for(final int[] offsets : mApps) {
+                for(final int offset : offsets) {
+                    if(mBuffer.remaining() < 4) {
+                        flush();
+                    }
+                    mBuffer.putInt(offset);
+                }
+            }
+            flush();
+
+            mStrings.flush();
+            final ByteBuffer strings = ByteBuffer.wrap(mStringBytes.toByteArray());
+            while(strings.hasRemaining()) {
+                mChannel.write(strings);
+            }
+
+            final long appOffset = AMMShortLinkStore.HEADER_SIZE + mRecordCount * AMMShortLinkStore.RECORD_SIZE;
+            final ByteBuffer header = ByteBuffer.allocate(AMMShortLinkStore.HEADER_SIZE);
+            header.putInt(AMMShortLinkStore.MAGIC)
+                    .putInt(AMMShortLinkStore.VERSION)
+                    .putLong(mRecordCount)
+                    .putInt(mApps.size())
+                    .putLong(appOffset)
+                    .putLong(appOffset + (long) mApps.size() * AMMShortLinkStore.APP_SIZE);
+            header.rewind();
+            while(header.hasRemaining()) {
+                mChannel.write(header, header.position());
+            }
+
+            mChannel.force(true);
+        } finally {
+            mFile.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMStoreLinks is anything that can supply an app's market URLs.
+ *  AMMAppDescriptor builds them on request; classes generated from
+ *  AMMGenerateLinks return constants.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public interface AMMStoreLinks {
+    /**
+     * @param marketSelector   numeric identifier for the app market
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @param urlStyle         AMMConstants.URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @return the market URL, or null if there is none
+     */
+    String getUrl(int marketSelector, int linkMode, int urlStyle);
+
+    /**
+     * @return name used to search for developer in app markets; may be null
+     */
+    String getDeveloperName();
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.Arrays;
+
+/**
+ * AMMStringPool stores each distinct string once and hands out dense int
+ *  IDs for them, so large tables can keep an int per value instead of a
+ *  reference to a String of their own.
+ *
+ * The characters of all strings are kept end to end in one array, so a
+ *  pooled string costs its characters plus a few ints, not a String object.
+ *  The hash table is open addressing over an int array, and lookups compare
+ *  a range of the caller's text in place, so finding a string that is
+ *  already pooled allocates nothing.  get creates a new String each time.
+ * <br>
+ * Not thread-safe for adds; safe for concurrent reads once fully built.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMStringPool {
+    public static final int NONE = -1;
+
+    private char[] mChars;
+    private int mCharCount;
+
+    /*
+     * String i is mChars[mOffsets[i]] up to mOffsets[i + 1]
+     */
+    private int[] mOffsets;
+    private int mSize;
+
+    /*
+     * Slots hold ID + 1; 0 is empty.  Kept at most half full.
+     */
+    private int[] mTable;
+
+    public AMMStringPool() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of distinct strings to size for
+     */
+    public AMMStringPool(final int expectedSize) {
+        mChars = new char[Math.max(64, expectedSize * 8)];
+        mOffsets = new int[Math.max(4, expectedSize) + 1];
+        mTable = new int[tableSizeFor(expectedSize)];
+    }
+
+    private static int tableSizeFor(final int size) {
+        int tableSize = 16;
+        while(tableSize < size * 2) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    private static int hash(final CharSequence text, final int start, final int end) {
+        int h = 0;
+        for(int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        return spread(h);
+    }
+
+    private static int spread(final int h) {
+        // The table size is a power of two, so mix the high bits in
+        return h ^ (h >>> 16);
+    }
+
+    private int hash(final int id) {
+        int h = 0;
+        for(int i = mOffsets[id]; i < mOffsets[id + 1]; i++) {
+            h = 31 * h + mChars[i];
+        }
+        return spread(h);
+    }
+
+    private boolean matches(final int id, final CharSequence text, final int start, final int end) {
+        final int offset = mOffsets[id];
+        final int length = end - start;
+        if(mOffsets[id + 1] - offset != length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(mChars[offset + i] != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param id       a pooled string
+     * @param text     holds the text to compare with
+     * @param start    first character
+     * @param end      one past the last character
+     * @return true if the pooled string equals that part of the text
+     */
+    public boolean equals(final int id, final CharSequence text, final int start, final int end) {
+        return matches(id, text, start, end);
+    }
+
+    /**
+     * @param id   a pooled string
+     * @return its length in characters
+     */
+    public int length(final int id) {
+        return mOffsets[id + 1] - mOffsets[id];
+    }
+
+    /**
+     * Append a pooled string without creating a String
+     *
+     * @param builder  the buffer to append to
+     * @param id       a pooled string
+     * @return the builder
+     */
+    public StringBuilder appendTo(final StringBuilder builder, final int id) {
+        return builder.append(mChars, mOffsets[id], mOffsets[id + 1] - mOffsets[id]);
+    }
+
+    /**
+     * @param text the string to find; may be null
+     * @return its ID, or NONE if it is null or not in the pool
+     */
+    public int find(final CharSequence text) {
+        return (null == text) ? NONE : find(text, 0, text.length());
+    }
+
+    /**
+     * @param text     holds the string to find
+     * @param start    first character
+     * @param end      one past the last character
+     * @return its ID, or NONE if it is not in the pool
+     */
+    public int find(final CharSequence text, final int start, final int end) {
+        final int mask = mTable.length - 1;
+        for(int slot = hash(text, start, end) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = mTable[slot];
+            if(entry == 0) {
+                return NONE;
+            } else if(matches(entry - 1, text, start, end)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * @param text the string to add; may be null
+     * @return its ID, or NONE for null
+     */
+    public int intern(final CharSequence text) {
+        return (null == text) ? NONE : intern(text, 0, text.length());
+    }
+
+    /**
+     * Add a string if it is not already pooled
+     *
+     * @param text     holds the string to add
+     * @param start    first character
+     * @param end      one past the last character
+     * @return its ID
+     */
+    public int intern(final CharSequence text, final int start, final int end) {
+        final int mask = mTable.length - 1;
+        int slot = hash(text, start, end) & mask;
+
+        for(int entry = mTable[slot]; entry != 0; entry = mTable[slot]) {
+            if(matches(entry - 1, text, start, end)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        final int length = end - start;
+        if(mCharCount + length > mChars.length) {
+            mChars = Arrays.copyOf(mChars, Math.max(mChars.length * 2, mCharCount + length));
+        }
+        for(int i = 0; i < length; i++) {
+            mChars[mCharCount + i] = text.charAt(start + i);
+        }
+        mCharCount += length;
+
+        if(mSize + 1 == mOffsets.length) {
+            mOffsets = Arrays.copyOf(mOffsets, mOffsets.length * 2);
+        }
+        final int id = mSize++;
+        mOffsets[mSize] = mCharCount;
+        mTable[slot] = id + 1;
+
+        if(mSize * 2 > mTable.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        final int[] table = new int[mTable.length * 2];
+        final int mask = table.length - 1;
+
+        for(int id = 0; id < mSize; id++) {
+            int slot = hash(id) & mask;
+            while(table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        mTable = table;
+    }
+
+    /**
+     * @param id   an ID from intern, or NONE
+     * @return the string, or null for NONE
+     */
+    public String get(final int id) {
+        return (id == NONE) ? null : new String(mChars, mOffsets[id], mOffsets[id + 1] - mOffsets[id]);
+    }
+
+    /**
+     * @return number of distinct strings
+     */
+    public int size() {
+        return mSize;
+    }
+}
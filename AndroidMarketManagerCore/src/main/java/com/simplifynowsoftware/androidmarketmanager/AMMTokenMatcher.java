@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AMMTokenMatcher finds every one of a fixed set of tokens in a string with
+ *  a single pass over it (Aho-Corasick).  Each token carries a set of flag
+ *  bits, and a match returns the union of the flags of all tokens found.
+ *
+ * Tokens are ASCII and matched without regard to case.  The automaton is
+ *  compiled into one flat transition table when the matcher is created, so
+ *  matching is a table load per character and allocates nothing.
+ * <br>
+ * Instances are immutable and may be shared between threads.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMTokenMatcher {
+    private static final int ASCII = 128;
+
+    /*
+     * Character classes: only characters used in tokens get their own class
+     *  (upper and lower case share one).  Everything else is class 0.
+     */
+    private final byte[] mClasses = new byte[ASCII];
+    private final int mClassCount;
+
+    /*
+     * Indexed by [state * mClassCount + class]; state 0 is the root
+     */
+    private final int[] mNext;
+
+    /*
+     * Flags of every token ending at each state, including shorter tokens
+     *  that are suffixes of it
+     */
+    private final int[] mOutput;
+
+    /**
+     * @param tokens   the strings to look for; ASCII only
+     * @param flags    the flags reported for each token, same order
+     */
+    public AMMTokenMatcher(final String[] tokens, final int[] flags) {
+        if(tokens.length != flags.length) {
+            throw new IllegalArgumentException("Need one flag value per token");
+        }
+
+        int classCount = 1;
+        for(final String token : tokens) {
+            if(token.length() == 0) {
+                throw new IllegalArgumentException("Empty token");
+            }
+            for(int i = 0; i < token.length(); i++) {
+                final char c = fold(token.charAt(i));
+                if(c >= ASCII) {
+                    throw new IllegalArgumentException("Token is not ASCII: " + token);
+                }
+                if(mClasses[c] == 0) {
+                    if(classCount > Byte.MAX_VALUE) {
+                        throw new IllegalArgumentException("Too many distinct characters");
+                    }
+                    mClasses[c] = (byte) classCount;
+                    mClasses[Character.toUpperCase(c)] = (byte) classCount;
+                    classCount++;
+                }
+            }
+        }
+        mClassCount = classCount;
+
+        /*
+         * Build the trie, with -1 for missing edges
+         */
+        final List<int[]> edges = new ArrayList<int[]>();
+        final List<Integer> outputs = new ArrayList<Integer>();
+        edges.add(newState(classCount));
+        outputs.add(0);
+
+        for(int t = 0; t < tokens.length; t++) {
+            final String token = tokens[t];
+            int state = 0;
+
+            for(int i = 0; i < token.length(); i++) {
+                final int cls = mClasses[fold(token.charAt(i))];
+                if(edges.get(state)[cls] < 0) {
+                    edges.get(state)[cls] = edges.size();
+                    edges.add(newState(classCount));
+                    outputs.add(0);
+                }
+                state = edges.get(state)[cls];
+            }
+
+            outputs.set(state, outputs.get(state) | flags[t]);
+        }
+
+        /*
+         * Breadth first, fill in missing edges from each state's failure
+         *  state, which is always shallower and therefore already complete
+         */
+        final int stateCount = edges.size();
+        mNext = new int[stateCount * classCount];
+        mOutput = new int[stateCount];
+
+        final int[] fail = new int[stateCount];
+        final ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(0);
+
+        while(!queue.isEmpty()) {
+            final int state = queue.poll();
+            final int[] children = edges.get(state);
+            mOutput[state] = outputs.get(state) | ((state == 0) ? 0 : mOutput[fail[state]]);
+
+            for(int cls = 0; cls < classCount; cls++) {
+                final int child = children[cls];
+                final int viaFail = (state == 0) ? 0 : mNext[fail[state] * classCount + cls];
+
+                if(child < 0) {
+                    mNext[state * classCount + cls] = viaFail;
+                } else {
+                    fail[child] = viaFail;
+                    mNext[state * classCount + cls] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    private static int[] newState(final int classCount) {
+        final int[] children = new int[classCount];
+        for(int i = 0; i < classCount; i++) {
+            children[i] = -1;
+        }
+        return children;
+    }
+
+    private static char fold(final char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * @param text the string to search; may be null
+     * @return the union of the flags of all tokens found, or 0 if none
+     */
+    public int match(final CharSequence text) {
+        if(null == text) {
+            return 0;
+        }
+
+        final int[] next = mNext;
+        final int[] output = mOutput;
+        final byte[] classes = mClasses;
+        final int classCount = mClassCount;
+        final int length = text.length();
+
+        int state = 0;
+        int found = 0;
+        for(int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            state = next[state * classCount + ((c < ASCII) ? classes[c] : 0)];
+            found |= output[state];
+        }
+
+        return found;
+    }
+
+    /**
+     * @return number of automaton states, for sizing and diagnostics
+     */
+    public int getStateCount() {
+        return mOutput.length;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AMMTrace keeps the most recent link events in a fixed-size ring buffer, so
+ *  store-linking problems can be diagnosed in release builds.
+ *
+ * Tracing is off by default, and then each trace point costs one volatile
+ *  read.  Turn it on at run time with enable(), and write the buffer to a
+ *  bug report with dump(), for example from Activity.dump().
+ * <br>
+ * Events are stored as primitives (market, link mode, outcome or detail,
+ *  duration) in flat atomic arrays allocated up front.  Recording takes no
+ *  locks and allocates nothing; when the buffer is full the oldest events
+ *  are overwritten.  A writer claims its slot first, so if the buffer wraps
+ *  onto a slot that is still being written, or that already holds a newer
+ *  event, the event is dropped rather than mixed with another.  A record
+ *  that is overwritten while dump() reads it is skipped.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMTrace {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /*
+     * 32 bytes per record, so 32MB
+     */
+    public static final int MAX_CAPACITY = 1 << 20;
+
+    /*
+     * Event types
+     *  PREPARE      - a link was prepared; detail is the number of usable steps
+     *  LAUNCH       - a launch finished; detail is the LAUNCH_OUTCOME
+     *  LAUNCH_ERROR - a step failed with ActivityNotFoundException; detail
+     *                  is the step
+     */
+    public static final int EVENT_PREPARE       = 1;
+    public static final int EVENT_LAUNCH        = 2;
+    public static final int EVENT_LAUNCH_ERROR  = 3;
+
+    private static final String[] EVENT_NAMES = { "?", "prepare", "launch", "launch-error" };
+
+    /*
+     * Per record: sequence stamp, wall clock millis, packed fields, nanos
+     */
+    private static final int FIELDS = 4;
+    private static final long WRITING = Long.MIN_VALUE;
+
+    private static volatile AMMTrace sTrace = null;
+
+    private final int mMask;
+    private final AtomicLongArray mRecords;
+    private final AtomicLong mNext = new AtomicLong();
+
+    private AMMTrace(final int capacity) {
+        mMask = capacity - 1;
+        mRecords = new AtomicLongArray(capacity * FIELDS);
+
+        // Stamped as if written one lap before sequence 0, so dump skips them
+        for(int i = 0; i < capacity; i++) {
+            mRecords.set(i * FIELDS, i - capacity);
+        }
+    }
+
+    /**
+     * Start tracing with DEFAULT_CAPACITY records
+     */
+    public static void enable() {
+        enable(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Start tracing, discarding any earlier events
+     *
+     * @param capacity number of events kept; rounded up to a power of two,
+     *                  from 2 to MAX_CAPACITY
+     */
+    public static void enable(final int capacity) {
+        // Clamp first, so the rounding below can't overflow
+        final int clamped = Math.min(Math.max(2, capacity), MAX_CAPACITY);
+        sTrace = new AMMTrace(Integer.highestOneBit(clamped * 2 - 1));
+    }
+
+    /**
+     * @return number of events kept, or 0 if tracing is off
+     */
+    static int getCapacity() {
+        final AMMTrace trace = sTrace;
+        return (null == trace) ? 0 : trace.mMask + 1;
+    }
+
+    /**
+     * Stop tracing and drop the buffer
+     */
+    public static void disable() {
+        sTrace = null;
+    }
+
+    public static boolean isEnabled() {
+        return null != sTrace;
+    }
+
+    /**
+     * Record an event.  Does nothing unless tracing is enabled.
+     *
+     * @param event            one of the EVENT_* values
+     * @param marketSelector   the market
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @param detail           event specific value; see EVENT_*
+     * @param nanos            time taken, or 0 if not measured
+     */
+    public static void record(  final int event,
+                                final int marketSelector,
+                                final int linkMode,
+                                final int detail,
+                                final long nanos) {
+        final AMMTrace trace = sTrace;
+        if(null != trace) {
+            trace.add(event, marketSelector, linkMode, detail, nanos);
+        }
+    }
+
+    private void add(   final int event,
+                        final int marketSelector,
+                        final int linkMode,
+                        final int detail,
+                        final long nanos) {
+        final long sequence = mNext.getAndIncrement();
+        final int base = (int) (sequence & mMask) * FIELDS;
+
+        final long stamp = mRecords.get(base);
+        if(stamp == WRITING || stamp >= sequence || !mRecords.compareAndSet(base, stamp, WRITING)) {
+            // Another writer has the slot, or has put a newer event in it
+            return;
+        }
+        mRecords.lazySet(base + 1, System.currentTimeMillis());
+        mRecords.lazySet(base + 2, pack(event, marketSelector, linkMode, detail));
+        mRecords.lazySet(base + 3, nanos);
+        mRecords.lazySet(base, sequence);
+    }
+
+    private static long pack(final int event, final int marketSelector, final int linkMode, final int detail) {
+        return ((long) (event & 0xFF) << 56)
+                | ((long) (linkMode & 0xFF) << 48)
+                | ((long) (marketSelector & 0xFFFF) << 32)
+                | (detail & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Write the buffered events, oldest first, one per line.  Safe to call
+     *  while events are being recorded.
+     *
+     * @param writer   where to write
+     */
+    public static void dump(final PrintWriter writer) {
+        final AMMTrace trace = sTrace;
+        if(null == trace) {
+            writer.println("AMMTrace: disabled");
+            return;
+        }
+
+        trace.dumpRecords(writer);
+    }
+
+    private void dumpRecords(final PrintWriter writer) {
+        final SimpleDateFormat format = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+        final Date date = new Date();
+        final long end = mNext.get();
+        final long first = Math.max(0, end - (mMask + 1));
+
+        writer.println("AMMTrace: " + end + " events, showing up to " + (end - first));
+
+        for(long sequence = first; sequence < end; sequence++) {
+            final int base = (int) (sequence & mMask) * FIELDS;
+
+            if(mRecords.get(base) != sequence) {
+                continue;
+            }
+            final long millis = mRecords.get(base + 1);
+            final long packed = mRecords.get(base + 2);
+            final long nanos = mRecords.get(base + 3);
+            if(mRecords.get(base) != sequence) {
+                // Overwritten while reading
+                continue;
+            }
+
+            final int event = (int) (packed >>> 56);
+            final int linkMode = (int) ((packed >>> 48) & 0xFF);
+            final int marketSelector = (short) (packed >>> 32);
+            final int detail = (int) packed;
+
+            date.setTime(millis);
+            writer.print(format.format(date));
+            writer.print(' ');
+            writer.print((event < EVENT_NAMES.length) ? EVENT_NAMES[event] : String.valueOf(event));
+            writer.print(" market=" + marketSelector);
+            writer.print((linkMode == AMMConstants.LINK_MODE_ALL) ? " mode=all" : " mode=app");
+            writer.print(" detail=" + detail);
+            writer.println(" us=" + (nanos / 1000));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMUrlEncoder percent-encodes the values placed into market URLs:
+ *  developer names, developer IDs and package names.
+ *
+ * Values that are already safe, which includes every package name, are
+ *  returned as-is without copying.  Other characters are encoded as UTF-8,
+ *  including '%' and '+', so the result always decodes back to the value.
+ *  In a query a space becomes '+', in a path it becomes %20.
+ * <br>
+ * encodeFormatted and appendFormatted are for values that were formatted by
+ *  hand for an older version of this library, such as
+ *  "Evernote+Corporation": they keep '+' and valid %XX escapes as they are.
+ *  Plain text must not go through them, since "C++" or "100%25" would then
+ *  change meaning.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMUrlEncoder {
+    /**
+     * The value is part of a query, after the '?'
+     */
+    public static final int COMPONENT_QUERY = 0;
+    /**
+     * The value is part of the path, before any '?'
+     */
+    public static final int COMPONENT_PATH  = 1;
+
+    /*
+     * Bit per component, set for ASCII characters that are kept as-is
+     */
+    private static final byte[] SAFE = new byte[128];
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for(char c = 'a'; c <= 'z'; c++) {
+            SAFE[c] = 3;
+        }
+        for(char c = 'A'; c <= 'Z'; c++) {
+            SAFE[c] = 3;
+        }
+        for(char c = '0'; c <= '9'; c++) {
+            SAFE[c] = 3;
+        }
+        mark("-._~:@!$'()*", 3);
+        // Commas and quotes are escaped in queries; see AMMConstants
+        mark("/", 1 << COMPONENT_QUERY);
+        mark(",;=&", 1 << COMPONENT_PATH);
+    }
+
+    private AMMUrlEncoder() {
+    }
+
+    private static void mark(final String chars, final int bits) {
+        for(int i = 0; i < chars.length(); i++) {
+            SAFE[chars.charAt(i)] |= bits;
+        }
+    }
+
+    private static boolean isHex(final char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F') || (c >= 'a' && c <= 'f');
+    }
+
+    /*
+     * True for a '%' that starts a complete escape
+     */
+    private static boolean isEscape(final CharSequence value, final int index, final int length) {
+        return index + 2 < length && isHex(value.charAt(index + 1)) && isHex(value.charAt(index + 2));
+    }
+
+    /**
+     * @param value        the text to check
+     * @param component    COMPONENT_QUERY or COMPONENT_PATH
+     * @return index of the first character that needs encoding, or -1 if the
+     *  value can be used as-is
+     */
+    public static int indexOfUnsafe(final CharSequence value, final int component) {
+        return indexOfUnsafe(value, component, false);
+    }
+
+    private static int indexOfUnsafe(final CharSequence value, final int component, final boolean formatted) {
+        final int bit = 1 << component;
+        final int length = value.length();
+
+        for(int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if(c < 128 && (SAFE[c] & bit) != 0) {
+                continue;
+            }
+            if(formatted && c == '+') {
+                continue;
+            }
+            if(formatted && c == '%' && isEscape(value, i, length)) {
+                i += 2;
+                continue;
+            }
+            return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Encode a value for use in a URL
+     *
+     * @param value        the text to encode; may be null
+     * @param component    COMPONENT_QUERY or COMPONENT_PATH
+     * @return the encoded text; the same instance if nothing needed encoding
+     */
+    public static String encode(final String value, final int component) {
+        return encode(value, component, false);
+    }
+
+    /**
+     * Encode a value that was already formatted by hand, keeping its '+'
+     *  and %XX escapes.  Applying this to its own output, or to the output of
+     *  encode, changes nothing.
+     *
+     * @param value        the formatted text; may be null
+     * @param component    COMPONENT_QUERY or COMPONENT_PATH
+     * @return the encoded text; the same instance if nothing needed encoding
+     */
+    public static String encodeFormatted(final String value, final int component) {
+        return encode(value, component, true);
+    }
+
+    private static String encode(final String value, final int component, final boolean formatted) {
+        if(null == value) {
+            return null;
+        }
+
+        final int unsafe = indexOfUnsafe(value, component, formatted);
+        if(unsafe < 0) {
+            return value;
+        }
+
+        final StringBuilder builder = new StringBuilder(value.length() + 16);
+        builder.append(value, 0, unsafe);
+        return appendFrom(builder, value, unsafe, component, formatted).toString();
+    }
+
+    /**
+     * Append an encoded value to a caller-owned buffer
+     *
+     * @param builder      the buffer to write to
+     * @param value        the text to encode
+     * @param component    COMPONENT_QUERY or COMPONENT_PATH
+     * @return the buffer, for chaining
+     */
+    public static StringBuilder appendEncoded(  final StringBuilder builder,
+                                                final CharSequence value,
+                                                final int component) {
+        return append(builder, value, component, false);
+    }
+
+    /**
+     * Append a value that was already formatted by hand, keeping its '+'
+     *  and %XX escapes
+     *
+     * @param builder      the buffer to write to
+     * @param value        the formatted text
+     * @param component    COMPONENT_QUERY or COMPONENT_PATH
+     * @return the buffer, for chaining
+     */
+    public static StringBuilder appendFormatted(final StringBuilder builder,
+                                                final CharSequence value,
+                                                final int component) {
+        return append(builder, value, component, true);
+    }
+
+    private static StringBuilder append(final StringBuilder builder,
+                                        final CharSequence value,
+                                        final int component,
+                                        final boolean formatted) {
+        final int unsafe = indexOfUnsafe(value, component, formatted);
+        if(unsafe < 0) {
+            return builder.append(value);
+        }
+
+        builder.append(value, 0, unsafe);
+        return appendFrom(builder, value, unsafe, component, formatted);
+    }
+
+    private static StringBuilder appendFrom(final StringBuilder builder,
+                                            final CharSequence value,
+                                            final int start,
+                                            final int component,
+                                            final boolean formatted) {
+        final int bit = 1 << component;
+        final int length = value.length();
+
+        for(int i = start; i < length; i++) {
+            final char c = value.charAt(i);
+
+            if(c < 128) {
+                if((SAFE[c] & bit) != 0) {
+                    builder.append(c);
+                } else if(formatted && c == '+') {
+                    builder.append(c);
+                } else if(formatted && c == '%' && isEscape(value, i, length)) {
+                    builder.append(c).append(value.charAt(i + 1)).append(value.charAt(i + 2));
+                    i += 2;
+                } else if(c == ' ' && component == COMPONENT_QUERY) {
+                    builder.append('+');
+                } else {
+                    escape(builder, c);
+                }
+            } else if(c < 0x800) {
+                escape(builder, 0xC0 | (c >> 6));
+                escape(builder, 0x80 | (c & 0x3F));
+            } else if(Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                escape(builder, 0xF0 | (codePoint >> 18));
+                escape(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+                escape(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+                escape(builder, 0x80 | (codePoint & 0x3F));
+            } else if(Character.isSurrogate(c)) {
+                // Unpaired surrogate; replaced the same way as String.getBytes
+                escape(builder, '?');
+            } else {
+                escape(builder, 0xE0 | (c >> 12));
+                escape(builder, 0x80 | ((c >> 6) & 0x3F));
+                escape(builder, 0x80 | (c & 0x3F));
+            }
+        }
+
+        return builder;
+    }
+
+    private static void escape(final StringBuilder builder, final int octet) {
+        builder.append('%').append(HEX[(octet >> 4) & 0xF]).append(HEX[octet & 0xF]);
+    }
+}
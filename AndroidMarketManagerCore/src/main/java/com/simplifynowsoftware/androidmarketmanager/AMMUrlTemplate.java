@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMUrlTemplate is a precompiled market URL of the form:
+ *  <prefix><identifier>[<postfix>]
+ *
+ * The prefix and postfix are joined once, when the template is created, from
+ *  the pieces defined in AMMConstants.  Filling the template then writes
+ *  prefix, identifier and postfix into one buffer, sized up front so it
+ *  does not grow for identifiers that need no encoding.
+ * <br>
+ * The identifier is percent-encoded with AMMUrlEncoder, as a query value if
+ *  the prefix contains a '?' and as a path segment otherwise.
+ * <br>
+ * Templates are immutable and may be shared between threads.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMUrlTemplate {
+    private final String mPrefix;
+    private final String mPostfix;
+    private final int mComponent;
+
+    /*
+     * The prefix and postfix pieces are concatenated here, once.
+     */
+    private AMMUrlTemplate(final String[] prefix, final String postfix) {
+        final StringBuilder builder = new StringBuilder();
+        for(final String part : prefix) {
+            builder.append(part);
+        }
+
+        mPrefix = builder.toString();
+        mPostfix = (null == postfix) ? "" : postfix;
+        mComponent = (mPrefix.indexOf('?') >= 0)
+                ? AMMUrlEncoder.COMPONENT_QUERY
+                : AMMUrlEncoder.COMPONENT_PATH;
+    }
+
+    /**
+     * Compile a template with no postfix
+     *
+     * @param prefix   the pieces of fixed text that come before the identifier
+     * @return the compiled template
+     */
+    public static AMMUrlTemplate compile(final String... prefix) {
+        return new AMMUrlTemplate(prefix, null);
+    }
+
+    /**
+     * Compile a template with fixed text after the identifier
+     *
+     * @param postfix  fixed text to follow the identifier
+     * @param prefix   the pieces of fixed text that come before the identifier
+     * @return the compiled template
+     */
+    public static AMMUrlTemplate compileWithPostfix(final String postfix, final String... prefix) {
+        return new AMMUrlTemplate(prefix, postfix);
+    }
+
+    /**
+     * Append the URL for the given identifier to a caller-owned buffer.
+     * Nothing is allocated if the buffer already has room.
+     *
+     * @param buffer       the buffer to write to
+     * @param identifier   the value to place between prefix and postfix;
+     *                      encoded as needed
+     * @return the buffer, for chaining
+     */
+    public StringBuilder appendTo(final StringBuilder buffer, final CharSequence identifier) {
+        buffer.append(mPrefix);
+        if(null == identifier) {
+            buffer.append(identifier);
+        } else {
+            AMMUrlEncoder.appendEncoded(buffer, identifier, mComponent);
+        }
+        return buffer.append(mPostfix);
+    }
+
+    private String fill(final CharSequence identifier, final boolean formatted) {
+        if(null == identifier) {
+            return null;
+        }
+
+        final StringBuilder buffer = new StringBuilder(getFixedLength() + identifier.length());
+        buffer.append(mPrefix);
+        if(formatted) {
+            AMMUrlEncoder.appendFormatted(buffer, identifier, mComponent);
+        } else {
+            AMMUrlEncoder.appendEncoded(buffer, identifier, mComponent);
+        }
+        return buffer.append(mPostfix).toString();
+    }
+
+    /**
+     * Build the URL for the given identifier.
+     *
+     * @param identifier   the value to place between prefix and postfix;
+     *                      encoded as needed
+     * @return the complete URL, or null if the identifier is null
+     */
+    public String fill(final CharSequence identifier) {
+        return fill(identifier, false);
+    }
+
+    /**
+     * Build the URL for an identifier that was already formatted by hand,
+     *  such as "Evernote+Corporation".  Its '+' and %XX escapes are kept;
+     *  see AMMUrlEncoder.encodeFormatted.
+     *
+     * @param identifier   the formatted value to place between prefix and
+     *                      postfix
+     * @return the complete URL, or null if the identifier is null
+     */
+    public String fillFormatted(final CharSequence identifier) {
+        return fill(identifier, true);
+    }
+
+    /**
+     * @return number of fixed characters contributed by this template
+     */
+    public int getFixedLength() {
+        return mPrefix.length() + mPostfix.length();
+    }
+
+    /**
+     * @return the fixed text that comes before the identifier
+     */
+    public String getPrefix() {
+        return mPrefix;
+    }
+
+    @Override
+    public String toString() {
+        return mPrefix + "{id}" + mPostfix;
+    }
+}
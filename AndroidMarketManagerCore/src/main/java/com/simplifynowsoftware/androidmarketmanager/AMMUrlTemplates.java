@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMUrlTemplates holds the compiled URL shapes for each market.
+ * See AMMConstants for details on how each URL is constructed.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMUrlTemplates {
+    /*
+     * Amazon - the prefix is picked once, based on AMAZON_USE_HTTP
+     */
+    private static final String AMAZON_PREFIX = AMMConstants.AMAZON_USE_HTTP
+            ? AMMConstants.AMAZON_URL_PREFIX_COMMON
+            : AMMConstants.AMAZON_AMZ_PREFIX_COMMON;
+
+    public static final AMMUrlTemplate AMAZON_APP = AMMUrlTemplate.compile(
+            AMAZON_PREFIX, AMMConstants.AMAZON_URL_TYPE_APP);
+    public static final AMMUrlTemplate AMAZON_SHOWALL = AMMUrlTemplate.compileWithPostfix(
+            AMMConstants.AMAZON_URL_POSTFIX_SHOWALL,
+            AMAZON_PREFIX, AMMConstants.AMAZON_URL_TYPE_APP);
+    public static final AMMUrlTemplate AMAZON_APP_WEB = AMMUrlTemplate.compile(
+            AMMConstants.AMAZON_URL_PREFIX_COMMON, AMMConstants.AMAZON_URL_TYPE_APP);
+    public static final AMMUrlTemplate AMAZON_SHOWALL_WEB = AMMUrlTemplate.compileWithPostfix(
+            AMMConstants.AMAZON_URL_POSTFIX_SHOWALL,
+            AMMConstants.AMAZON_URL_PREFIX_COMMON, AMMConstants.AMAZON_URL_TYPE_APP);
+
+    /*
+     * Google Play
+     */
+    public static final AMMUrlTemplate GOOGLE_APP = AMMUrlTemplate.compile(
+            AMMConstants.MARKET_URL_APP_PREFIX);
+    public static final AMMUrlTemplate GOOGLE_SEARCH = AMMUrlTemplate.compile(
+            AMMConstants.MARKET_URL_SEARCH_PREFIX);
+    public static final AMMUrlTemplate GOOGLE_DEVSEARCH = AMMUrlTemplate.compile(
+            AMMConstants.MARKET_URL_DEVSEARCH_PREFIX);
+    public static final AMMUrlTemplate GOOGLE_APP_WEB = AMMUrlTemplate.compile(
+            AMMConstants.MARKET_URL_APP_PREFIX_WEB);
+    public static final AMMUrlTemplate GOOGLE_SEARCH_WEB = AMMUrlTemplate.compile(
+            AMMConstants.MARKET_URL_SEARCH_PREFIX_WEB);
+    public static final AMMUrlTemplate GOOGLE_DEVSEARCH_WEB = AMMUrlTemplate.compile(
+            AMMConstants.MARKET_URL_DEVSEARCH_PREFIX_WEB);
+
+    /*
+     * BlackBerry Appworld
+     */
+    public static final AMMUrlTemplate BLACKBERRY_VENDOR_ALL = AMMUrlTemplate.compile(
+            AMMConstants.BLACKBERRY_URL_VENDOR_ALL_PREFIX);
+    public static final AMMUrlTemplate BLACKBERRY_VENDOR_ALL_WEB = AMMUrlTemplate.compile(
+            AMMConstants.BLACKBERRY_URL_VENDOR_ALL_WEB_PREFIX);
+
+    /*
+     * Samsung Apps
+     */
+    public static final AMMUrlTemplate SAMSUNG_APP = AMMUrlTemplate.compile(
+            AMMConstants.SAMSUNG_URL_PREFIX);
+    public static final AMMUrlTemplate SAMSUNG_VENDOR_ALL = AMMUrlTemplate.compile(
+            AMMConstants.SAMSUNG_URL_VENDOR_ALL_PREFIX);
+    public static final AMMUrlTemplate SAMSUNG_SEARCH_WEB = AMMUrlTemplate.compileWithPostfix(
+            "%22", // quoted, so the whole name is matched
+            AMMConstants.SAMSUNG_WEB_SEARCH_PREFIX, "%22");
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * The AMMUrls class generates market URLs without any dependency on Android.
+ *  It holds the URL rules used by AMMLinks, so that the same links can be
+ *  built on a server or in a plain JVM.
+ *
+ * Methods return null when no URL can be generated for the selected market.
+ *  The URL rules for each market live in its AMMMarketProvider; see
+ *  AMMMarketRegistry.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMUrls {
+    /**
+     * showAllUrl - URL for the developer's page showing all available apps.
+     * <br>
+     * If any required information is not present, defaults will be used if
+     *  possible.
+     * <br>
+     * @param marketSelector       numeric identifier for the app market to link to
+     * @param packageName          package name of the calling app, used for fallbacks
+     * @param googleDeveloperID    developer ID for Google Play
+     * @param amazonPackageID      package ID for an app released on the Amazon Appstore by same developer
+     * @param bbDeveloperID        developer ID for BlackBerry Appworld
+     * @param samsungDeveloperID   seller ID for Samsung Apps
+     * @return the market URL, or null if none can be generated
+     */
+    public static String showAllUrl(    final int marketSelector,
+                                        final String packageName,
+                                        final String googleDeveloperID,
+                                        final String amazonPackageID,
+                                        final String bbDeveloperID,
+                                        final String samsungDeveloperID) {
+        return showAllUrl(  marketSelector,
+                            AMMConstants.URL_STYLE_NATIVE,
+                            packageName,
+                            googleDeveloperID,
+                            amazonPackageID,
+                            bbDeveloperID,
+                            samsungDeveloperID,
+                            null);
+    }
+
+    /**
+     * showAllUrl - URL for the developer's page showing all available apps,
+     *  in the given style.
+     * <br>
+     * @param marketSelector       numeric identifier for the app market to link to
+     * @param urlStyle             URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @param packageName          package name of the calling app, used for fallbacks
+     * @param googleDeveloperID    developer ID for Google Play
+     * @param amazonPackageID      package ID for an app released on the Amazon Appstore by same developer
+     * @param bbDeveloperID        developer ID for BlackBerry Appworld
+     * @param samsungDeveloperID   seller ID for Samsung Apps
+     * @param developerName        name used to search for developer in app markets
+     * @return the market URL, or null if none can be generated
+     */
+    public static String showAllUrl(    final int marketSelector,
+                                        final int urlStyle,
+                                        final String packageName,
+                                        final String googleDeveloperID,
+                                        final String amazonPackageID,
+                                        final String bbDeveloperID,
+                                        final String samsungDeveloperID,
+                                        final String developerName) {
+        final AMMMarketProvider provider = AMMMarketRegistry.get(marketSelector);
+        if(null == provider) {
+            return null;
+        }
+
+        return provider.getAllUrl(urlStyle, new AMMAppDescriptor(
+                packageName, null, null, bbDeveloperID,
+                googleDeveloperID, amazonPackageID, samsungDeveloperID, developerName));
+    }
+
+    /**
+     * showAppUrl - URL for a single app in the selected market.
+     * <p>
+     * Unknown values for the app package/ID can be left null, but no URL will
+     *  be generated if that market is selected.
+     *
+     * @param marketSelector   Numeric identifier for the app market to link to
+     * @param appPackage       Full package name for Google and Amazon (e.g. com.x.x)
+     * @param nookEAN          Numeric ID for app on Nook Store, no longer used
+     * @param bbID             Numeric ID for app on BlackBerry Appworld
+     * @param bbVendorID       Numeric ID for vendor on BlackBerry Appworld
+     * @return the market URL, or null if none can be generated
+     */
+    public static String showAppUrl(    final int marketSelector,
+                                        final String appPackage,
+                                        final String nookEAN,
+                                        final String bbID,
+                                        final String bbVendorID) {
+        return showAppUrl(  marketSelector,
+                            AMMConstants.URL_STYLE_NATIVE,
+                            appPackage,
+                            nookEAN,
+                            bbID,
+                            bbVendorID);
+    }
+
+    /**
+     * showAppUrl - URL for a single app in the selected market, in the given
+     *  style.
+     *
+     * @param marketSelector   Numeric identifier for the app market to link to
+     * @param urlStyle         URL_STYLE_NATIVE or URL_STYLE_WEB
+     * @param appPackage       Full package name for Google and Amazon (e.g. com.x.x)
+     * @param nookEAN          Numeric ID for app on Nook Store, no longer used
+     * @param bbID             Numeric ID for app on BlackBerry Appworld
+     * @param bbVendorID       Numeric ID for vendor on BlackBerry Appworld
+     * @return the market URL, or null if none can be generated
+     */
+    public static String showAppUrl(    final int marketSelector,
+                                        final int urlStyle,
+                                        final String appPackage,
+                                        final String nookEAN,
+                                        final String bbID,
+                                        final String bbVendorID) {
+        final AMMMarketProvider provider = AMMMarketRegistry.get(marketSelector);
+        if(null == provider) {
+            return null;
+        }
+
+        return provider.getAppUrl(urlStyle, new AMMAppDescriptor(
+                appPackage, nookEAN, bbID, bbVendorID, null, null, null, null));
+    }
+
+    /**
+     * Guess the developer's base package by dropping the last segment of an
+     *  app package name (com.example.app becomes com.example).
+     *
+     * @param packageName  full package name of an app; may be null
+     * @return the package name without its final segment, or null if the
+     *  name is null or has no '.'
+     */
+    public static String developerPackage(final String packageName) {
+        final int dot = (null == packageName) ? -1 : packageName.lastIndexOf('.');
+        return (dot < 0) ? null : packageName.substring(0, dot);
+    }
+
+    /**
+     * Generate error message for user, showing the developer's name to search for
+     *
+     * @param prefix           localized text before the developer name
+     * @param developerName    name used to search for developer in app markets
+     * @param postfix          localized text after the developer name
+     * @return the complete message
+     */
+    public static String marketMessage(final String prefix, final String developerName, final String postfix) {
+        return prefix + developerName + postfix;
+    }
+}
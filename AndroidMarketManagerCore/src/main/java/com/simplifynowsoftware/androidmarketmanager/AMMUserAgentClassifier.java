@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMUserAgentClassifier works out the device family of a web visitor from
+ *  the User-Agent header: the same families AMMDeviceProfile finds from
+ *  android.os.Build on a device.
+ *
+ * All tokens are found in one pass over the User-Agent by an AMMTokenMatcher.
+ *  Real traffic repeats the same few thousand User-Agents, so recent results
+ *  are also kept in a bounded LRU cache.
+ * <br>
+ * Profiles from a User-Agent have no manufacturer or model.  Instances are
+ *  thread-safe; share one across requests.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMUserAgentClassifier {
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    /*
+     * Longer User-Agents are classified but not cached: they are rare, and
+     *  often junk meant to fill caches
+     */
+    private static final int MAX_CACHED_LENGTH = 512;
+
+    private static final int AMAZON = AMMDeviceProfile.FLAG_AMAZON;
+    private static final int NOOK_CT = AMMDeviceProfile.FLAG_NOOK_CT;
+    private static final int NOOK_HD = AMMDeviceProfile.FLAG_NOOK_HD;
+    private static final int SAMSUNG = AMMDeviceProfile.FLAG_SAMSUNG;
+    private static final int BLACKBERRY = AMMDeviceProfile.FLAG_BLACKBERRY;
+
+    private static final String[] TOKENS = {
+            AMMConstants.USER_AGENT_TOKEN_KINDLE_FIRE,
+            AMMConstants.USER_AGENT_TOKEN_KINDLE,
+            AMMConstants.USER_AGENT_TOKEN_SILK,
+            AMMConstants.USER_AGENT_TOKEN_FIRE_MODEL,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_2,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HD7_2,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HD7_3,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HDX7_WIFI,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HDX7_WAN,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HD89_WIFI,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HD89_WAN,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HDX89_WIFI,
+            AMMConstants.DEVICE_MODEL_KINDLE_FIRE_HDX89_WAN,
+            AMMConstants.DEVICE_MODEL_FIRE_PHONE,
+            AMMConstants.DEVICE_MODEL_NOOK_COLOR,
+            AMMConstants.DEVICE_MODEL_NOOK_TABLET_16GB,     // also matches the 8GB model
+            AMMConstants.DEVICE_MODEL_NOOK_HD,
+            AMMConstants.DEVICE_MODEL_NOOK_HDPLUS,
+            AMMConstants.DEVICE_MODEL_NOOK_SAMSUNG_TAB_4,
+            AMMConstants.USER_AGENT_TOKEN_SAMSUNG,
+            AMMConstants.USER_AGENT_TOKEN_SAMSUNG_MODEL,
+            AMMConstants.USER_AGENT_TOKEN_BB10,
+            AMMConstants.USER_AGENT_TOKEN_BLACKBERRY,
+            AMMConstants.USER_AGENT_TOKEN_PLAYBOOK
+    };
+
+    private static final int[] FLAGS = {
+            AMMDeviceProfile.FLAG_KINDLE_FIRE | AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            AMAZON,
+            NOOK_CT,
+            NOOK_CT,
+            NOOK_HD,
+            NOOK_HD,
+            AMMDeviceProfile.FLAG_NOOK_SAMSUNG | SAMSUNG,
+            SAMSUNG,
+            SAMSUNG,
+            BLACKBERRY,
+            BLACKBERRY,
+            BLACKBERRY
+    };
+
+    private static final AMMTokenMatcher MATCHER = new AMMTokenMatcher(TOKENS, FLAGS);
+
+    /*
+     * One shared profile per combination of flags, so a lookup never creates one
+     */
+    private static final AMMDeviceProfile[] PROFILES = new AMMDeviceProfile[(AMMDeviceProfile.FLAG_BLACKBERRY << 1)];
+
+    static {
+        for(int flags = 0; flags < PROFILES.length; flags++) {
+            PROFILES[flags] = AMMDeviceProfile.fromFlags(flags, null, null);
+        }
+    }
+
+    private final AMMLruCache<String, AMMDeviceProfile> mCache;
+
+    public AMMUserAgentClassifier() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize    number of recent User-Agents to remember
+     */
+    public AMMUserAgentClassifier(final int cacheSize) {
+        mCache = new AMMLruCache<String, AMMDeviceProfile>(cacheSize);
+    }
+
+    /**
+     * Classify a User-Agent, using the cache
+     *
+     * @param userAgent    the User-Agent header; may be null
+     * @return the device profile
+     */
+    public AMMDeviceProfile classify(final String userAgent) {
+        if(null == userAgent || userAgent.length() > MAX_CACHED_LENGTH) {
+            return classifyUncached(userAgent);
+        }
+
+        AMMDeviceProfile profile = mCache.get(userAgent);
+        if(null == profile) {
+            profile = classifyUncached(userAgent);
+            mCache.put(userAgent, profile);
+        }
+
+        return profile;
+    }
+
+    /**
+     * Classify a User-Agent without touching any cache
+     *
+     * @param userAgent    the User-Agent header; may be null
+     * @return the device profile
+     */
+    public static AMMDeviceProfile classifyUncached(final String userAgent) {
+        return PROFILES[MATCHER.match(userAgent)];
+    }
+
+    /**
+     * @param userAgent    the User-Agent header; may be null
+     * @return the market built into the visitor's device, or
+     *  MARKET_SELECTOR_NONE (see AMMMarketSelection.selectorForDevice)
+     */
+    public int getMarketSelector(final String userAgent) {
+        return AMMMarketSelection.selectorForDevice(classify(userAgent));
+    }
+
+    /**
+     * @return the result cache, for hit and miss counts
+     */
+    public AMMLruCache<String, AMMDeviceProfile> getCache() {
+        return mCache;
+    }
+}
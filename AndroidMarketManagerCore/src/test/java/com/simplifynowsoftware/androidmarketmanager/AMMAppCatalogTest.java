@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Round trips through AMMAppCatalog, including missing and non-numeric IDs.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMAppCatalogTest {
+    @Test
+    public void returnsWhatWasAdded() {
+        final AMMAppCatalog catalog = new AMMAppCatalog();
+        final AMMAppDescriptor full = new AMMAppDescriptor("com.evernote.widget", "2940043351611",
+                "56171", "24165", "Evernote Corporation", "com.evernote", "adevqewb3c", "Evernote");
+        final AMMAppDescriptor empty = new AMMAppDescriptor("com.evernote.food",
+                null, null, null, null, null, null, null);
+
+        final int fullRow = catalog.add(full);
+        final int emptyRow = catalog.add(empty);
+
+        assertEquals(full, catalog.get("com.evernote.widget"));
+        assertEquals(empty, catalog.get(emptyRow));
+        assertEquals(2940043351611L, catalog.getNookEAN(fullRow));
+        assertEquals(24165, catalog.getBbVendorID(fullRow));
+        assertEquals(AMMAppCatalog.NO_ID, catalog.getBbID(emptyRow));
+        assertNull(catalog.get("com.evernote"));
+        assertNull(catalog.get((CharSequence) null));
+    }
+
+    @Test
+    public void keepsNonNumericIdsAsText() {
+        final AMMAppCatalog catalog = new AMMAppCatalog();
+        final String[] ids = { "0123", "B00ABC", "", "1234567890123456789", "-5", "0" };
+
+        for(int i = 0; i < ids.length; i++) {
+            final AMMAppDescriptor app = new AMMAppDescriptor("com.example.app" + i, ids[i],
+                    ids[i], ids[i], null, null, null, null);
+            final int row = catalog.add(app);
+
+            assertEquals(ids[i], app, catalog.get(row));
+        }
+
+        assertEquals(AMMAppCatalog.NO_ID, catalog.getNookEAN(catalog.find("com.example.app0")));
+        assertEquals(0, catalog.getNookEAN(catalog.find("com.example.app5")));
+    }
+
+    @Test
+    public void replacesAppWithSamePackage() {
+        final AMMAppCatalog catalog = new AMMAppCatalog();
+        final int row = catalog.add(new AMMAppDescriptor("com.example.app", "B00ABC",
+                null, null, null, null, null, "Example"));
+        final AMMAppDescriptor replacement = new AMMAppDescriptor("com.example.app", null,
+                "56171", null, null, null, null, null);
+
+        assertEquals(row, catalog.add(replacement));
+        assertEquals(1, catalog.size());
+        assertEquals(replacement, catalog.get(row));
+    }
+
+    @Test
+    public void findsEveryAppAcrossResizes() {
+        final AMMAppCatalog catalog = new AMMAppCatalog(16);
+        final int apps = 5000;
+
+        for(int i = 0; i < apps; i++) {
+            assertEquals(i, catalog.add(new AMMAppDescriptor("com.example" + (i % 7) + ".app" + i,
+                    null, Integer.toString(i), null, null, null, null, null)));
+        }
+
+        assertEquals(apps, catalog.size());
+        for(int i = 0; i < apps; i++) {
+            final String appPackage = "com.example" + (i % 7) + ".app" + i;
+            assertEquals(i, catalog.find(appPackage));
+            assertEquals(i, catalog.find(new StringBuilder(appPackage)));
+            assertEquals(i, catalog.getBbID(i));
+        }
+        assertEquals(-1, catalog.find("com.example0"));
+        assertEquals(-1, catalog.find("com.example0.app1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresAppPackage() {
+        new AMMAppCatalog().add(new AMMAppDescriptor(null, null, null, null, null, null, null, null));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsUnknownRow() {
+        new AMMAppCatalog().get(0);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Encoding and decoding of AMMBase62 short codes.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMBase62Test {
+    @Test
+    public void roundTrips() {
+        final Random random = new Random(62);
+        final long[] fixed = { 0, 1, 61, 62, 3843, 3844, Long.MAX_VALUE };
+
+        for(final long id : fixed) {
+            assertEquals(id, AMMBase62.decode(AMMBase62.encode(id)));
+        }
+        for(int i = 0; i < 10000; i++) {
+            final long id = random.nextLong() & Long.MAX_VALUE;
+            assertEquals(id, AMMBase62.decode(AMMBase62.encode(id)));
+        }
+    }
+
+    @Test
+    public void encodesWithoutLeadingZeros() {
+        assertEquals("0", AMMBase62.encode(0));
+        assertEquals("10", AMMBase62.encode(62));
+    }
+
+    @Test
+    public void rejectsInvalidCodes() {
+        assertEquals(-1, AMMBase62.decode(null));
+        assertEquals(-1, AMMBase62.decode(""));
+        assertEquals(-1, AMMBase62.decode("ab-c"));
+        assertEquals(-1, AMMBase62.decode("\u00e9"));
+        // One more than Long.MAX_VALUE
+        assertEquals(-1, AMMBase62.decode(AMMBase62.encode(Long.MAX_VALUE).replace('7', '8')));
+        assertEquals(-1, AMMBase62.decode("zzzzzzzzzzzz"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeIds() {
+        AMMBase62.encode(-1);
+    }
+}
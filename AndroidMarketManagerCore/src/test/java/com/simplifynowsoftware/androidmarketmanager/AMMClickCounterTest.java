@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Counting, draining and removal of idle campaigns in AMMClickCounter.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMClickCounterTest {
+    @Test
+    public void drainsAndResets() {
+        final AMMClickCounter counter = new AMMClickCounter();
+        counter.increment("spring", AMMConstants.MARKET_SELECTOR_GOOGLE);
+        counter.add("spring", AMMConstants.MARKET_SELECTOR_GOOGLE, 4);
+        counter.increment(null, AMMConstants.MARKET_SELECTOR_AMAZON);
+
+        assertEquals(5, counter.get("spring", AMMConstants.MARKET_SELECTOR_GOOGLE));
+        assertEquals(1, counter.get("", AMMConstants.MARKET_SELECTOR_AMAZON));
+
+        final AtomicLong total = new AtomicLong();
+        assertEquals(2, counter.drain(sum(total)));
+        assertEquals(6, total.get());
+        assertEquals(0, counter.get("spring", AMMConstants.MARKET_SELECTOR_GOOGLE));
+    }
+
+    @Test
+    public void removesIdleCampaigns() {
+        final AMMClickCounter counter = new AMMClickCounter();
+        final AtomicLong total = new AtomicLong();
+
+        for(int i = 0; i < 100; i++) {
+            counter.increment("campaign" + i, AMMConstants.MARKET_SELECTOR_GOOGLE);
+        }
+        assertEquals(100, counter.size());
+
+        counter.drain(sum(total));
+        counter.increment("campaign0", AMMConstants.MARKET_SELECTOR_GOOGLE);
+        assertEquals(100, counter.size());
+
+        // Only campaign0 had clicks since the last drain
+        assertEquals(1, counter.drain(sum(total)));
+        assertEquals(1, counter.size());
+        assertEquals(0, counter.drain(sum(total)));
+        assertEquals(0, counter.size());
+        assertEquals(101, total.get());
+
+        counter.increment("campaign1", AMMConstants.MARKET_SELECTOR_GOOGLE);
+        assertEquals(1, counter.get("campaign1", AMMConstants.MARKET_SELECTOR_GOOGLE));
+    }
+
+    @Test
+    public void neverLosesClicksWhileDraining() throws InterruptedException {
+        final AMMClickCounter counter = new AMMClickCounter();
+        final AtomicLong total = new AtomicLong();
+        final int threads = 4;
+        final int clicks = 200000;
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        for(int t = 0; t < threads; t++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    for(int i = 0; i < clicks; i++) {
+                        // A few campaigns, often idle for a whole drain
+                        counter.increment("campaign" + (i & 3), AMMConstants.MARKET_SELECTOR_GOOGLE);
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+
+        while(done.getCount() > 0) {
+            counter.drain(sum(total));
+        }
+        counter.drain(sum(total));
+
+        assertEquals((long) threads * clicks, total.get());
+    }
+
+    private static AMMClickCounter.Sink sum(final AtomicLong total) {
+        return new AMMClickCounter.Sink() {
+            public void onCount(final String campaign, final int marketSelector, final long count) {
+                total.addAndGet(count);
+            }
+        };
+    }
+}
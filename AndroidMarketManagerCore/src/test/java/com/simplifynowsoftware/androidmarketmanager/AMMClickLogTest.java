@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Batches written by AMMClickLog, read back, and counts kept when a write
+ *  fails.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMClickLogTest {
+    /*
+     * Long enough that the background thread never runs during a test
+     */
+    private static final long PERIOD_MILLIS = 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void writesAndReadsBatches() throws IOException {
+        final File file = mFolder.newFile("clicks.tsv");
+        final AMMClickCounter counter = new AMMClickCounter();
+        final AMMClickLog log = new AMMClickLog(file, counter, PERIOD_MILLIS);
+
+        counter.increment("spring", AMMConstants.MARKET_SELECTOR_GOOGLE);
+        counter.increment("spring", AMMConstants.MARKET_SELECTOR_GOOGLE);
+        counter.increment("tab\there", AMMConstants.MARKET_SELECTOR_AMAZON);
+        assertEquals(2, log.flush());
+        assertEquals(0, log.flush());
+
+        counter.increment("spring", AMMConstants.MARKET_SELECTOR_GOOGLE);
+        log.close();
+
+        final Map<String, Long> totals = read(file);
+        assertEquals(Long.valueOf(3), totals.get("spring/" + AMMConstants.MARKET_SELECTOR_GOOGLE));
+        assertEquals(Long.valueOf(1), totals.get("tab here/" + AMMConstants.MARKET_SELECTOR_AMAZON));
+        assertEquals(2, totals.size());
+    }
+
+    @Test
+    public void keepsCountsWhenWriteFails() throws IOException {
+        final File folder = new File(mFolder.getRoot(), "missing");
+        final File file = new File(folder, "clicks.tsv");
+        final AMMClickCounter counter = new AMMClickCounter();
+        final AMMClickLog log = new AMMClickLog(file, counter, PERIOD_MILLIS);
+
+        counter.add("spring", AMMConstants.MARKET_SELECTOR_GOOGLE, 5);
+        try {
+            log.flush();
+            fail("Wrote to a missing folder");
+        } catch(IOException e) {
+            // Expected
+        }
+        assertEquals(5, counter.get("spring", AMMConstants.MARKET_SELECTOR_GOOGLE));
+
+        folder.mkdir();
+        assertEquals(1, log.flush());
+        log.close();
+
+        final Map<String, Long> totals = read(file);
+        assertEquals(Long.valueOf(5), totals.get("spring/" + AMMConstants.MARKET_SELECTOR_GOOGLE));
+        assertEquals(1, totals.size());
+    }
+
+    private static Map<String, Long> read(final File file) throws IOException {
+        final Map<String, Long> totals = new HashMap<String, Long>();
+        AMMClickLog.read(file, new AMMClickCounter.Sink() {
+            public void onCount(final String campaign, final int marketSelector, final long count) {
+                final String key = campaign + "/" + marketSelector;
+                final Long total = totals.get(key);
+                totals.put(key, (null == total) ? count : total + count);
+            }
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Output of AMMLinkExporter: JSON Lines and CSV rows, and gzip sitemaps split
+ *  at the URL and size limits.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMLinkExporterTest {
+    private static final String BASE_URL = "https://example.com/maps/";
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void skipsMarketsWithoutIdentifiers() throws IOException {
+        final File json = mFolder.newFile("links.jsonl");
+        final File csv = mFolder.newFile("links.csv");
+        final AMMLinkExporter exporter = new AMMLinkExporter(json, csv, null, null);
+        exporter.add(null, packageOnly("com.example.app"));
+        exporter.close();
+
+        final String jsonText = read(json);
+        final String csvText = read(csv);
+        assertFalse(jsonText, jsonText.contains("null"));
+        assertFalse(csvText, csvText.contains("null"));
+        assertTrue(jsonText.contains("\"url\":\"market://search?q=com.example\""));
+        assertEquals(exporter.getLinkCount(), lines(jsonText));
+        assertEquals(exporter.getLinkCount() + 1, lines(csvText));
+    }
+
+    @Test
+    public void escapesJson() throws IOException {
+        final File json = mFolder.newFile("links.jsonl");
+        final AMMLinkExporter exporter = new AMMLinkExporter(json, null, null, null);
+        exporter.add("say \"hi\"\\\n\u0001", packageOnly("com.example.app"));
+        exporter.close();
+
+        final String first = read(json).split("\n")[0];
+        assertTrue(first, first.startsWith("{\"key\":\"say \\\"hi\\\"\\\\\\u000a\\u0001\",\"app\":\"com.example.app\""));
+    }
+
+    @Test
+    public void quotesCsv() throws IOException {
+        final File csv = mFolder.newFile("links.csv");
+        final AMMLinkExporter exporter = new AMMLinkExporter(null, csv, null, null);
+        exporter.add("a,\"b\"", packageOnly("com.example.app"));
+        exporter.add("plain", packageOnly("com.example.other"));
+        exporter.close();
+
+        final String[] rows = read(csv).split("\n");
+        assertEquals("key,app,market,mode,style,url", rows[0]);
+        assertTrue(rows[1], rows[1].startsWith("\"a,\"\"b\"\"\",com.example.app,google,app,native,"));
+        assertTrue(rows[rows.length - 1], rows[rows.length - 1].startsWith("plain,com.example.other,"));
+    }
+
+    @Test
+    public void writesSurrogatesAsUtf8() throws IOException {
+        final File json = mFolder.newFile("links.jsonl");
+        final AMMLinkExporter exporter = new AMMLinkExporter(json, null, null, null);
+        exporter.add("\ud83d\ude00", packageOnly("com.example.app"));
+        exporter.add("x\ud83d", packageOnly("com.example.other"));
+        exporter.close();
+
+        final String text = read(json);
+        assertTrue(text.startsWith("{\"key\":\"\ud83d\ude00\""));
+        assertTrue(text.contains("{\"key\":\"x?\",\"app\":\"com.example.other\""));
+    }
+
+    @Test
+    public void writesGzipSitemapsAndIndex() throws IOException {
+        final File directory = mFolder.newFolder("maps");
+        final AMMLinkExporter exporter = new AMMLinkExporter(null, null, directory, BASE_URL);
+        exporter.add(null, new AMMAppDescriptor("com.example.app", null, null, "123",
+                null, null, null, "Example & Sons"));
+        exporter.close();
+
+        assertEquals(1, exporter.getSitemapCount());
+        final String sitemap = readGzip(new File(directory, "sitemap-1.xml.gz"));
+        assertTrue(sitemap, sitemap.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset "));
+        assertTrue(sitemap, sitemap.endsWith("</urlset>\n"));
+        assertTrue(sitemap, sitemap.contains(
+                "<url><loc>https://appworld.blackberry.com/webstore/vendor/123</loc></url>"));
+        assertFalse(sitemap, sitemap.contains("market://"));
+        assertEquals(exporter.getSitemapUrlCount(), count(sitemap, "<url>"));
+
+        final String index = read(new File(directory, AMMLinkExporter.SITEMAP_INDEX_NAME));
+        assertTrue(index, index.contains("<sitemap><loc>" + BASE_URL + "sitemap-1.xml.gz</loc></sitemap>"));
+        assertTrue(index, index.endsWith("</sitemapindex>\n"));
+    }
+
+    @Test
+    public void splitsSitemapsAtUrlLimit() throws IOException {
+        final File directory = mFolder.newFolder("maps");
+        final AMMLinkExporter exporter = new AMMLinkExporter(null, null, directory, BASE_URL);
+
+        // Four distinct web links per app
+        final int apps = AMMLinkExporter.SITEMAP_MAX_URLS / 4 + 1;
+        for(int i = 0; i < apps; i++) {
+            exporter.add(null, packageOnly("com.example" + i + ".app"));
+        }
+        exporter.close();
+
+        assertEquals(apps * 4L, exporter.getSitemapUrlCount());
+        assertEquals(2, exporter.getSitemapCount());
+        assertEquals(AMMLinkExporter.SITEMAP_MAX_URLS, count(readGzip(new File(directory, "sitemap-1.xml.gz")), "<url>"));
+        assertEquals(4, count(readGzip(new File(directory, "sitemap-2.xml.gz")), "<url>"));
+        assertEquals(2, count(read(new File(directory, AMMLinkExporter.SITEMAP_INDEX_NAME)), "<sitemap>"));
+    }
+
+    @Test
+    public void splitsSitemapsAtSizeLimit() throws IOException {
+        final File directory = mFolder.newFolder("maps");
+        final AMMLinkExporter exporter = new AMMLinkExporter(null, null, directory, null);
+
+        // About 16 KB of URLs per app, so the size limit comes first
+        final StringBuilder segment = new StringBuilder();
+        while(segment.length() < 4000) {
+            segment.append("segment");
+        }
+        int apps = 0;
+        while(exporter.getSitemapCount() < 2) {
+            exporter.add(null, packageOnly("com." + segment + apps + ".app"));
+            apps++;
+        }
+        exporter.close();
+
+        final String first = readGzip(new File(directory, "sitemap-1.xml.gz"));
+        assertTrue(first.length() <= AMMLinkExporter.SITEMAP_MAX_BYTES);
+        assertTrue(first.length() > AMMLinkExporter.SITEMAP_MAX_BYTES - 20000);
+        assertTrue(first.endsWith("</urlset>\n"));
+        assertTrue(count(first, "<url>") < AMMLinkExporter.SITEMAP_MAX_URLS);
+
+        final String second = readGzip(new File(directory, "sitemap-2.xml.gz"));
+        assertEquals(exporter.getSitemapUrlCount(), count(first, "<url>") + count(second, "<url>"));
+        assertFalse(new File(directory, AMMLinkExporter.SITEMAP_INDEX_NAME).exists());
+    }
+
+    private static AMMAppDescriptor packageOnly(final String appPackage) {
+        return new AMMAppDescriptor(appPackage, null, null, null, null, null, null, null);
+    }
+
+    private static long lines(final String text) {
+        return count(text, "\n");
+    }
+
+    private static long count(final String text, final String token) {
+        long count = 0;
+        for(int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String read(final File file) throws IOException {
+        return read(new FileInputStream(file));
+    }
+
+    private static String readGzip(final File file) throws IOException {
+        return read(new GZIPInputStream(new FileInputStream(file)));
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[64 * 1024];
+            int count;
+            while((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Puts, lookups and rehashing in AMMLongIntMap.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMLongIntMapTest {
+    @Test
+    public void returnsWhatWasPut() {
+        final AMMLongIntMap map = new AMMLongIntMap(4);
+        final long[] keys = { 0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 1L << 32 };
+
+        for(int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+
+        for(int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.get(keys[i]));
+        }
+        assertEquals(-1, map.get(2));
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    public void replacesValues() {
+        final AMMLongIntMap map = new AMMLongIntMap(4);
+        map.put(42, 0);
+        map.put(42, Integer.MAX_VALUE - 1);
+
+        assertEquals(Integer.MAX_VALUE - 1, map.get(42));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void findsKeysAcrossRehash() {
+        final AMMLongIntMap map = new AMMLongIntMap(1);
+        final int entries = 20000;
+
+        // Clustered keys, as AMMPackagePool makes from parent and segment
+        for(int i = 0; i < entries; i++) {
+            map.put(((long) (i / 100 + 1) << 32) | (i % 100), i);
+        }
+
+        assertEquals(entries, map.size());
+        for(int i = 0; i < entries; i++) {
+            assertEquals(i, map.get(((long) (i / 100 + 1) << 32) | (i % 100)));
+        }
+        assertEquals(-1, map.get((long) (entries / 100 + 1) << 32));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Capacity, eviction order and statistics of AMMLruCache.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMLruCacheTest {
+    @Test
+    public void singleSegmentHoldsExactlyMaxSize() {
+        for(final int maxSize : new int[] { 1, 12, 16, 64 }) {
+            final AMMLruCache<String, Integer> cache = new AMMLruCache<String, Integer>(maxSize, 1);
+
+            for(int i = 0; i < maxSize * 3; i++) {
+                cache.put("key" + i, i);
+            }
+
+            assertEquals(maxSize, cache.size());
+            for(int i = maxSize * 2; i < maxSize * 3; i++) {
+                assertEquals(Integer.valueOf(i), cache.get("key" + i));
+            }
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final AMMLruCache<String, Integer> cache = new AMMLruCache<String, Integer>(3, 1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        // Reading "a" makes "b" the eldest
+        cache.get("a");
+        cache.put("d", 4);
+
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(Integer.valueOf(4), cache.get("d"));
+    }
+
+    @Test
+    public void stripedCacheNeverExceedsMaxSize() {
+        for(final int maxSize : new int[] { 1, 5, 12, 16, 64, 1000 }) {
+            final AMMLruCache<String, Integer> cache = new AMMLruCache<String, Integer>(maxSize);
+
+            for(int i = 0; i < maxSize * 10; i++) {
+                cache.put("key" + i, i);
+                assertTrue(cache.size() <= maxSize);
+            }
+        }
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        final AMMLruCache<String, Integer> cache = new AMMLruCache<String, Integer>(4);
+        cache.put("a", 1);
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroSize() {
+        new AMMLruCache<String, Integer>(0);
+    }
+}
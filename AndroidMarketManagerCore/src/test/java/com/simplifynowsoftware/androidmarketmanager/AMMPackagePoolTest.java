@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Prefix sharing, lookups and matching in AMMPackagePool.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMPackagePoolTest {
+    @Test
+    public void sharesCommonPrefixes() {
+        final AMMPackagePool pool = new AMMPackagePool(16);
+        final int widget = pool.intern("com.evernote.widget");
+        final int food = pool.intern("com.evernote.food");
+
+        // com, evernote, widget, food
+        assertEquals(4, pool.size());
+        assertEquals(4, pool.getSegmentCount());
+        assertEquals("com.evernote.widget", pool.get(widget));
+        assertEquals("com.evernote.food", pool.get(food));
+
+        final int evernote = pool.find("com.evernote");
+        assertTrue(evernote != AMMPackagePool.NONE);
+        assertEquals(evernote, pool.intern("com.evernote"));
+        assertEquals(4, pool.size());
+
+        // New nodes for org and org.evernote, but the segment text is reused
+        pool.intern("org.evernote");
+        assertEquals(6, pool.size());
+        assertEquals(5, pool.getSegmentCount());
+    }
+
+    @Test
+    public void internsOnce() {
+        final AMMPackagePool pool = new AMMPackagePool(16);
+        final int id = pool.intern("com.example.app");
+
+        assertEquals(id, pool.intern(new StringBuilder("com.example.app")));
+        assertEquals(id, pool.find("com.example.app"));
+        assertEquals(AMMPackagePool.NONE, pool.find("com.example.other"));
+        assertEquals(AMMPackagePool.NONE, pool.find("com.example.app.more"));
+    }
+
+    @Test
+    public void handlesNull() {
+        final AMMPackagePool pool = new AMMPackagePool(16);
+
+        assertEquals(AMMPackagePool.NONE, pool.intern(null));
+        assertEquals(AMMPackagePool.NONE, pool.find(null));
+        assertNull(pool.get(AMMPackagePool.NONE));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void matchesWholePackageOnly() {
+        final AMMPackagePool pool = new AMMPackagePool(16);
+        final int id = pool.intern("com.evernote.food");
+
+        assertTrue(pool.matches(id, "com.evernote.food"));
+        assertTrue(pool.matches(id, new StringBuilder("com.evernote.food")));
+        assertFalse(pool.matches(id, "evernote.food"));
+        assertFalse(pool.matches(id, "xcom.evernote.food"));
+        assertFalse(pool.matches(id, "comXevernote.food"));
+        assertFalse(pool.matches(id, "com.evernote.foods"));
+        assertFalse(pool.matches(id, ""));
+    }
+
+    @Test
+    public void growsPastExpectedSize() {
+        final AMMPackagePool pool = new AMMPackagePool(16);
+        final int[] ids = new int[3000];
+
+        for(int i = 0; i < ids.length; i++) {
+            ids[i] = pool.intern("com.vendor" + (i % 10) + ".app" + i);
+        }
+
+        for(int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], pool.find("com.vendor" + (i % 10) + ".app" + i));
+            assertEquals("com.vendor" + (i % 10) + ".app" + i, pool.get(ids[i]));
+        }
+        // com, ten vendors, and one node per app
+        assertEquals(1 + 10 + ids.length, pool.size());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Saved scheme answers in AMMSchemeStore: reloading, damaged tails, clear
+ *  records and compaction.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMSchemeStoreTest {
+    /*
+     * Header, then type, time, length, "market", CRC
+     */
+    private static final int FIRST_RECORD = AMMSchemeStore.HEADER_SIZE;
+    private static final int MARKET_RECORD_SIZE = 1 + 8 + 1 + 6 + 4;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mFile;
+
+    @Before
+    public void setUp() {
+        mFile = new File(mFolder.getRoot(), "schemes.bin");
+    }
+
+    @Test
+    public void reloadsAnswers() throws IOException {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        assertTrue(store.load().isEmpty());
+
+        store.put("market", true);
+        store.put("amzn", false);
+        store.put("market", false);
+
+        assertEquals(answers("market", false, "amzn", false), new AMMSchemeStore(mFile).load());
+    }
+
+    @Test
+    public void skipsUnchangedAnswers() throws IOException {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        store.load();
+        store.put("market", true);
+        store.put("market", true);
+
+        assertEquals(1, store.getRecordCount());
+    }
+
+    @Test
+    public void ignoresAndReplacesTruncatedRecord() throws IOException {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        store.load();
+        store.put("market", true);
+        store.put("amzn", true);
+
+        // Cut the second record short, as a crash during the write would
+        setLength(FIRST_RECORD + MARKET_RECORD_SIZE + 5);
+
+        final AMMSchemeStore reopened = new AMMSchemeStore(mFile);
+        assertEquals(answers("market", true), reopened.load());
+
+        reopened.put("appworld", false);
+        assertEquals(FIRST_RECORD + 2 * MARKET_RECORD_SIZE + 2, mFile.length());
+        assertEquals(answers("market", true, "appworld", false), new AMMSchemeStore(mFile).load());
+    }
+
+    @Test
+    public void stopsAtCrcMismatch() throws IOException {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        store.load();
+        store.put("market", true);
+        store.put("amzn", true);
+        store.put("appworld", true);
+
+        // Change one character of "amzn"
+        flipByte(FIRST_RECORD + MARKET_RECORD_SIZE + 10);
+
+        final AMMSchemeStore reopened = new AMMSchemeStore(mFile);
+        assertEquals(answers("market", true), reopened.load());
+        assertEquals(1, reopened.getRecordCount());
+    }
+
+    @Test
+    public void treatsForeignFileAsEmpty() throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            file.write("not a scheme store".getBytes("US-ASCII"));
+        } finally {
+            file.close();
+        }
+
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        assertTrue(store.load().isEmpty());
+
+        store.put("market", true);
+        assertEquals(answers("market", true), new AMMSchemeStore(mFile).load());
+    }
+
+    @Test
+    public void clearForgetsEarlierAnswers() throws IOException {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        store.load();
+        store.put("market", true);
+        store.put("amzn", false);
+        store.clear();
+        store.put("appworld", true);
+
+        assertEquals(answers("appworld", true), new AMMSchemeStore(mFile).load());
+    }
+
+    @Test
+    public void dropsOldAnswers() throws Exception {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        store.load();
+        store.put("market", true);
+        Thread.sleep(20);
+
+        assertTrue(new AMMSchemeStore(mFile, 10).load().isEmpty());
+        assertEquals(answers("market", true), new AMMSchemeStore(mFile).load());
+    }
+
+    @Test
+    public void compactsStaleRecords() throws IOException {
+        final AMMSchemeStore store = new AMMSchemeStore(mFile);
+        store.load();
+        store.put("amzn", true);
+
+        boolean available = false;
+        while(!store.needsCompaction()) {
+            store.put("market", available);
+            available = !available;
+        }
+        final Map<String, Boolean> expected = answers("amzn", true, "market", !available);
+        final long before = mFile.length();
+
+        store.compact();
+
+        assertEquals(2, store.getRecordCount());
+        assertFalse(store.needsCompaction());
+        assertTrue(mFile.length() < before);
+        assertFalse(new File(mFile.getPath() + ".tmp").exists());
+
+        final AMMSchemeStore reopened = new AMMSchemeStore(mFile);
+        assertEquals(expected, reopened.load());
+        assertEquals(2, reopened.getRecordCount());
+
+        // Appends continue after the compacted records
+        reopened.put("appworld", false);
+        expected.put("appworld", Boolean.FALSE);
+        assertEquals(expected, new AMMSchemeStore(mFile).load());
+    }
+
+    private static Map<String, Boolean> answers(final Object... pairs) {
+        final Map<String, Boolean> answers = new HashMap<String, Boolean>();
+        for(int i = 0; i < pairs.length; i += 2) {
+            answers.put((String) pairs[i], (Boolean) pairs[i + 1]);
+        }
+        return answers;
+    }
+
+    private void setLength(final long length) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            file.setLength(length);
+        } finally {
+            file.close();
+        }
+    }
+
+    private void flipByte(final long position) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            file.seek(position);
+            final int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0x01);
+        } finally {
+            file.close();
+        }
+    }
+}
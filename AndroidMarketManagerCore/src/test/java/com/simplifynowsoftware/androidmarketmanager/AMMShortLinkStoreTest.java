@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Round trips through AMMShortLinkWriter and AMMShortLinkStore, and damaged
+ *  files.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMShortLinkStoreTest {
+    private static final AMMAppDescriptor[] APPS = {
+            new AMMAppDescriptor("com.example.one", null, null, "12345",
+                    "Example Inc", null, "example", "Example Inc"),
+            new AMMAppDescriptor("com.example.two", null, "678", null,
+                    null, "com.example.amazon", null, "Ex\u00e4mple \u65e5\u672c"),
+            new AMMAppDescriptor("com.example.three", null, null, null, null, null, null, null)
+    };
+
+    private static final int RECORDS = 1000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    /*
+     * IDs 0, 7, 14 ...; app and mask derived from the position
+     */
+    private File writeStore() throws IOException {
+        final File file = mFolder.newFile("links.bin");
+        final AMMShortLinkWriter writer = new AMMShortLinkWriter(file);
+        try {
+            final int[] indexes = new int[APPS.length];
+            for(int i = 0; i < APPS.length; i++) {
+                indexes[i] = writer.addApp(APPS[i]);
+            }
+            for(int i = 0; i < RECORDS; i++) {
+                writer.add(i * 7L, indexes[i % APPS.length], i);
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void findsEveryRecord() throws IOException {
+        final AMMShortLinkStore store = AMMShortLinkStore.open(writeStore());
+        try {
+            assertEquals(RECORDS, store.size());
+            assertEquals(APPS.length, store.getAppCount());
+
+            for(int i = 0; i < RECORDS; i++) {
+                final AMMShortLink link = store.find(i * 7L);
+                assertNotNull(link);
+                assertEquals(APPS[i % APPS.length], link.getApp());
+                assertEquals(i, link.getMarketMask());
+
+                final AMMShortLink byCode = store.find(AMMBase62.encode(i * 7L));
+                assertNotNull(byCode);
+                assertEquals(i * 7L, byCode.getId());
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void missingCodesAreNull() throws IOException {
+        final AMMShortLinkStore store = AMMShortLinkStore.open(writeStore());
+        try {
+            assertNull(store.find(1));
+            assertNull(store.find(RECORDS * 7L));
+            assertNull(store.find(Long.MAX_VALUE));
+            assertNull(store.find("not-base62"));
+            assertNull(store.find(""));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void rejectsWrongMagic() throws IOException {
+        final File file = writeStore();
+        overwriteInt(file, 0, 0x12345678);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsWrongVersion() throws IOException {
+        final File file = writeStore();
+        overwriteInt(file, 4, AMMShortLinkStore.VERSION + 1);
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsInconsistentRecordCount() throws IOException {
+        final File file = writeStore();
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(8);
+            raf.writeLong(RECORDS + 1);
+        } finally {
+            raf.close();
+        }
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        final File file = writeStore();
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(AMMShortLinkStore.HEADER_SIZE - 1);
+        } finally {
+            raf.close();
+        }
+        assertOpenFails(file);
+    }
+
+    @Test
+    public void damagedAppIndexIsNotFound() throws IOException {
+        final File file = writeStore();
+        // Record 3 points past the last app
+        overwriteInt(file, AMMShortLinkStore.HEADER_SIZE + 3 * AMMShortLinkStore.RECORD_SIZE + 8, APPS.length);
+
+        final AMMShortLinkStore store = AMMShortLinkStore.open(file);
+        try {
+            assertNull(store.find(3 * 7L));
+            assertNotNull(store.find(4 * 7L));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void damagedStringOffsetIsNotFound() throws IOException {
+        final File file = writeStore();
+        final long apps = AMMShortLinkStore.HEADER_SIZE + (long) RECORDS * AMMShortLinkStore.RECORD_SIZE;
+        // First field of app 1, then the last field of app 2
+        overwriteInt(file, apps + AMMShortLinkStore.APP_SIZE, Integer.MAX_VALUE);
+        overwriteInt(file, apps + 2 * AMMShortLinkStore.APP_SIZE + 28, -2);
+
+        final AMMShortLinkStore store = AMMShortLinkStore.open(file);
+        try {
+            assertNotNull(store.find(0));
+            assertNull(store.find(1 * 7L));
+            assertNull(store.find(2 * 7L));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void damagedStringLengthIsNotFound() throws IOException {
+        final File file = writeStore();
+        final long apps = AMMShortLinkStore.HEADER_SIZE + (long) RECORDS * AMMShortLinkStore.RECORD_SIZE;
+        final long strings = apps + APPS.length * AMMShortLinkStore.APP_SIZE;
+        // The first string belongs to app 0
+        overwriteInt(file, strings, 1 << 30);
+
+        final AMMShortLinkStore store = AMMShortLinkStore.open(file);
+        try {
+            assertNull(store.find(0));
+        } finally {
+            store.close();
+        }
+    }
+
+    private static void overwriteInt(final File file, final long position, final int value) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(position);
+            raf.writeInt(value);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static void assertOpenFails(final File file) {
+        try {
+            AMMShortLinkStore.open(file).close();
+            fail("Opened a damaged file");
+        } catch(IOException e) {
+            // Expected
+        }
+    }
+}
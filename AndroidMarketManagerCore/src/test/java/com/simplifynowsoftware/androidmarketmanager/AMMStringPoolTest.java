@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Interning, ranges and growth of AMMStringPool.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMStringPoolTest {
+    @Test
+    public void internsOnce() {
+        final AMMStringPool pool = new AMMStringPool();
+        final int id = pool.intern("Evernote Corporation");
+
+        assertEquals(id, pool.intern(new StringBuilder("Evernote Corporation")));
+        assertEquals(id, pool.find("Evernote Corporation"));
+        assertEquals("Evernote Corporation", pool.get(id));
+        assertEquals(20, pool.length(id));
+        assertEquals(1, pool.size());
+        assertEquals(AMMStringPool.NONE, pool.find("Evernote"));
+    }
+
+    @Test
+    public void internsRanges() {
+        final AMMStringPool pool = new AMMStringPool();
+        final String text = "com.evernote.food";
+        final int id = pool.intern(text, 4, 12);
+
+        assertEquals("evernote", pool.get(id));
+        assertEquals(id, pool.find("evernote"));
+        assertEquals(id, pool.find("an evernote", 3, 11));
+        assertTrue(pool.equals(id, text, 4, 12));
+        assertFalse(pool.equals(id, text, 4, 11));
+        assertEquals("[evernote]", pool.appendTo(new StringBuilder("["), id).append(']').toString());
+    }
+
+    @Test
+    public void handlesNullAndEmpty() {
+        final AMMStringPool pool = new AMMStringPool();
+
+        assertEquals(AMMStringPool.NONE, pool.intern(null));
+        assertEquals(AMMStringPool.NONE, pool.find(null));
+        assertNull(pool.get(AMMStringPool.NONE));
+
+        final int empty = pool.intern("");
+        assertEquals("", pool.get(empty));
+        assertEquals(empty, pool.find("x", 1, 1));
+        assertEquals(0, pool.length(empty));
+    }
+
+    @Test
+    public void growsPastExpectedSize() {
+        final AMMStringPool pool = new AMMStringPool(4);
+        final int strings = 5000;
+
+        for(int i = 0; i < strings; i++) {
+            assertEquals(i, pool.intern("developer " + i));
+        }
+
+        assertEquals(strings, pool.size());
+        for(int i = 0; i < strings; i++) {
+            assertEquals(i, pool.find("developer " + i));
+            assertEquals("developer " + i, pool.get(i));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Matching, case folding and table construction of AMMTokenMatcher.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMTokenMatcherTest {
+    @Test
+    public void findsOverlappingTokens() {
+        final AMMTokenMatcher matcher = new AMMTokenMatcher(
+                new String[] { "; KF", "KFOT" }, new int[] { 1, 2 });
+
+        assertEquals(3, matcher.match("(Linux; U; en-us; KFOT Build/IML74K)"));
+        assertEquals(1, matcher.match("(Linux; U; en-us; KFTT Build/IML74K)"));
+        assertEquals(2, matcher.match("KFOT"));
+        assertEquals(0, matcher.match("; K FOT"));
+    }
+
+    @Test
+    public void findsTokensThatArePrefixesOfOthers() {
+        final AMMTokenMatcher matcher = new AMMTokenMatcher(
+                new String[] { "Kindle Fire Build/", "Kindle" }, new int[] { 1, 2 });
+
+        assertEquals(3, matcher.match("en-us; Kindle Fire Build/GINGERBREAD)"));
+        assertEquals(2, matcher.match("en-us; Kindle Fire HD Build/IML74K)"));
+        assertEquals(2, matcher.match("Safari/531.2+ Kindle/3.0+"));
+        // A failed long match still finds the short one starting inside it
+        assertEquals(2, matcher.match("Kindle FireKindle"));
+    }
+
+    @Test
+    public void findsSuffixTokens() {
+        final AMMTokenMatcher matcher = new AMMTokenMatcher(
+                new String[] { "he", "she", "his", "hers" }, new int[] { 1, 2, 4, 8 });
+
+        assertEquals(1 | 2 | 8, matcher.match("ushers"));
+        assertEquals(4, matcher.match("this"));
+        assertEquals(1, matcher.match("hhe"));
+        assertEquals(10, matcher.getStateCount());
+    }
+
+    @Test
+    public void ignoresAsciiCase() {
+        final AMMTokenMatcher matcher = new AMMTokenMatcher(
+                new String[] { "BlackBerry", "bb10" }, new int[] { 1, 2 });
+
+        assertEquals(1, matcher.match("BLACKBERRY"));
+        assertEquals(1, matcher.match("blackberry"));
+        assertEquals(2, matcher.match("(BB10; Touch)"));
+    }
+
+    @Test
+    public void neverMatchesNonAscii() {
+        final AMMTokenMatcher matcher = new AMMTokenMatcher(
+                new String[] { "kindle" }, new int[] { 1 });
+
+        assertEquals(1, matcher.match("\u4e2d\u00c9Kindle\u00e9"));
+        assertEquals(0, matcher.match("Kindl\u00e9"));
+        assertEquals(0, matcher.match("Kin\u00e9dle"));
+        // KELVIN SIGN lower-cases to 'k' in Java, but is not folded here
+        assertEquals(0, matcher.match("\u212aindle"));
+        // Non-ASCII characters whose low byte is an ASCII letter
+        assertEquals(0, matcher.match("\u016bindle"));
+    }
+
+    @Test
+    public void matchesNothingInNullOrEmpty() {
+        final AMMTokenMatcher matcher = new AMMTokenMatcher(
+                new String[] { "Silk" }, new int[] { 1 });
+
+        assertEquals(0, matcher.match(null));
+        assertEquals(0, matcher.match(""));
+        assertEquals(1, matcher.match(new StringBuilder("Silk/3.4")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonAsciiTokens() {
+        new AMMTokenMatcher(new String[] { "Kindl\u00e9" }, new int[] { 1 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyTokens() {
+        new AMMTokenMatcher(new String[] { "" }, new int[] { 1 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedFlags() {
+        new AMMTokenMatcher(new String[] { "a", "b" }, new int[] { 1 });
+    }
+}
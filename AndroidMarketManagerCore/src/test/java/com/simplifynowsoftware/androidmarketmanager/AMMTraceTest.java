@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Recording and dumping of AMMTrace events, including while several threads
+ *  record into a small buffer at once.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMTraceTest {
+    private static final Pattern EVENT = Pattern.compile(" launch market=(\\d+) mode=app detail=(\\d+) us=(\\d+)");
+
+    @After
+    public void tearDown() {
+        AMMTrace.disable();
+    }
+
+    @Test
+    public void roundsAndClampsCapacity() {
+        AMMTrace.enable(100);
+        assertEquals(128, AMMTrace.getCapacity());
+        AMMTrace.enable(128);
+        assertEquals(128, AMMTrace.getCapacity());
+        AMMTrace.enable(0);
+        assertEquals(2, AMMTrace.getCapacity());
+        AMMTrace.enable(-1);
+        assertEquals(2, AMMTrace.getCapacity());
+        AMMTrace.enable((1 << 30) + 1);
+        assertEquals(AMMTrace.MAX_CAPACITY, AMMTrace.getCapacity());
+        AMMTrace.enable(Integer.MAX_VALUE);
+        assertEquals(AMMTrace.MAX_CAPACITY, AMMTrace.getCapacity());
+
+        AMMTrace.disable();
+        assertEquals(0, AMMTrace.getCapacity());
+    }
+
+    @Test
+    public void keepsMostRecentEvents() {
+        AMMTrace.enable(4);
+        for(int i = 0; i < 10; i++) {
+            AMMTrace.record(AMMTrace.EVENT_LAUNCH, 1, AMMConstants.LINK_MODE_APP, i, i * 1000L);
+        }
+
+        final String dump = dump();
+        assertTrue(dump, dump.startsWith("AMMTrace: 10 events, showing up to 4"));
+
+        final Matcher matcher = EVENT.matcher(dump);
+        int expected = 6;
+        while(matcher.find()) {
+            assertEquals(expected++, Integer.parseInt(matcher.group(2)));
+        }
+        assertEquals(10, expected);
+    }
+
+    @Test
+    public void dumpsNothingBeforeFirstEvent() {
+        AMMTrace.enable(4);
+        assertEquals("AMMTrace: 0 events, showing up to 0", dump().trim());
+
+        AMMTrace.disable();
+        assertEquals("AMMTrace: disabled", dump().trim());
+    }
+
+    @Test
+    public void concurrentWritersDoNotMixRecords() throws Exception {
+        AMMTrace.enable(8);
+
+        final Thread[] writers = new Thread[4];
+        for(int t = 0; t < writers.length; t++) {
+            final int market = t;
+            writers[t] = new Thread(new Runnable() {
+                public void run() {
+                    for(int i = 0; i < 200000; i++) {
+                        // The duration is derived from the market and detail,
+                        //  so a record mixed from two events does not match
+                        AMMTrace.record(AMMTrace.EVENT_LAUNCH, market, AMMConstants.LINK_MODE_APP,
+                                i, (market * 1000000L + i) * 1000);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+
+        int checked = 0;
+        while(isAlive(writers)) {
+            final Matcher matcher = EVENT.matcher(dump());
+            while(matcher.find()) {
+                final long market = Long.parseLong(matcher.group(1));
+                final long detail = Long.parseLong(matcher.group(2));
+                assertEquals(market * 1000000L + detail, Long.parseLong(matcher.group(3)));
+                checked++;
+            }
+        }
+        for(final Thread writer : writers) {
+            writer.join();
+        }
+
+        assertTrue(checked > 0);
+    }
+
+    private static boolean isAlive(final Thread[] threads) {
+        for(final Thread thread : threads) {
+            if(thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String dump() {
+        final StringWriter out = new StringWriter();
+        final PrintWriter writer = new PrintWriter(out);
+        AMMTrace.dump(writer);
+        writer.flush();
+        return out.toString();
+    }
+}
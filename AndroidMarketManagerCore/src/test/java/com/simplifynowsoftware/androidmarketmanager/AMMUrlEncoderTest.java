@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URLDecoder;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Encoding of market URL values by AMMUrlEncoder: the result must be safe in
+ *  its URL component and decode back to the value it was given.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMUrlEncoderTest {
+    private static final int[] COMPONENTS = {
+            AMMUrlEncoder.COMPONENT_QUERY, AMMUrlEncoder.COMPONENT_PATH
+    };
+
+    /*
+     * Characters that may appear in the output, besides letters and digits
+     */
+    private static final String QUERY_CHARS = "-._~:@!$'()*/%+";
+    private static final String PATH_CHARS = "-._~:@!$'()*,;=&%";
+
+    @Test
+    public void encodesLiteralPlusAndPercent() {
+        assertEquals("C%2B%2B+Tools", AMMUrlEncoder.encode("C++ Tools", AMMUrlEncoder.COMPONENT_QUERY));
+        assertEquals("A%2541B", AMMUrlEncoder.encode("A%41B", AMMUrlEncoder.COMPONENT_QUERY));
+        assertEquals("100%25", AMMUrlEncoder.encode("100%", AMMUrlEncoder.COMPONENT_QUERY));
+        assertEquals("C%2B%2B%20Tools", AMMUrlEncoder.encode("C++ Tools", AMMUrlEncoder.COMPONENT_PATH));
+    }
+
+    @Test
+    public void encodesReservedAndNonAscii() {
+        assertEquals("%22Simplify+Now%2C+LLC%22",
+                AMMUrlEncoder.encode("\"Simplify Now, LLC\"", AMMUrlEncoder.COMPONENT_QUERY));
+        assertEquals("a%26b%3Dc%23d%3Fe", AMMUrlEncoder.encode("a&b=c#d?e", AMMUrlEncoder.COMPONENT_QUERY));
+        assertEquals("Soci%C3%A9t%C3%A9", AMMUrlEncoder.encode("Soci\u00e9t\u00e9", AMMUrlEncoder.COMPONENT_QUERY));
+        assertEquals("%F0%9F%98%80", AMMUrlEncoder.encode("\ud83d\ude00", AMMUrlEncoder.COMPONENT_PATH));
+    }
+
+    @Test
+    public void returnsSafeValuesUnchanged() {
+        final String packageName = "com.evernote.widget";
+        for(final int component : COMPONENTS) {
+            assertSame(packageName, AMMUrlEncoder.encode(packageName, component));
+            assertEquals(-1, AMMUrlEncoder.indexOfUnsafe(packageName, component));
+            assertNull(AMMUrlEncoder.encode(null, component));
+        }
+    }
+
+    @Test
+    public void appendMatchesEncode() {
+        final String value = "C++ Tools & \u00c9ditions";
+        for(final int component : COMPONENTS) {
+            final StringBuilder builder = new StringBuilder("x=");
+            AMMUrlEncoder.appendEncoded(builder, value, component);
+            assertEquals("x=" + AMMUrlEncoder.encode(value, component), builder.toString());
+        }
+    }
+
+    @Test
+    public void randomValuesAreSafeAndDecode() throws Exception {
+        final Random random = new Random(18);
+        final String alphabet = " +%&=?#/,;:@!$'()*\"<>[]{}|\\^`-._~aZ09\u00e9\u4e2d";
+
+        for(int i = 0; i < 5000; i++) {
+            final StringBuilder value = new StringBuilder();
+            final int length = random.nextInt(12);
+            for(int j = 0; j < length; j++) {
+                if(random.nextInt(10) == 0) {
+                    value.append("\ud83d\ude00");
+                } else {
+                    value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+
+            for(final int component : COMPONENTS) {
+                final String encoded = AMMUrlEncoder.encode(value.toString(), component);
+                assertSafe(encoded, (component == AMMUrlEncoder.COMPONENT_QUERY) ? QUERY_CHARS : PATH_CHARS);
+                assertEquals(value.toString(), URLDecoder.decode(encoded, "UTF-8"));
+            }
+        }
+    }
+
+    @Test
+    public void formattedValuesAreKept() {
+        final int query = AMMUrlEncoder.COMPONENT_QUERY;
+        assertEquals("Evernote+Corporation", AMMUrlEncoder.encodeFormatted("Evernote+Corporation", query));
+        assertEquals("%22Simplify+Now%2C+LLC%22",
+                AMMUrlEncoder.encodeFormatted("%22Simplify+Now%2C+LLC%22", query));
+        assertEquals("Simplify+Now%2C+LLC", AMMUrlEncoder.encodeFormatted("Simplify+Now, LLC", query));
+        // An incomplete escape is not a formatted one
+        assertEquals("100%25", AMMUrlEncoder.encodeFormatted("100%", query));
+    }
+
+    @Test
+    public void formattedEncodingIsIdempotent() {
+        final String[] values = {
+                "Evernote+Corporation", "C++ Tools", "A%41B", "100%", "Soci\u00e9t\u00e9 %zz", "a&b=c"
+        };
+
+        for(final int component : COMPONENTS) {
+            for(final String value : values) {
+                final String once = AMMUrlEncoder.encodeFormatted(value, component);
+                assertEquals(once, AMMUrlEncoder.encodeFormatted(once, component));
+
+                final String strict = AMMUrlEncoder.encode(value, component);
+                assertEquals(strict, AMMUrlEncoder.encodeFormatted(strict, component));
+            }
+        }
+    }
+
+    private static void assertSafe(final String encoded, final String allowed) {
+        for(int i = 0; i < encoded.length(); i++) {
+            final char c = encoded.charAt(i);
+            final boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            assertTrue(encoded, alphanumeric || allowed.indexOf(c) >= 0);
+        }
+    }
+}
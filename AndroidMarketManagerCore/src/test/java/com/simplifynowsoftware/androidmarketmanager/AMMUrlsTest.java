@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * The market URL rules in AMMUrls and AMMBuiltInMarkets, checked for every
+ *  market, link mode and URL style against the rules AMMLinks used before
+ *  they moved to the core module.
+ *
+ * The old AMMLinks built native URLs only, by concatenation.  Where it
+ *  appended a null ID ("vendor/null") or threw, the expected URL is null.
+ *  The web URLs follow the WEB constants in AMMConstants.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMUrlsTest {
+    private static final String[] PACKAGES = { "com.example.app", "nodot", null };
+
+    private static final int[] STYLES = { AMMConstants.URL_STYLE_NATIVE, AMMConstants.URL_STYLE_WEB };
+
+    @Test
+    public void matchesBaselineForEveryMarketModeAndStyle() {
+        int checked = 0;
+
+        for(final String appPackage : PACKAGES) {
+            for(int ids = 0; ids < 1 << 6; ids++) {
+                final AMMAppDescriptor app = new AMMAppDescriptor(
+                        appPackage,
+                        null,
+                        pick(ids, 0, "56171"),
+                        pick(ids, 1, "24165"),
+                        pick(ids, 2, "ExampleInc"),
+                        pick(ids, 3, "com.example.amazon"),
+                        pick(ids, 4, "adevqewb3c"),
+                        pick(ids, 5, "Example"));
+
+                for(int selector = AMMConstants.MARKET_SELECTOR_NONE; selector <= 6; selector++) {
+                    for(final int style : STYLES) {
+                        final String what = "selector " + selector + ", style " + style + ", " + describe(app);
+
+                        assertEquals("app, " + what, expectedApp(selector, style, app),
+                                app.getUrl(selector, AMMConstants.LINK_MODE_APP, style));
+                        assertEquals("all, " + what, expectedAll(selector, style, app),
+                                app.getUrl(selector, AMMConstants.LINK_MODE_ALL, style));
+
+                        assertEquals(app.getUrl(selector, AMMConstants.LINK_MODE_APP, style),
+                                AMMUrls.showAppUrl(selector, style, appPackage, null, app.getBbID(), app.getBbVendorID()));
+                        assertEquals(app.getUrl(selector, AMMConstants.LINK_MODE_ALL, style),
+                                AMMUrls.showAllUrl(selector, style, appPackage, app.getGoogleDeveloperID(),
+                                        app.getAmazonPackageID(), app.getBbVendorID(),
+                                        app.getSamsungDeveloperID(), app.getDeveloperName()));
+                        checked++;
+                    }
+                }
+            }
+        }
+
+        assertEquals(PACKAGES.length * 64 * 7 * 2, checked);
+    }
+
+    @Test
+    public void buildsKnownUrls() {
+        final AMMAppDescriptor app = new AMMAppDescriptor("com.example.app", null, null, "24165",
+                null, null, "adevqewb3c", "Example Inc");
+
+        assertEquals("market://details?id=com.example.app",
+                app.getUrl(AMMConstants.MARKET_SELECTOR_GOOGLE, AMMConstants.LINK_MODE_APP));
+        assertEquals("market://search?q=com.example",
+                app.getUrl(AMMConstants.MARKET_SELECTOR_GOOGLE, AMMConstants.LINK_MODE_ALL));
+        assertEquals("appworld://vendor/24165",
+                app.getUrl(AMMConstants.MARKET_SELECTOR_BLACKBERRY, AMMConstants.LINK_MODE_ALL));
+        assertEquals("samsungapps://SellerDetail/adevqewb3c",
+                app.getUrl(AMMConstants.MARKET_SELECTOR_SAMSUNG, AMMConstants.LINK_MODE_ALL));
+        assertEquals(AMMConstants.SAMSUNG_WEB_SEARCH_PREFIX + "%22Example+Inc%22",
+                app.getUrl(AMMConstants.MARKET_SELECTOR_SAMSUNG, AMMConstants.LINK_MODE_ALL,
+                        AMMConstants.URL_STYLE_WEB));
+    }
+
+    @Test
+    public void encodesIdentifiers() {
+        assertEquals(AMMConstants.MARKET_URL_DEVSEARCH_PREFIX + "Example+Inc%2C+LLC",
+                AMMUrls.showAllUrl(AMMConstants.MARKET_SELECTOR_GOOGLE, "com.example.app",
+                        "Example Inc, LLC", null, null, null));
+    }
+
+    @Test
+    public void guessesDeveloperPackage() {
+        assertEquals("com.example", AMMUrls.developerPackage("com.example.app"));
+        assertNull(AMMUrls.developerPackage("nodot"));
+        assertNull(AMMUrls.developerPackage(null));
+    }
+
+    @Test
+    public void templatesReturnNullForNullIdentifier() {
+        assertNull(AMMUrlTemplates.GOOGLE_APP.fill(null));
+        assertNull(AMMUrlTemplates.GOOGLE_APP.fillFormatted(null));
+        assertEquals(AMMConstants.MARKET_URL_APP_PREFIX + "com.example.app",
+                AMMUrlTemplates.GOOGLE_APP.fill("com.example.app"));
+    }
+
+    /*
+     * marketShowApp before the rules moved, plus the web style
+     */
+    private static String expectedApp(final int selector, final int style, final AMMAppDescriptor app) {
+        final boolean web = (style == AMMConstants.URL_STYLE_WEB);
+        final String appPackage = app.getAppPackage();
+        if(null == appPackage) {
+            return null;
+        }
+
+        switch(selector) {
+            case AMMConstants.MARKET_SELECTOR_AMAZON:
+                return amazonPrefix(web) + AMMConstants.AMAZON_URL_TYPE_APP + appPackage;
+            case AMMConstants.MARKET_SELECTOR_GOOGLE:
+            case AMMConstants.MARKET_SELECTOR_BLACKBERRY:
+                return (web ? AMMConstants.MARKET_URL_APP_PREFIX_WEB : AMMConstants.MARKET_URL_APP_PREFIX)
+                        + appPackage;
+            case AMMConstants.MARKET_SELECTOR_SAMSUNG:
+                return web ? null : AMMConstants.SAMSUNG_URL_PREFIX + appPackage;
+            default:
+                return null;
+        }
+    }
+
+    /*
+     * marketShowAll before the rules moved, plus the web style
+     */
+    private static String expectedAll(final int selector, final int style, final AMMAppDescriptor app) {
+        final boolean web = (style == AMMConstants.URL_STYLE_WEB);
+
+        switch(selector) {
+            case AMMConstants.MARKET_SELECTOR_AMAZON: {
+                final String id = (null == app.getAmazonPackageID()) ? app.getAppPackage() : app.getAmazonPackageID();
+                return (null == id) ? null : amazonPrefix(web) + AMMConstants.AMAZON_URL_TYPE_APP + id
+                        + AMMConstants.AMAZON_URL_POSTFIX_SHOWALL;
+            }
+            case AMMConstants.MARKET_SELECTOR_GOOGLE: {
+                if(null != app.getGoogleDeveloperID()) {
+                    return (web ? AMMConstants.MARKET_URL_DEVSEARCH_PREFIX_WEB : AMMConstants.MARKET_URL_DEVSEARCH_PREFIX)
+                            + app.getGoogleDeveloperID();
+                }
+                final String packageName = app.getAppPackage();
+                if(null == packageName || packageName.indexOf('.') < 0) {
+                    return null;
+                }
+                return (web ? AMMConstants.MARKET_URL_SEARCH_PREFIX_WEB : AMMConstants.MARKET_URL_SEARCH_PREFIX)
+                        + packageName.substring(0, packageName.lastIndexOf('.'));
+            }
+            case AMMConstants.MARKET_SELECTOR_BLACKBERRY:
+                return (null == app.getBbVendorID()) ? null
+                        : (web ? AMMConstants.BLACKBERRY_URL_VENDOR_ALL_WEB_PREFIX
+                               : AMMConstants.BLACKBERRY_URL_VENDOR_ALL_PREFIX) + app.getBbVendorID();
+            case AMMConstants.MARKET_SELECTOR_SAMSUNG:
+                if(web) {
+                    return (null == app.getDeveloperName()) ? null
+                            : AMMConstants.SAMSUNG_WEB_SEARCH_PREFIX + "%22" + app.getDeveloperName() + "%22";
+                }
+                return (null == app.getSamsungDeveloperID()) ? null
+                        : AMMConstants.SAMSUNG_URL_VENDOR_ALL_PREFIX + app.getSamsungDeveloperID();
+            default:
+                return null;
+        }
+    }
+
+    private static String amazonPrefix(final boolean web) {
+        return (web || AMMConstants.AMAZON_USE_HTTP)
+                ? AMMConstants.AMAZON_URL_PREFIX_COMMON
+                : AMMConstants.AMAZON_AMZ_PREFIX_COMMON;
+    }
+
+    private static String pick(final int ids, final int bit, final String value) {
+        return ((ids & (1 << bit)) != 0) ? value : null;
+    }
+
+    private static String describe(final AMMAppDescriptor app) {
+        return app.getAppPackage() + "/" + app.getBbID() + "/" + app.getBbVendorID() + "/"
+                + app.getGoogleDeveloperID() + "/" + app.getAmazonPackageID() + "/"
+                + app.getSamsungDeveloperID() + "/" + app.getDeveloperName();
+    }
+}
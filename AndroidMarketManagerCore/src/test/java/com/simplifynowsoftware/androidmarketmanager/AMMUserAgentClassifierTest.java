@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Device families that AMMUserAgentClassifier finds in real User-Agents.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @version 1.0.0
+ */
+public class AMMUserAgentClassifierTest {
+    private static final String KINDLE_FIRE =
+            "Mozilla/5.0 (Linux; U; Android 2.3.4; en-us; Kindle Fire Build/GINGERBREAD) "
+            + "AppleWebKit/533.1 (KHTML, like Gecko) Version/4.0 Mobile Safari/533.1";
+    private static final String KINDLE_FIRE_HD =
+            "Mozilla/5.0 (Linux; U; Android 4.0.3; en-us; KFTT Build/IML74K) AppleWebKit/535.19 "
+            + "(KHTML, like Gecko) Silk/3.4 Mobile Safari/535.19 Silk-Accelerated=true";
+    private static final String SILK_DESKTOP =
+            "Mozilla/5.0 (X11; U; Linux x86_64; en-us) AppleWebKit/537.36 (KHTML, like Gecko) "
+            + "Silk/3.68 like Chrome/39.0.2171.93 Safari/537.36";
+    private static final String KINDLE_READER =
+            "Mozilla/5.0 (X11; U; Linux armv7l like Android; en-us) AppleWebKit/531.2+ "
+            + "(KHTML, like Gecko) Version/5.0 Safari/531.2+ Kindle/3.0+";
+    private static final String FIRE_PHONE =
+            "Mozilla/5.0 (Linux; Android 4.2.2; SD4930UR Build/JDQ39) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Version/4.0 Chrome/34.0.0.0 Mobile Safari/537.36";
+    private static final String NOOK_TABLET =
+            "Mozilla/5.0 (Linux; U; Android 2.3.4; en-us; BNTV250A Build/GINGERBREAD) "
+            + "AppleWebKit/533.1 (KHTML, like Gecko) Version/4.0 Safari/533.1";
+    private static final String NOOK_HD =
+            "Mozilla/5.0 (Linux; U; Android 4.0.4; en-us; BNTV400 Build/IMM76L) "
+            + "AppleWebKit/534.30 (KHTML, like Gecko) Version/4.0 Safari/534.30";
+    private static final String GALAXY_TAB_4_NOOK =
+            "Mozilla/5.0 (Linux; Android 4.4.2; SM-T230NU Build/KOT49H) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/34.0.1847.114 Safari/537.36";
+    private static final String GALAXY_S5 =
+            "Mozilla/5.0 (Linux; Android 5.0; SM-G900V Build/LRX21T) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/43.0.2357.93 Mobile Safari/537.36";
+    private static final String SAMSUNG_BROWSER =
+            "Mozilla/5.0 (Linux; Android 9; SAMSUNG SM-G960U) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) SamsungBrowser/10.1 Chrome/71.0.3578.99 Mobile Safari/537.36";
+    private static final String BB10 =
+            "Mozilla/5.0 (BB10; Touch) AppleWebKit/537.10+ (KHTML, like Gecko) "
+            + "Version/10.0.9.2372 Mobile Safari/537.10+";
+    private static final String PLAYBOOK =
+            "Mozilla/5.0 (PlayBook; U; RIM Tablet OS 2.1.0; en-US) AppleWebKit/536.2+ "
+            + "(KHTML, like Gecko) Version/7.2.1.0 Safari/536.2+";
+    private static final String BLACKBERRY_9900 =
+            "Mozilla/5.0 (BlackBerry; U; BlackBerry 9900; en) AppleWebKit/534.11+ "
+            + "(KHTML, like Gecko) Version/7.1.0.346 Mobile Safari/534.11+";
+    private static final String PIXEL =
+            "Mozilla/5.0 (Linux; Android 10; Pixel 3) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/80.0.3987.149 Mobile Safari/537.36";
+    private static final String DESKTOP_FIREFOX =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:109.0) Gecko/20100101 Firefox/115.0";
+
+    @Test
+    public void classifiesAmazonDevices() {
+        final AMMDeviceProfile fire = AMMUserAgentClassifier.classifyUncached(KINDLE_FIRE);
+        assertEquals(AMMDeviceProfile.FLAG_KINDLE_FIRE | AMMDeviceProfile.FLAG_AMAZON, fire.getFlags());
+        assertTrue(fire.isKindleFire());
+
+        for(final String userAgent : new String[] { KINDLE_FIRE_HD, SILK_DESKTOP, KINDLE_READER, FIRE_PHONE }) {
+            assertEquals(userAgent, AMMDeviceProfile.FLAG_AMAZON,
+                    AMMUserAgentClassifier.classifyUncached(userAgent).getFlags());
+        }
+    }
+
+    @Test
+    public void classifiesNookDevices() {
+        final AMMDeviceProfile tablet = AMMUserAgentClassifier.classifyUncached(NOOK_TABLET);
+        assertEquals(AMMDeviceProfile.FLAG_NOOK_CT, tablet.getFlags());
+        assertTrue(tablet.isNook());
+
+        assertEquals(AMMDeviceProfile.FLAG_NOOK_HD,
+                AMMUserAgentClassifier.classifyUncached(NOOK_HD).getFlags());
+
+        final AMMDeviceProfile tab4 = AMMUserAgentClassifier.classifyUncached(GALAXY_TAB_4_NOOK);
+        assertEquals(AMMDeviceProfile.FLAG_NOOK_SAMSUNG | AMMDeviceProfile.FLAG_SAMSUNG, tab4.getFlags());
+        assertFalse(tab4.isNook());
+    }
+
+    @Test
+    public void classifiesSamsungDevices() {
+        assertEquals(AMMDeviceProfile.FLAG_SAMSUNG,
+                AMMUserAgentClassifier.classifyUncached(GALAXY_S5).getFlags());
+        assertEquals(AMMDeviceProfile.FLAG_SAMSUNG,
+                AMMUserAgentClassifier.classifyUncached(SAMSUNG_BROWSER).getFlags());
+    }
+
+    @Test
+    public void classifiesBlackBerryDevices() {
+        for(final String userAgent : new String[] { BB10, PLAYBOOK, BLACKBERRY_9900 }) {
+            assertEquals(userAgent, AMMDeviceProfile.FLAG_BLACKBERRY,
+                    AMMUserAgentClassifier.classifyUncached(userAgent).getFlags());
+        }
+    }
+
+    @Test
+    public void leavesOtherDevicesUnflagged() {
+        assertEquals(0, AMMUserAgentClassifier.classifyUncached(PIXEL).getFlags());
+        assertEquals(0, AMMUserAgentClassifier.classifyUncached(DESKTOP_FIREFOX).getFlags());
+        assertEquals(0, AMMUserAgentClassifier.classifyUncached(null).getFlags());
+        assertEquals(0, AMMUserAgentClassifier.classifyUncached("").getFlags());
+    }
+
+    @Test
+    public void choosesBuiltInMarket() {
+        final AMMUserAgentClassifier classifier = new AMMUserAgentClassifier();
+
+        assertEquals(AMMConstants.MARKET_SELECTOR_AMAZON, classifier.getMarketSelector(KINDLE_FIRE_HD));
+        assertEquals(AMMConstants.MARKET_SELECTOR_BLACKBERRY, classifier.getMarketSelector(BB10));
+        assertEquals(AMMConstants.MARKET_SELECTOR_NONE, classifier.getMarketSelector(GALAXY_S5));
+        assertEquals(AMMConstants.MARKET_SELECTOR_NONE, classifier.getMarketSelector(PIXEL));
+    }
+
+    @Test
+    public void cachesShortUserAgentsOnly() {
+        final AMMUserAgentClassifier classifier = new AMMUserAgentClassifier(16);
+
+        final AMMDeviceProfile first = classifier.classify(KINDLE_FIRE);
+        assertSame(first, classifier.classify(KINDLE_FIRE));
+        assertEquals(1, classifier.getCache().getHitCount());
+
+        final StringBuilder padded = new StringBuilder(BB10);
+        while(padded.length() <= 512) {
+            padded.append(" padding");
+        }
+        assertTrue(classifier.classify(padded.toString()).isBlackBerry());
+        assertEquals(1, classifier.getCache().size());
+    }
+}
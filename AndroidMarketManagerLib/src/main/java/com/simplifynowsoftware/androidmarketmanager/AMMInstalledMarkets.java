@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.util.Log;
+
+/**
+ * AMMInstalledMarkets finds which markets are installed on this device, as
+ *  a bitmask with bit (1 << MARKET_SELECTOR_*) set for each one; the same
+ *  form as AMMShortLink.maskOf.
+ *
+ * The mask is computed on first use, in one pass over the installer packages
+ *  of every registered market, and then kept until a package is added,
+ *  removed or changed.  After that, checking a market is a field read, so
+ *  it can be called for every row of a list.
+ * <br>
+ * BlackBerry World has no installer package; it is counted as installed on
+ *  BlackBerry devices.  The library manifest declares the built-in installer
+ *  packages in a &lt;queries&gt; element, which is merged into the app; a
+ *  custom provider's installer packages must be added to the app's own
+ *  manifest, or they are not visible on Android 11 and later.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMInstalledMarkets {
+    /*
+     * Bit 0 (MARKET_SELECTOR_NONE) is never set, so no real mask is -1
+     */
+    private static final int MASK_UNKNOWN = -1;
+
+    private static volatile int sMask = MASK_UNKNOWN;
+    private static int sGeneration = 0;
+
+    private AMMInstalledMarkets() {
+    }
+
+    /**
+     * Get the installed markets, detecting them on the first call.  The
+     *  first call queries the PackageManager, so make it off the main thread
+     *  if possible.
+     *
+     * @param context  the context to run the check within
+     * @return bitmask of MARKET_SELECTOR_* values
+     */
+    public static int getMask(final Context context) {
+        final int mask = sMask;
+        if(mask != MASK_UNKNOWN) {
+            return mask;
+        }
+
+        AMMMarketResolver.startMonitoring(context);
+
+        final int generation;
+        synchronized(AMMInstalledMarkets.class) {
+            generation = sGeneration;
+        }
+
+        final int detected = detect(context);
+
+        synchronized(AMMInstalledMarkets.class) {
+            // Don't keep an answer from before a package change
+            if(generation == sGeneration) {
+                sMask = detected;
+            }
+        }
+
+        if(AMMConstants.DEBUG_ENABLED) {
+            Log.d("AMMInstalledMarkets", "Installed markets: " + Integer.toBinaryString(detected));
+        }
+
+        return detected;
+    }
+
+    /**
+     * @param context          the context to run the check within
+     * @param marketSelector   numeric identifier for the app market
+     * @return true if the market is installed
+     */
+    public static boolean isInstalled(final Context context, final int marketSelector) {
+        return marketSelector >= 0
+                && marketSelector < Integer.SIZE
+                && (getMask(context) & (1 << marketSelector)) != 0;
+    }
+
+    /**
+     * Forget the mask, so the next call detects again.  Called automatically
+     *  when packages change.
+     */
+    public static void invalidate() {
+        synchronized(AMMInstalledMarkets.class) {
+            sGeneration++;
+            sMask = MASK_UNKNOWN;
+        }
+    }
+
+    private static int detect(final Context context) {
+        final PackageManager pm = context.getPackageManager();
+        int mask = 0;
+
+        for(final String installer : AMMMarketRegistry.getInstallerPackages()) {
+            try {
+                pm.getPackageInfo(installer, 0);
+            } catch(PackageManager.NameNotFoundException e) {
+                continue;
+            }
+
+            final int selector = AMMMarketRegistry.findByInstaller(installer);
+            if(selector != AMMConstants.MARKET_SELECTOR_NONE) {
+                mask |= 1 << selector;
+            }
+        }
+
+        if(AMMUtils.getDeviceProfile().isBlackBerry()) {
+            mask |= 1 << AMMConstants.MARKET_SELECTOR_BLACKBERRY;
+        }
+
+        return mask;
+    }
+}
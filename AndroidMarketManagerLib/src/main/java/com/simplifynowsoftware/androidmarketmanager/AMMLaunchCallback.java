@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+/**
+ * AMMLaunchCallback receives the result of AMMLinks.marketShowAsync.
+ *
+ * Called on the main thread once the launch has been attempted, or skipped
+ *  because the Activity finished first.  Nothing is shown to the user on
+ *  failure, so the callback can offer its own fallback, or call
+ *  AMMMarketMessage.show() for the standard one.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public interface AMMLaunchCallback {
+    /**
+     * @param outcome  one of AMMConstants.LAUNCH_OUTCOME_*
+     * @param link     the prepared link that was launched, which can be
+     *                  launched again; null if it could not be prepared
+     */
+    void onLaunchResult(int outcome, AMMPreparedLink link);
+}
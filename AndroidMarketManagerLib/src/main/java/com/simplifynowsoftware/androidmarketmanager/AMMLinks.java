@@ -16,13 +16,19 @@
 
 package com.simplifynowsoftware.androidmarketmanager;
 
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.Dialog;
-import android.content.ActivityNotFoundException;
 import android.content.Context;
 import android.content.DialogInterface;
-import android.content.Intent;
-import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 /**
@@ -38,6 +44,134 @@ import android.util.Log;
  * @version 1.1.2
  */
 public class AMMLinks {
+    private static volatile AMMLaunchListener sLaunchListener = null;
+    private static volatile AMMClickCounter sClickCounter = null;
+
+    /*
+     * Background work for marketShowAsync.  The default executor and the
+     *  main thread handler are created on first use.
+     */
+    private static volatile Executor sLaunchExecutor = null;
+    private static Handler sMainHandler = null;
+
+    /*
+     * Prepared links by market, mode and app; off (null) unless a size is
+     *  set.  The generation changes whenever the cache is cleared, so a
+     *  link prepared before then is not stored afterwards.  Both are changed
+     *  together under sLinkCacheLock.
+     */
+    private static volatile AMMLruCache<LinkKey, AMMPreparedLink> sLinkCache = null;
+    private static final Object sLinkCacheLock = new Object();
+    private static int sLinkGeneration = 0;
+
+    /**
+     * Register a listener for launch timing and outcomes, such as an
+     *  AMMLaunchStats.  With no listener (the default) nothing is timed.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public static void setLaunchListener(final AMMLaunchListener listener) {
+        sLaunchListener = listener;
+    }
+
+    /**
+     * @return the registered launch listener, or null
+     */
+    public static AMMLaunchListener getLaunchListener() {
+        return sLaunchListener;
+    }
+
+    /**
+     * Count launches of AMMAttributedLinks by campaign and market.  Pair the
+     *  counter with an AMMClickLog to write the counts to disk in batches.
+     *
+     * @param counter  the counter, or null to stop counting
+     */
+    public static void setClickCounter(final AMMClickCounter counter) {
+        sClickCounter = counter;
+    }
+
+    /**
+     * @return the registered click counter, or null
+     */
+    public static AMMClickCounter getClickCounter() {
+        return sClickCounter;
+    }
+
+    /**
+     * Keep up to maxSize prepared links, so repeated links to the same app
+     *  skip building URLs and Intents and checking them.  Useful for screens
+     *  that link to the same few apps over and over.
+     * <br>
+     * Each call gets its own AMMPreparedLink, which shares the cached URLs
+     *  and Intents but carries the caller's log tag and reports -1 for build
+     *  and resolve time, since none was spent; see AMMPreparedLink.isCached.  The
+     *  cache is cleared whenever AMMMarketResolver forgets its answers, such
+     *  as when packages change.
+     *
+     * @param maxSize  number of links to keep, or 0 to turn caching off (the
+     *                  default)
+     */
+    public static void setLinkCacheSize(final int maxSize) {
+        // One segment, so exactly maxSize links are kept
+        sLinkCache = (maxSize > 0) ? new AMMLruCache<LinkKey, AMMPreparedLink>(maxSize, 1) : null;
+    }
+
+    /**
+     * @return the prepared link cache, for its size and hit and miss counts,
+     *  or null if caching is off
+     */
+    public static AMMLruCache<?, AMMPreparedLink> getLinkCache() {
+        return sLinkCache;
+    }
+
+    /*
+     * Drop all cached links; their resolver answers may be out of date
+     */
+    static void invalidateLinkCache() {
+        synchronized(sLinkCacheLock) {
+            sLinkGeneration++;
+
+            final AMMLruCache<LinkKey, AMMPreparedLink> cache = sLinkCache;
+            if(null != cache) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static AMMPreparedLink prepareCached(   final Context context,
+                                                    final AMMStoreLinks links,
+                                                    final int marketSelector,
+                                                    final int linkMode,
+                                                    final String logTag) {
+        final AMMLruCache<LinkKey, AMMPreparedLink> cache = sLinkCache;
+        if(null == cache) {
+            return new AMMPreparedLink(context, links, marketSelector, linkMode, logTag);
+        }
+
+        final LinkKey key = new LinkKey(links, marketSelector, linkMode);
+        final AMMPreparedLink cached = cache.get(key);
+        if(null != cached) {
+            return cached.reuse(logTag);
+        }
+
+        final int generation;
+        synchronized(sLinkCacheLock) {
+            generation = sLinkGeneration;
+        }
+
+        final AMMPreparedLink link = new AMMPreparedLink(context, links, marketSelector, linkMode, logTag);
+
+        synchronized(sLinkCacheLock) {
+            // Not stored if the cache was cleared while preparing
+            if(generation == sLinkGeneration) {
+                cache.put(key, link);
+            }
+        }
+
+        return link;
+    }
+
     /**
      * marketShowAll - link to the developer's page showing all available apps.
      * <br>
@@ -45,7 +179,7 @@ public class AMMLinks {
      *  possible.
      * <br>
      * @param context              the context context to perform this operation within
-     * @param marketSelector       numeric identifier for the app market to link to
+     * @param marketSelector       numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
      * @param googleDeveloperID    developer ID for Google Play
      * @param amazonPackageID      package ID for an app released on the Amazon Appstore by same developer
      * @param bbDeveloperID        developer ID for BlackBerry Appworld
@@ -58,125 +192,55 @@ public class AMMLinks {
                                         final String bbDeveloperID,
                                         final String samsungDeveloperID,
                                         final String developerName) {
-        String marketUrl = "";
+        prepareShowAll( context,
+                        marketSelector,
+                        googleDeveloperID,
+                        amazonPackageID,
+                        bbDeveloperID,
+                        samsungDeveloperID,
+                        developerName).launch(context);
+    }
 
+    /**
+     * prepareShowAll - do all the work for marketShowAll except starting the
+     *  market.  This may be called from a background thread; call launch() on
+     *  the result from the main thread.
+     * <br>
+     * @param context              the context context to perform this operation within
+     * @param marketSelector       numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
+     * @param googleDeveloperID    developer ID for Google Play
+     * @param amazonPackageID      package ID for an app released on the Amazon Appstore by same developer
+     * @param bbDeveloperID        developer ID for BlackBerry Appworld
+     * @param samsungDeveloperID   seller ID for Samsung Apps
+     * @param developerName        name used to search for developer in app markets
+     * @return the prepared link
+     */
+    public static AMMPreparedLink prepareShowAll(   final Context context, 
+                                                    final int marketSelector, 
+                                                    final String googleDeveloperID, 
+                                                    final String amazonPackageID,
+                                                    final String bbDeveloperID,
+                                                    final String samsungDeveloperID,
+                                                    final String developerName) {
         /*
-         * Generate the market URL for Google, Amazon, and BlackBerry.
-         * See AMMConstants for details on URL construction for each market
+         * The current package name stands in for the app; it is used for
+         *  fallbacks when IDs are missing.  See AMMUrls for the rules for
+         *  each market.
          */
-        if(marketSelector == AMMConstants.MARKET_SELECTOR_AMAZON) {
-            if(AMMConstants.AMAZON_USE_HTTP) {
-                marketUrl =   AMMConstants.AMAZON_URL_PREFIX_COMMON;
-            } else {
-                marketUrl =   AMMConstants.AMAZON_AMZ_PREFIX_COMMON;
-            }
+        final AMMAppDescriptor app = new AMMAppDescriptor(  context.getPackageName(),
+                                                            null,
+                                                            null,
+                                                            bbDeveloperID,
+                                                            googleDeveloperID,
+                                                            amazonPackageID,
+                                                            samsungDeveloperID,
+                                                            developerName);
 
-            if(null == amazonPackageID) {
-                /*
-                 *  Fallback - find by searching from the current package name.
-                 *  This will NOT find anything if the app has not been released,
-                 *   even if the base package name is shared by your other apps.
-                 */
-                marketUrl +=  AMMConstants.AMAZON_URL_TYPE_APP + context.getPackageName()
-                            + AMMConstants.AMAZON_URL_POSTFIX_SHOWALL;
-            } else {
-                /*
-                 *  Search for developer's apps
-                 */
-                /* WARNING - some have reported that 'showall' with ASIN is more reliable.
-                 *  That is not yet implemented here, but would be trivial to
-                 *  swap the URL as shown below, and passing the correct ASIN
-                 *  for the amazonPackageID value
-                 */
-//                    marketUrl +=  AMMConstants.AMAZON_URL_TYPE_ASIN + amazonPackageID /* pass ASIN to amazonPackageID */
-//                            + AMMConstants.AMAZON_URL_POSTFIX_SHOWALL;
-
-                marketUrl +=  AMMConstants.AMAZON_URL_TYPE_APP + amazonPackageID
-                        + AMMConstants.AMAZON_URL_POSTFIX_SHOWALL;
-            }
-        } else if(marketSelector == AMMConstants.MARKET_SELECTOR_GOOGLE){
-            if(null == googleDeveloperID) {
-                /*
-                 * Attempt to extract developer name from package name.
-                 * This might not work too well - it is better to set the
-                 *  googleDeveloperID.
-                 */
-                final String packageName = context.getPackageName();
-                final String developerPackage = packageName.substring(0, packageName.lastIndexOf('.'));
-                marketUrl =   AMMConstants.MARKET_URL_SEARCH_PREFIX
-                        + developerPackage;
-            } else {
-                // Search by developer ID
-                marketUrl =   AMMConstants.MARKET_URL_DEVSEARCH_PREFIX
-                            + googleDeveloperID;
-            }
-        } else if(marketSelector == AMMConstants.MARKET_SELECTOR_BLACKBERRY){
-            /*
-             * For BlackBerry Appworld, Google play URLs work, and so do
-             *  the custom BlackBerry URLs.
-             *
-             * History: for a while, the BlackBerry links all broke.  Then
-             *  the web one worked but the appworld:// urls didn't.
-             *  However, the web link opened a web browser instead of the
-             *  Appworld app, so apps couldn't be downloaded.
-             *  Now (January 2015), it appears that either the appworld://
-             *  URL or the HTTP:// URL can be used to the same effect.
-             *  Good thing too, since the Google Play URLs now find a lot
-             *  of garbage.
-             */
-            marketUrl =   AMMConstants.BLACKBERRY_URL_VENDOR_ALL_PREFIX //BLACKBERRY_URL_VENDOR_ALL_WEB_PREFIX
-                        + bbDeveloperID;
-            /*
-             * As of 2014, using any of the Google Play searches brings
-             *  back a mountain of garbage.
-             */
-//                marketUrl = AMMConstants.MARKET_URL_SEARCH_PREFIX 
-//                        + developerName;
-        } else if(marketSelector == AMMConstants.MARKET_SELECTOR_SAMSUNG){
-            /*
-             * Previous Samsung URL to search on the web
-             */
-//                marketUrl =   AMMConstants.SAMSUNG_WEB_SEARCH_PREFIX + "\""
-//                            + developerName + "\"";
-
-            marketUrl = AMMConstants.SAMSUNG_URL_VENDOR_ALL_PREFIX
-                    + samsungDeveloperID;
-        }
-
-        if(marketUrl.equals("")) {
-            /*
-             * Failed to generate a URL for the selected market.  Tell user
-             *  how to find it themselves.
-             */
-            showMarketMessage( context, developerName );
-        } else {
-            if(AMMConstants.DEBUG_ENABLED) {
-                Log.d("marketShowAll", "Launching URL: " + marketUrl);
-            }
-
-            final Uri uri = Uri.parse(marketUrl);
-            final Intent intent = new Intent(Intent.ACTION_VIEW, uri);
-
-            /*
-             * No history.  If user leaves app and returns, don't remember
-             *  being in the market
-             */
-            intent.addFlags(Intent.FLAG_ACTIVITY_NO_HISTORY);
-
-            try {
-                context.startActivity(intent);
-            } catch (ActivityNotFoundException e) {
-                /*
-                 * Failed to load the URL for the selected market.  Tell
-                 *  user how to find it themselves.
-                 */
-                showMarketMessage( context, developerName );
-
-                if(AMMConstants.DEBUG_ENABLED) {
-                    Log.e("marketShowAll", "Can't launch intent for URL: " + marketUrl, e);
-                }
-            }
-        }
+        return prepareCached(   context,
+                                app,
+                                AMMMarketDetector.resolve(context, marketSelector),
+                                AMMConstants.LINK_MODE_ALL,
+                                "marketShowAll");
     }
     
 
@@ -200,7 +264,7 @@ public class AMMLinks {
      *  cause failure (the market message) if that market is selected.
      *  
      * @param context          The context context to perform this operation within
-     * @param marketSelector   Numeric identifier for the app market to link to
+     * @param marketSelector   Numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
      * @param appPackage       Full package name for Google and Amazon (e.g. com.x.x)
      * @param nookEAN          Numeric ID for app on Nook Store, no longer used
      * @param bbID             Numeric ID for app on BlackBerry Appworld
@@ -214,96 +278,227 @@ public class AMMLinks {
                                         final String bbID,
                                         final String bbVendorID,
                                         final String developerName) {
-        String marketUrl = "";
-        
+        prepareShowApp( context,
+                        marketSelector,
+                        appPackage,
+                        nookEAN,
+                        bbID,
+                        bbVendorID,
+                        developerName).launch(context);
+    }
+
+    /**
+     * prepareShowApp - do all the work for marketShowApp except starting the
+     *  market.  This may be called from a background thread; call launch() on
+     *  the result from the main thread.
+     *  
+     * @param context          The context context to perform this operation within
+     * @param marketSelector   Numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
+     * @param appPackage       Full package name for Google and Amazon (e.g. com.x.x)
+     * @param nookEAN          Numeric ID for app on Nook Store, no longer used
+     * @param bbID             Numeric ID for app on BlackBerry Appworld
+     * @param bbVendorID       Numeric ID for vendor on BlackBerry Appworld
+     * @param developerName    Name used to search for developer in app markets
+     * @return the prepared link
+     */
+    public static AMMPreparedLink prepareShowApp(   final Context context, 
+                                                    final int marketSelector, 
+                                                    final String appPackage, 
+                                                    final String nookEAN, 
+                                                    final String bbID,
+                                                    final String bbVendorID,
+                                                    final String developerName) {
         /*
-         * Generate the market URL for Google, Amazon, and BlackBerry.
-         * See AMMConstants for details on URL construction for each market.
+         * See AMMUrls for the rules for each market.
          * If any required values are null, the error message will be displayed
          */
-        if(marketSelector == AMMConstants.MARKET_SELECTOR_AMAZON & null != appPackage) {
-            if(AMMConstants.AMAZON_USE_HTTP) {
-                marketUrl =   AMMConstants.AMAZON_URL_PREFIX_COMMON;
-            } else {
-                marketUrl =   AMMConstants.AMAZON_AMZ_PREFIX_COMMON;
+        final AMMAppDescriptor app = new AMMAppDescriptor(  appPackage,
+                                                            nookEAN,
+                                                            bbID,
+                                                            bbVendorID,
+                                                            null,
+                                                            null,
+                                                            null,
+                                                            developerName);
+
+        return prepareCached(   context,
+                                app,
+                                AMMMarketDetector.resolve(context, marketSelector),
+                                AMMConstants.LINK_MODE_APP,
+                                "marketShowApp");
+    }
+    
+    /**
+     * marketShow - link to a market using URLs supplied by the caller, such
+     *  as a class generated from AMMGenerateLinks, so no URLs are built.
+     *
+     * @param context          The context context to perform this operation within
+     * @param links            the app's market URLs
+     * @param marketSelector   Numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     */
+    public static void marketShow(  final Context context,
+                                    final AMMStoreLinks links,
+                                    final int marketSelector,
+                                    final int linkMode) {
+        prepare(context, links, marketSelector, linkMode).launch(context);
+    }
+
+    /**
+     * prepare - do all the work for marketShow except starting the market.
+     *  This may be called from a background thread; call launch() on the
+     *  result from the main thread.
+     *
+     * @param context          The context context to perform this operation within
+     * @param links            the app's market URLs
+     * @param marketSelector   Numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @return the prepared link
+     */
+    public static AMMPreparedLink prepare(  final Context context,
+                                            final AMMStoreLinks links,
+                                            final int marketSelector,
+                                            final int linkMode) {
+        return prepareCached(   context,
+                                links,
+                                AMMMarketDetector.resolve(context, marketSelector),
+                                linkMode,
+                                (linkMode == AMMConstants.LINK_MODE_ALL) ? "marketShowAll" : "marketShowApp");
+    }
+
+    /**
+     * marketShowAsync - link to a market without blocking the calling thread.
+     * <br>
+     * The URLs are built and checked against the installed apps on a
+     *  background thread; only startActivity runs on the main thread.  With
+     *  a callback, no market message is shown: the outcome goes to the
+     *  callback, which can show its own fallback UI.
+     * <br>
+     * The context is held weakly while the link is prepared.  If it is an
+     *  Activity that has finished or been collected by then, nothing is
+     *  started and the callback gets LAUNCH_OUTCOME_SKIPPED.  Other contexts,
+     *  such as a Service, are used as with marketShow.
+     * <br>
+     * Pass an AMMAppDescriptor for the app's IDs, or a class generated from
+     *  AMMGenerateLinks.
+     *
+     * @param context          The context context to perform this operation within
+     * @param links            the app's market URLs
+     * @param marketSelector   Numeric identifier for the app market to link to, or MARKET_SELECTOR_AUTO
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @param callback         receives the outcome on the main thread; if null,
+     *                          the market message is shown on failure as
+     *                          with marketShow
+     */
+    public static void marketShowAsync( final Context context,
+                                        final AMMStoreLinks links,
+                                        final int marketSelector,
+                                        final int linkMode,
+                                        final AMMLaunchCallback callback) {
+        final Handler mainHandler = getMainHandler();
+        final Context appContext = context.getApplicationContext();
+        final WeakReference<Context> host = new WeakReference<Context>(context);
+
+        getLaunchExecutor().execute(new Runnable() {
+            public void run() {
+                AMMPreparedLink prepared = null;
+                try {
+                    prepared = prepare(appContext, links, marketSelector, linkMode);
+                } catch(RuntimeException e) {
+                    // Reported to the callback as a failure
+                    if(AMMConstants.DEBUG_ENABLED) {
+                        Log.e("marketShowAsync", "Can't prepare link", e);
+                    }
+                }
+
+                final AMMPreparedLink link = prepared;
+                mainHandler.post(new Runnable() {
+                    public void run() {
+                        final Context current = host.get();
+                        if(null == current || (current instanceof Activity && ((Activity) current).isFinishing())) {
+                            if(null != callback) {
+                                callback.onLaunchResult(AMMConstants.LAUNCH_OUTCOME_SKIPPED, link);
+                            }
+                            return;
+                        }
+
+                        final int outcome = (null == link)
+                                ? AMMConstants.LAUNCH_OUTCOME_FAILED
+                                : link.start(current);
+
+                        if(null != callback) {
+                            callback.onLaunchResult(outcome, link);
+                        } else if(outcome == AMMConstants.LAUNCH_OUTCOME_FAILED) {
+                            showMarketMessage(current, links.getDeveloperName());
+                        }
+                    }
+                });
             }
-            
-            marketUrl +=      AMMConstants.AMAZON_URL_TYPE_APP 
-                            + appPackage;
-        } else if(marketSelector == AMMConstants.MARKET_SELECTOR_GOOGLE & null != appPackage){
-            marketUrl =   AMMConstants.MARKET_URL_APP_PREFIX 
-                        + appPackage;
-        } else if(marketSelector == AMMConstants.MARKET_SELECTOR_BLACKBERRY){
-            /*
-             * Until BB linking works again, reverting to Google Play linking
-             * Note that if your package name is different in BlackBerry, 
-             *  you'll have to ensure the proper data is passed in for the
-             *  packageName for that build.
-             * January 2015 - it appears that the appworld:// URLs now work,
-             *  and are needed for 'find all'.  They are not needed here for a
-             *  single app though, so leaving as-is unless there's a problem.
-             */
-            if(null != appPackage){
-                marketUrl =   AMMConstants.MARKET_URL_APP_PREFIX 
-                        + appPackage;
+        });
+    }
+
+    /**
+     * Use a different executor for the background work of marketShowAsync,
+     *  such as the app's own thread pool.
+     *
+     * @param executor the executor, or null for the default single background
+     *                  thread
+     */
+    public static void setLaunchExecutor(final Executor executor) {
+        sLaunchExecutor = executor;
+    }
+
+    private static Executor getLaunchExecutor() {
+        Executor executor = sLaunchExecutor;
+
+        if(null == executor) {
+            synchronized(AMMLinks.class) {
+                executor = sLaunchExecutor;
+                if(null == executor) {
+                    executor = newLaunchExecutor();
+                    sLaunchExecutor = executor;
+                }
             }
-            // Original logic to restore later...
-//            // Attempt to use bbID, then fall back to bbVendorID
-//            if(null == bbID) {
-//                marketUrl = AMMConstants.BLACKBERRY_URL_VENDOR_ALL_WEB_PREFIX
-//                                    + bbVendorID;
-//            } else {
-//                marketUrl = AMMConstants.BLACKBERRY_URL_PREFIX + bbID;
-//            }
-        } else if(marketSelector == AMMConstants.MARKET_SELECTOR_SAMSUNG & null != appPackage){
-            marketUrl =   AMMConstants.SAMSUNG_URL_PREFIX 
-                        + appPackage;
         }
-        
-        if(marketUrl.equals("")) {
-            /* 
-             * Failed to generate a URL for the selected market.  Tell user
-             *  how to find it themselves.
-             */
-            showMarketMessage( context, developerName );
-        } else {
-            final Uri uri = Uri.parse(marketUrl);
-            final Intent intent = new Intent(Intent.ACTION_VIEW, uri);
-
-            /* 
-             * No history.  If user leaves app and returns, don't remember
-             *  being in the market 
-             */
-            intent.addFlags(Intent.FLAG_ACTIVITY_NO_HISTORY);
-            
-            try {
-                context.startActivity(intent);
-            } catch (ActivityNotFoundException e) {
-                /* 
-                 * Failed to load the URL for the selected market.  Tell 
-                 *  user how to find it themselves.
-                 */
-                showMarketMessage( context, developerName );
-                
-                if(AMMConstants.DEBUG_ENABLED) {
-                    Log.e("marketShowApp", "Can't launch intent for URL: " + marketUrl, e);
-                }
+
+        return executor;
+    }
+
+    /*
+     * One low-priority daemon thread; launches are rare and short
+     */
+    private static ExecutorService newLaunchExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "AMMLinks");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
             }
+        });
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if(null == sMainHandler) {
+            sMainHandler = new Handler(Looper.getMainLooper());
         }
+        return sMainHandler;
     }
-    
+
     /**
      * Generate error message for user, showing the developer's name to search for
      */
     public static String generateMarketMessage(final Context context, final String developerName) {
-        return context.getString(R.string.market_not_found_message_prefix) + developerName + context.getString(R.string.market_not_found_message_postfix);
+        return AMMUrls.marketMessage(   context.getString(R.string.market_not_found_message_prefix),
+                                        developerName,
+                                        context.getString(R.string.market_not_found_message_postfix));
     }
     
     /**
      * showOkAlert shows a simple pop-up dialog with a single button to dismiss it.
      * <br>
      * If the user rotates the screen, this will be leaked unless the reference
-     *  is managed.
+     *  is managed.  AMMMarketMessage manages a single reusable dialog instead.
      * @param context       The context context to perform this operation within
      * @param developerName The developer name to be displayed in the dialog box
      * @return              The Dialog object for tracking
@@ -328,4 +523,36 @@ public class AMMLinks {
         
         return alert;
     }
+
+    /*
+     * Cache key: the resolved market, link mode and app IDs
+     */
+    private static final class LinkKey {
+        private final AMMStoreLinks mLinks;
+        private final int mMarketSelector;
+        private final int mLinkMode;
+
+        LinkKey(final AMMStoreLinks links, final int marketSelector, final int linkMode) {
+            mLinks = links;
+            mMarketSelector = marketSelector;
+            mLinkMode = linkMode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(!(o instanceof LinkKey)) {
+                return false;
+            }
+
+            final LinkKey other = (LinkKey) o;
+            return  mMarketSelector == other.mMarketSelector &&
+                    mLinkMode == other.mLinkMode &&
+                    mLinks.equals(other.mLinks);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * mLinks.hashCode() + mMarketSelector) * 31 + mLinkMode;
+        }
+    }
 }
\ No newline at end of file
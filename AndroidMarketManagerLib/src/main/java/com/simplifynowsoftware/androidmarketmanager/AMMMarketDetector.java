@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+/**
+ * AMMMarketDetector works out which market this install should link to, for
+ *  use with AMMConstants.MARKET_SELECTOR_AUTO.
+ *
+ * The decision is made on first use and reused for the rest of the process.
+ *  See AMMMarketSelection for the rules.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMMarketDetector {
+    private static final int SELECTOR_UNKNOWN = Integer.MIN_VALUE;
+
+    /*
+     * PackageManager.getInstallerPackageName() was added in API 5
+     */
+    private static final int SDK_INSTALLER_PACKAGE = 5;
+
+    private static volatile int sSelector = SELECTOR_UNKNOWN;
+
+    /**
+     * Get the market for this install, computing it on the first call
+     *
+     * @param context  the context to run the check within
+     * @return one of the MARKET_SELECTOR_* values, never MARKET_SELECTOR_AUTO
+     */
+    public static int getMarketSelector(final Context context) {
+        int selector = sSelector;
+
+        if(selector == SELECTOR_UNKNOWN) {
+            /*
+             * Two threads may both compute this; they will get the same answer
+             */
+            selector = detect(context);
+            sSelector = selector;
+
+            if(AMMConstants.DEBUG_ENABLED) {
+                Log.d("AMMMarketDetector", "Selected market: " + selector);
+            }
+        }
+
+        return selector;
+    }
+
+    /**
+     * Resolve MARKET_SELECTOR_AUTO, passing any other value through
+     *
+     * @param context          the context to run the check within
+     * @param marketSelector   the selector passed by the caller
+     * @return a concrete MARKET_SELECTOR_* value
+     */
+    public static int resolve(final Context context, final int marketSelector) {
+        if(marketSelector == AMMConstants.MARKET_SELECTOR_AUTO) {
+            return getMarketSelector(context);
+        }
+
+        return marketSelector;
+    }
+
+    /**
+     * Forget the decision, so the next call detects again
+     */
+    public static void reset() {
+        sSelector = SELECTOR_UNKNOWN;
+    }
+
+    private static int detect(final Context context) {
+        final String packageName = context.getPackageName();
+
+        String installer = null;
+        if(Build.VERSION.SDK_INT >= SDK_INSTALLER_PACKAGE) {
+            try {
+                installer = context.getPackageManager().getInstallerPackageName(packageName);
+            } catch (IllegalArgumentException e) {
+                // Package not found; treat as unknown installer
+            }
+        }
+
+        return AMMMarketSelection.choose(   installer,
+                                            AMMUtils.getDeviceProfile(),
+                                            canLaunch(context, AMMConstants.MARKET_SELECTOR_GOOGLE, packageName),
+                                            canLaunch(context, AMMConstants.MARKET_SELECTOR_AMAZON, packageName),
+                                            canLaunch(context, AMMConstants.MARKET_SELECTOR_SAMSUNG, packageName));
+    }
+
+    /*
+     * Check if the market could show this app
+     */
+    private static boolean canLaunch(final Context context, final int marketSelector, final String packageName) {
+        final String url = AMMUrls.showAppUrl(marketSelector, packageName, null, null, null);
+
+        return null != url
+                && AMMMarketResolver.canHandle(context, new Intent(Intent.ACTION_VIEW, Uri.parse(url)));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.lang.ref.WeakReference;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.app.Application;
+import android.content.DialogInterface;
+import android.os.Build;
+import android.os.Bundle;
+
+/**
+ * AMMMarketMessage is a reusable "market not found" message for one Activity.
+ *
+ * Unlike AMMLinks.showMarketMessage, which builds a new dialog every time,
+ *  this creates a single dialog for its host and reuses it for every failed
+ *  launch.  Repeated taps update the one dialog rather than stacking more.
+ * <br>
+ * The host is only referenced weakly.  The dialog is dismissed and dropped
+ *  when the host is destroyed: automatically on API 14 and later, otherwise
+ *  by calling release() from the Activity's onDestroy().
+ * <br>
+ * Create it in onCreate() and pass it to AMMPreparedLink.launch().  All
+ *  methods must be called on the main thread.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMMarketMessage {
+    /*
+     * Application.ActivityLifecycleCallbacks was added in API 14
+     */
+    private static final int SDK_LIFECYCLE_CALLBACKS = 14;
+
+    private final WeakReference<Activity> mHost;
+    private final Object mLifecycleCallbacks;
+
+    private AlertDialog mDialog;
+    private boolean mReleased = false;
+
+    /**
+     * @param host the Activity to show the message in
+     */
+    public AMMMarketMessage(final Activity host) {
+        mHost = new WeakReference<Activity>(host);
+
+        if(Build.VERSION.SDK_INT >= SDK_LIFECYCLE_CALLBACKS) {
+            mLifecycleCallbacks = ReleaseOnDestroy.register(host, this);
+        } else {
+            mLifecycleCallbacks = null;
+        }
+    }
+
+    /**
+     * Show the message for the given developer, reusing the dialog if it
+     *  already exists.  Does nothing once the host is gone or released.
+     *
+     * @param developerName    name used to search for developer in app markets
+     */
+    public void show(final String developerName) {
+        final Activity host = mHost.get();
+
+        if(mReleased || null == host || host.isFinishing()) {
+            return;
+        }
+
+        final String message = AMMLinks.generateMarketMessage(host, developerName);
+
+        if(null == mDialog) {
+            final AlertDialog.Builder alt_bld = new AlertDialog.Builder(host);
+            alt_bld.setCancelable(false);
+
+            alt_bld.setMessage(message);
+
+            alt_bld.setPositiveButton(host.getString(android.R.string.ok), new DialogInterface.OnClickListener() {
+                public void onClick(final DialogInterface dialog, final int id) {
+                    // Action for 'OK' Button
+                    dialog.dismiss();
+                }
+            });
+
+            mDialog = alt_bld.create();
+        } else {
+            mDialog.setMessage(message);
+        }
+
+        if(!mDialog.isShowing()) {
+            mDialog.show();
+        }
+    }
+
+    /**
+     * Dismiss and drop the dialog.  Call from onDestroy() if running on
+     *  devices older than API 14; later versions do this automatically.
+     */
+    public void release() {
+        if(mReleased) {
+            return;
+        }
+        mReleased = true;
+
+        if(null != mDialog) {
+            if(mDialog.isShowing()) {
+                mDialog.dismiss();
+            }
+            mDialog = null;
+        }
+
+        final Activity host = mHost.get();
+        if(null != mLifecycleCallbacks && null != host) {
+            ReleaseOnDestroy.unregister(host, mLifecycleCallbacks);
+        }
+        mHost.clear();
+    }
+
+    /**
+     * @return true once the host has been destroyed or release() was called
+     */
+    public boolean isReleased() {
+        return mReleased || null == mHost.get();
+    }
+
+    /*
+     * Only loaded on API 14 and later.  Holds the message weakly, so an
+     *  unreleased message does not stay reachable from the Application.
+     */
+    private static class ReleaseOnDestroy implements Application.ActivityLifecycleCallbacks {
+        private final WeakReference<Activity> mHost;
+        private final WeakReference<AMMMarketMessage> mMessage;
+
+        private ReleaseOnDestroy(final Activity host, final AMMMarketMessage message) {
+            mHost = new WeakReference<Activity>(host);
+            mMessage = new WeakReference<AMMMarketMessage>(message);
+        }
+
+        static Object register(final Activity host, final AMMMarketMessage message) {
+            final ReleaseOnDestroy callbacks = new ReleaseOnDestroy(host, message);
+            host.getApplication().registerActivityLifecycleCallbacks(callbacks);
+            return callbacks;
+        }
+
+        static void unregister(final Activity host, final Object callbacks) {
+            host.getApplication().unregisterActivityLifecycleCallbacks((ReleaseOnDestroy)callbacks);
+        }
+
+        public void onActivityDestroyed(final Activity activity) {
+            if(activity != mHost.get()) {
+                return;
+            }
+
+            final AMMMarketMessage message = mMessage.get();
+            if(null != message) {
+                message.release();
+            } else {
+                unregister(activity, this);
+            }
+        }
+
+        public void onActivityCreated(final Activity activity, final Bundle savedInstanceState) {}
+        public void onActivityStarted(final Activity activity) {}
+        public void onActivityResumed(final Activity activity) {}
+        public void onActivityPaused(final Activity activity) {}
+        public void onActivityStopped(final Activity activity) {}
+        public void onActivitySaveInstanceState(final Activity activity, final Bundle outState) {}
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * AMMMarketResolver answers whether any installed app can handle a market
+ *  URL scheme (market://, amzn://, appworld://, samsungapps://, ...).
+ *
+ * Each scheme is checked with the PackageManager the first time it is used,
+ *  and the answer is kept for the life of the process.  The cache is cleared
+ *  whenever a package is added, removed or changed, since that may install
+ *  or remove a market.
+ * <br>
+ * This lets launches go straight to a URL that is known to work, rather than
+ *  finding out through ActivityNotFoundException.
+ * <br>
+ * Answers are also saved in an AMMSchemeStore in the app's files directory,
+ *  and loaded in the background when the resolver is first used, so after a
+ *  cold start known-failing schemes are skipped without asking again.  Off
+ *  the main thread, a scheme that is not known yet waits up to
+ *  LOAD_WAIT_MILLIS for that first load before the PackageManager is asked.
+ *  The main thread never waits: until the load is done, a scheme it has not
+ *  seen is checked directly.  Call loadPersisted() from
+ *  Application.onCreate() so the answers are usually there by the first tap.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMMarketResolver {
+    /*
+     * From Android 11 (API 30) on, package visibility rules hide other apps
+     *  unless the manifest declares them.  The library manifest declares the
+     *  built-in schemes, but not those of custom providers, so an empty query
+     *  only means "unknown"; the launch is attempted and a failure is cached
+     *  instead.
+     */
+    private static final int SDK_PACKAGE_VISIBILITY = 30;
+
+    private static final ConcurrentHashMap<String, Boolean> sSchemes = new ConcurrentHashMap<String, Boolean>();
+
+    private static volatile boolean sMonitoring = false;
+
+    private static final String STORE_FILE_NAME = "amm_schemes.bin";
+
+    /*
+     * Longest a background lookup waits for the saved answers.  The file
+     *  holds a few small records, so loading it normally takes well under
+     *  this.
+     */
+    public static final long LOAD_WAIT_MILLIS = 50;
+
+    /*
+     * Set once; all store access runs on the single store thread.  The latch
+     *  opens when the first load has finished, whether or not it succeeded.
+     */
+    private static AMMSchemeStore sStore = null;
+    private static ExecutorService sStoreExecutor = null;
+    private static CountDownLatch sLoaded = null;
+
+    /**
+     * Check if an activity is available to handle the intent.  The answer
+     *  is cached by the scheme of the intent's data URI.
+     *
+     * @param context  the context to run the check within
+     * @param intent   a view intent for a market URL
+     * @return true if an installed app can handle the intent
+     */
+    public static boolean canHandle(final Context context, final Intent intent) {
+        final String scheme = intent.getScheme();
+
+        if(null == scheme) {
+            return isResolvable(context, intent);
+        }
+
+        Boolean handled = sSchemes.get(scheme);
+
+        if(null == handled) {
+            awaitPersisted(startLoad(context));
+            handled = sSchemes.get(scheme);
+        }
+
+        if(null == handled) {
+            handled = Boolean.valueOf(isResolvable(context, intent));
+            sSchemes.put(scheme, handled);
+            persist(scheme, handled.booleanValue());
+
+            if(AMMConstants.DEBUG_ENABLED) {
+                Log.d("AMMMarketResolver", "Scheme " + scheme + " handled: " + handled);
+            }
+        }
+
+        return handled.booleanValue();
+    }
+
+    /**
+     * Record that launching a scheme failed even though it was expected to
+     *  work, so later launches skip it until the packages change.
+     *
+     * @param scheme   the URL scheme that could not be launched
+     */
+    public static void markUnavailable(final String scheme) {
+        if(null != scheme) {
+            sSchemes.put(scheme, Boolean.FALSE);
+            persist(scheme, false);
+            AMMLinks.invalidateLinkCache();
+        }
+    }
+
+    /**
+     * Forget all cached and saved answers, and the links AMMLinks prepared
+     *  with them.  Called automatically when packages change.
+     */
+    public static void invalidate() {
+        sSchemes.clear();
+        AMMLinks.invalidateLinkCache();
+
+        final ExecutorService executor = getStoreExecutor();
+        if(null != executor) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        sStore.clear();
+                        // A load that was still running may have added old answers
+                        sSchemes.clear();
+                        AMMLinks.invalidateLinkCache();
+                    } catch(IOException e) {
+                        logStoreError(e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Start loading the saved answers on a background thread.  Answers found
+     *  by this process take priority over saved ones.  Only the first call
+     *  has any effect.
+     *
+     * @param context  any context; only the application context is kept
+     */
+    public static void loadPersisted(final Context context) {
+        startLoad(context);
+    }
+
+    /*
+     * Returns the latch for the first load, starting it if needed
+     */
+    private static CountDownLatch startLoad(final Context context) {
+        startMonitoring(context);
+
+        final CountDownLatch loaded;
+        synchronized(AMMMarketResolver.class) {
+            if(null != sStore) {
+                return sLoaded;
+            }
+
+            sStore = new AMMSchemeStore(new File(context.getApplicationContext().getFilesDir(), STORE_FILE_NAME));
+            sStoreExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "AMMMarketResolver");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+            sLoaded = new CountDownLatch(1);
+            loaded = sLoaded;
+        }
+
+        sStoreExecutor.execute(new Runnable() {
+            public void run() {
+                try {
+                    final Map<String, Boolean> saved = sStore.load();
+                    for(final Map.Entry<String, Boolean> entry : saved.entrySet()) {
+                        sSchemes.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+
+                    if(sStore.needsCompaction()) {
+                        sStore.compact();
+                    }
+
+                    if(AMMConstants.DEBUG_ENABLED) {
+                        Log.d("AMMMarketResolver", "Loaded saved schemes: " + saved);
+                    }
+                } catch(IOException e) {
+                    logStoreError(e);
+                } finally {
+                    loaded.countDown();
+                }
+            }
+        });
+
+        return loaded;
+    }
+
+    /*
+     * Give the first load a short time to finish, so a cold start uses the
+     *  saved answer rather than asking the PackageManager again.  Not on the
+     *  main thread, where the wait would hold up the tap that launched.
+     */
+    private static void awaitPersisted(final CountDownLatch loaded) {
+        if(Looper.myLooper() == Looper.getMainLooper()) {
+            return;
+        }
+
+        try {
+            loaded.await(LOAD_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized ExecutorService getStoreExecutor() {
+        return sStoreExecutor;
+    }
+
+    /*
+     * Save an answer in the background; the store skips unchanged answers
+     */
+    private static void persist(final String scheme, final boolean available) {
+        final ExecutorService executor = getStoreExecutor();
+        if(null == executor) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    sStore.put(scheme, available);
+
+                    if(sStore.needsCompaction()) {
+                        sStore.compact();
+                    }
+                } catch(IOException e) {
+                    logStoreError(e);
+                }
+            }
+        });
+    }
+
+    private static void logStoreError(final IOException e) {
+        if(AMMConstants.DEBUG_ENABLED) {
+            Log.e("AMMMarketResolver", "Can't update saved schemes", e);
+        }
+    }
+
+    /*
+     * Ask the PackageManager directly
+     */
+    private static boolean isResolvable(final Context context, final Intent intent) {
+        final PackageManager pm = context.getPackageManager();
+
+        return !pm.queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY).isEmpty()
+                || Build.VERSION.SDK_INT >= SDK_PACKAGE_VISIBILITY;
+    }
+
+    /*
+     * Watch for installs and removals, once per process.  The receiver is
+     *  registered on the application context so no Activity is retained.
+     *  It also serves AMMInstalledMarkets.
+     */
+    static void startMonitoring(final Context context) {
+        if(sMonitoring) {
+            return;
+        }
+
+        synchronized(AMMMarketResolver.class) {
+            if(!sMonitoring) {
+                final IntentFilter filter = new IntentFilter();
+                filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+                filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+                filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+                filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+                filter.addDataScheme("package");
+
+                context.getApplicationContext().registerReceiver(new PackageReceiver(), filter);
+                sMonitoring = true;
+            }
+        }
+    }
+
+    private static class PackageReceiver extends BroadcastReceiver {
+        @Override
+        public void onReceive(final Context context, final Intent intent) {
+            invalidate();
+            AMMInstalledMarkets.invalidate();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager;
+
+import android.content.ActivityNotFoundException;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * AMMPreparedLink is a market link with all of the work done ahead of time:
+ *  the URLs are built, the Intents are created, and each has been checked
+ *  with AMMMarketResolver.
+ *
+ * The URLs follow the market's AMMFallbackPlan: the native market URL first,
+ *  then the web URL.  Only the steps that an installed app can handle are
+ *  kept, so launch() normally succeeds on its first startActivity call.
+ *
+ * Create it with AMMLinks.prepareShowApp, prepareShowAll or prepare, ideally
+ *  off the main thread when the screen opens.  The click handler then only
+ *  needs to call launch().
+ * <br>
+ * A prepared link is immutable and may be shared: its Intents are never
+ *  handed out or started directly, only copies of them.  Links from the
+ *  AMMLinks link cache share these with the cached link, but report no
+ *  build or resolve time.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMPreparedLink {
+    private static final Intent[] NO_INTENTS = new Intent[0];
+
+    private final String mUrl;
+    private final Intent[] mIntents;
+    private final boolean mFallback;
+    private final String mDeveloperName;
+    private final String mLogTag;
+    private final String mCampaign;
+    private final int mMarketSelector;
+    private final int mLinkMode;
+    private final boolean mCached;
+
+    /*
+     * Only measured when a launch listener is registered or AMMTrace is on;
+     *  0 for a link taken from the cache
+     */
+    private final long mBuildNanos;
+    private final long mResolveNanos;
+
+    /*
+     * Does the preparation work.  Only the application context is used, so
+     *  this is safe to run on a background thread.
+     */
+    AMMPreparedLink(final Context context,
+                    final AMMStoreLinks links,
+                    final int marketSelector,
+                    final int linkMode,
+                    final String logTag) {
+        final Context appContext = context.getApplicationContext();
+        final AMMFallbackPlan plan = AMMFallbackPlan.get(marketSelector, linkMode);
+        final int steps = plan.getStepCount();
+        final boolean timed = (null != AMMLinks.getLaunchListener()) || AMMTrace.isEnabled();
+
+        long buildNanos = 0;
+        long resolveNanos = 0;
+        long mark = timed ? System.nanoTime() : 0;
+
+        Intent[] intents = NO_INTENTS;
+        String primaryUrl = null;
+        String launchUrl = null;
+        boolean fallback = false;
+        int count = 0;
+
+        for(int step = 0; step < steps; step++) {
+            final String marketUrl = links.getUrl(marketSelector, linkMode, plan.getStyle(step));
+            if(null == marketUrl) {
+                continue;
+            }
+            if(null == primaryUrl) {
+                primaryUrl = marketUrl;
+            }
+
+            final Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse(marketUrl));
+
+            /*
+             * No history.  If user leaves app and returns, don't remember
+             *  being in the market
+             */
+            intent.addFlags(Intent.FLAG_ACTIVITY_NO_HISTORY);
+
+            if(timed) {
+                final long now = System.nanoTime();
+                buildNanos += now - mark;
+                mark = now;
+            }
+
+            final boolean handled = AMMMarketResolver.canHandle(appContext, intent);
+
+            if(timed) {
+                final long now = System.nanoTime();
+                resolveNanos += now - mark;
+                mark = now;
+            }
+
+            if(handled) {
+                if(0 == count) {
+                    intents = new Intent[steps - step];
+                    launchUrl = marketUrl;
+                    fallback = (marketUrl != primaryUrl);
+                }
+                intents[count++] = intent;
+            }
+        }
+
+        if(count < intents.length) {
+            final Intent[] trimmed = new Intent[count];
+            System.arraycopy(intents, 0, trimmed, 0, count);
+            intents = trimmed;
+        }
+
+        mIntents = intents;
+        mUrl = (null == launchUrl) ? primaryUrl : launchUrl;
+        mFallback = fallback;
+        mDeveloperName = links.getDeveloperName();
+        mLogTag = logTag;
+        mCampaign = (links instanceof AMMAttributedLinks)
+                ? ((AMMAttributedLinks) links).getAttribution().getCampaign()
+                : null;
+        mMarketSelector = marketSelector;
+        mLinkMode = linkMode;
+        mCached = false;
+        mBuildNanos = buildNanos;
+        mResolveNanos = resolveNanos;
+
+        AMMTrace.record(AMMTrace.EVENT_PREPARE, marketSelector, linkMode, count, buildNanos + resolveNanos);
+    }
+
+    /*
+     * A cache hit: shares the prepared Intents, which are never changed
+     */
+    private AMMPreparedLink(final AMMPreparedLink link, final String logTag) {
+        mUrl = link.mUrl;
+        mIntents = link.mIntents;
+        mFallback = link.mFallback;
+        mDeveloperName = link.mDeveloperName;
+        mLogTag = logTag;
+        mCampaign = link.mCampaign;
+        mMarketSelector = link.mMarketSelector;
+        mLinkMode = link.mLinkMode;
+        mCached = true;
+        mBuildNanos = -1;
+        mResolveNanos = -1;
+    }
+
+    /*
+     * The link to hand out for a cache hit on this one
+     */
+    AMMPreparedLink reuse(final String logTag) {
+        return new AMMPreparedLink(this, logTag);
+    }
+
+    /**
+     * Open the market, or show the market message if there is no URL or
+     *  nothing installed can handle it.  Call on the main thread.
+     *
+     * @param context  the context to launch from, normally the Activity
+     * @return true if the market was started
+     */
+    public boolean launch(final Context context) {
+        return launch(context, null);
+    }
+
+    /**
+     * Open the market, or show the given reusable message if there is no URL
+     *  or nothing installed can handle it.  Call on the main thread.
+     *
+     * @param context  the context to launch from, normally the Activity
+     * @param message  the message to show on failure; if null, a new dialog
+     *                  is created as with AMMLinks.showMarketMessage
+     * @return true if the market was started
+     */
+    public boolean launch(final Context context, final AMMMarketMessage message) {
+        final boolean launched = (start(context) != AMMConstants.LAUNCH_OUTCOME_FAILED);
+
+        if(!launched) {
+            /*
+             * Nothing could be launched.  Tell user how to find it themselves.
+             */
+            showMessage( context, message );
+        }
+
+        return launched;
+    }
+
+    /**
+     * Open the market without showing anything on failure, so the caller
+     *  can choose its own fallback UI.  Call on the main thread.
+     *
+     * @param context  the context to launch from, normally the Activity
+     * @return AMMConstants.LAUNCH_OUTCOME_LAUNCHED, LAUNCH_OUTCOME_FALLBACK if
+     *  a later step of the fallback plan was started, or LAUNCH_OUTCOME_FAILED
+     *  if there is no URL or nothing installed could handle it
+     */
+    public int start(final Context context) {
+        final AMMLaunchListener listener = AMMLinks.getLaunchListener();
+        final boolean timed = (null != listener) || AMMTrace.isEnabled();
+        final long start = timed ? System.nanoTime() : 0;
+
+        final int started = startFirst(context);
+        final long startNanos = timed ? System.nanoTime() - start : 0;
+
+        final int outcome;
+        if(started < 0) {
+            outcome = AMMConstants.LAUNCH_OUTCOME_FAILED;
+        } else if(mFallback || started > 0) {
+            outcome = AMMConstants.LAUNCH_OUTCOME_FALLBACK;
+        } else {
+            outcome = AMMConstants.LAUNCH_OUTCOME_LAUNCHED;
+        }
+
+        AMMTrace.record(AMMTrace.EVENT_LAUNCH, mMarketSelector, mLinkMode, outcome, startNanos);
+
+        final AMMClickCounter clicks = AMMLinks.getClickCounter();
+        if(null != clicks && null != mCampaign && outcome != AMMConstants.LAUNCH_OUTCOME_FAILED) {
+            clicks.increment(mCampaign, mMarketSelector);
+        }
+
+        if(null != listener) {
+            listener.onLaunch(  mMarketSelector,
+                                mLinkMode,
+                                outcome,
+                                mBuildNanos,
+                                mResolveNanos,
+                                startNanos);
+        }
+
+        return outcome;
+    }
+
+    /*
+     * Start the first step that works, returning its index or -1
+     */
+    private int startFirst(final Context context) {
+        if(null == mUrl) {
+            // Failed to generate a URL for the selected market
+            return -1;
+        }
+
+        if(AMMConstants.DEBUG_ENABLED && 0 == mIntents.length) {
+            Log.e(mLogTag, "No handler for URL: " + mUrl);
+        }
+
+        /*
+         * Try each step the resolver accepted, in plan order.  Normally the
+         *  first one starts.
+         */
+        for(int i = 0; i < mIntents.length; i++) {
+            /*
+             * startActivity may modify the Intent it is given, so start a
+             *  copy and keep this link safe to share
+             */
+            final Intent intent = new Intent(mIntents[i]);
+
+            if(AMMConstants.DEBUG_ENABLED) {
+                Log.d(mLogTag, "Launching URL: " + intent.getDataString());
+            }
+
+            try {
+                context.startActivity(intent);
+                return i;
+            } catch (ActivityNotFoundException e) {
+                /*
+                 * The handler went away after the check.  Remember that,
+                 *  and move on to the next step.
+                 */
+                AMMMarketResolver.markUnavailable(intent.getScheme());
+                AMMTrace.record(AMMTrace.EVENT_LAUNCH_ERROR, mMarketSelector, mLinkMode, i, 0);
+
+                if(AMMConstants.DEBUG_ENABLED) {
+                    Log.e(mLogTag, "Can't launch intent for URL: " + intent.getDataString(), e);
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private void showMessage(final Context context, final AMMMarketMessage message) {
+        if(null == message) {
+            AMMLinks.showMarketMessage( context, mDeveloperName );
+        } else {
+            message.show( mDeveloperName );
+        }
+    }
+
+    /**
+     * @return the URL that launch() will open first, or the market's own URL
+     *  if nothing can open it, or null if no URL could be generated
+     */
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * @return a copy of the Intent that launch() will start first, which the
+     *  caller may change, or null if nothing installed can open the link
+     */
+    public Intent getIntent() {
+        return (mIntents.length == 0) ? null : new Intent(mIntents[0]);
+    }
+
+    /**
+     * @return true if a URL was generated and an installed app can open it
+     */
+    public boolean isAvailable() {
+        return mIntents.length > 0;
+    }
+
+    /**
+     * @return true if the native market URL could not be used and a later
+     *  step of the fallback plan (such as the web URL) will be launched
+     */
+    public boolean isFallback() {
+        return mFallback;
+    }
+
+    /**
+     * @return true if this link was taken from the AMMLinks link cache
+     *  rather than prepared for this call
+     */
+    public boolean isCached() {
+        return mCached;
+    }
+
+    /**
+     * @return the name shown in the market message if the launch fails
+     */
+    public String getDeveloperName() {
+        return mDeveloperName;
+    }
+}
@@ -28,6 +28,23 @@ import android.util.Log;
  * @version 1.0.2
  */
 public class AMMUtils {  
+    /*
+     * The device is classified on first use.  Class initialization publishes
+     *  the profile safely to all threads without further locking.
+     */
+    private static class ProfileHolder {
+        static final AMMDeviceProfile PROFILE = AMMDeviceProfile.classify(Build.MANUFACTURER, Build.MODEL);
+    }
+
+    /**
+     * Get the classification of this device, computed once per process
+     *
+     * @return the profile for this device
+     */
+    public static AMMDeviceProfile getDeviceProfile() {
+        return ProfileHolder.PROFILE;
+    }
+
     /**
      * Verify if this device is a Kindle Fire, based on the Build.MODEL
      *  
@@ -38,16 +55,8 @@ public class AMMUtils {
      */
     @Deprecated
     public static boolean isDeviceKindleFire(final Context context) {
-        boolean isKindle = false;
-
         // Build.MANUFACTURER should also equal "Amazon"
-        final String model = Build.MODEL;
-        
-        if(AMMConstants.DEVICE_MODEL_KINDLE_FIRE.equals(model)) {
-            isKindle = true;
-        }
-
-        return isKindle;
+        return getDeviceProfile().isKindleFire();
     }
     
 
@@ -58,7 +67,7 @@ public class AMMUtils {
      * @return true if this device is a known Nook device
      */
     public static boolean isDeviceNook(final Context context) {
-        return ( isDeviceNookCT(context) || isDeviceNookHD(context) );
+        return getDeviceProfile().isNook();
     }
     
     
@@ -71,21 +80,13 @@ public class AMMUtils {
      */
     @Deprecated
     public static boolean isDeviceNookCT(final Context context) {
-        boolean isCustom = false;
+        final boolean isCustom = getDeviceProfile().isNookCT();
 
-        final String model = Build.MODEL;
-        
-        if (    model.equals(AMMConstants.DEVICE_MODEL_NOOK_COLOR) ||       // BNRV200  = NOOK Color
-                model.equals(AMMConstants.DEVICE_MODEL_NOOK_TABLET_16GB) || // BNTV250  = NOOK Tablet 16GB
-                model.equals(AMMConstants.DEVICE_MODEL_NOOK_TABLET_8GB)) {  // BNTV250A = NOOK Tablet 8GB 
-            if(AMMConstants.DEBUG_ENABLED) {
-                    Log.e("isDeviceNookCT", "Device is Nook Color or Nook Tablet.  Model = " + model);
-            }
-            
-            isCustom = true;
-        } else {
-            if(AMMConstants.DEBUG_ENABLED) {
-                Log.e("isDeviceNookCT", "Unknown Nook Device.  Model = " + model);
+        if(AMMConstants.DEBUG_ENABLED) {
+            if(isCustom) {
+                Log.e("isDeviceNookCT", "Device is Nook Color or Nook Tablet.  Model = " + Build.MODEL);
+            } else {
+                Log.e("isDeviceNookCT", "Unknown Nook Device.  Model = " + Build.MODEL);
             }
         }
 
@@ -101,20 +102,13 @@ public class AMMUtils {
      * @return true if this device is a Nook HD or Nook HD+
      */
     public static boolean isDeviceNookHD(final Context context) {
-        boolean isHD = false;
+        final boolean isHD = getDeviceProfile().isNookHD();
 
-        final String model = Build.MODEL;
-        
-        if (    model.equals(AMMConstants.DEVICE_MODEL_NOOK_HD) ||      // BNTV400 = NOOK HD
-                model.equals(AMMConstants.DEVICE_MODEL_NOOK_HDPLUS)) {  // BNTV600 = NOOK HD+
-            if(AMMConstants.DEBUG_ENABLED) {
-                Log.e("isDeviceNookHD", "Device is Nook HD or Nook HD+.  Model = " + model);
-            }
-            
-            isHD = true;
-        } else {
-            if(AMMConstants.DEBUG_ENABLED) {
-                Log.e("isDeviceNookHD", "Not a Nook HD Device.  Model = " + model);
+        if(AMMConstants.DEBUG_ENABLED) {
+            if(isHD) {
+                Log.e("isDeviceNookHD", "Device is Nook HD or Nook HD+.  Model = " + Build.MODEL);
+            } else {
+                Log.e("isDeviceNookHD", "Not a Nook HD Device.  Model = " + Build.MODEL);
             }
         }
 
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.processor;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMAppDescriptor;
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+import com.simplifynowsoftware.androidmarketmanager.AMMGenerateLinks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * AMMLinksProcessor generates a class of constant market URLs for each class
+ *  annotated with AMMGenerateLinks.
+ *
+ * The URLs come from AMMAppDescriptor, the same code that builds them at run
+ *  time, so they follow the AMMLinks rules exactly.  The generated class has
+ *  a constant per market, link mode and URL style, and an AMMStoreLinks
+ *  implementation that picks one with a switch.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public class AMMLinksProcessor extends AbstractProcessor {
+    private static final String CLASS_SUFFIX = "StoreLinks";
+
+    /*
+     * Indexed by market selector; null for unused selectors
+     */
+    private static final String[] MARKET_NAMES = new String[AMMConstants.MARKET_SELECTOR_SAMSUNG + 1];
+
+    static {
+        MARKET_NAMES[AMMConstants.MARKET_SELECTOR_GOOGLE] = "GOOGLE";
+        MARKET_NAMES[AMMConstants.MARKET_SELECTOR_AMAZON] = "AMAZON";
+        MARKET_NAMES[AMMConstants.MARKET_SELECTOR_BLACKBERRY] = "BLACKBERRY";
+        MARKET_NAMES[AMMConstants.MARKET_SELECTOR_SAMSUNG] = "SAMSUNG";
+    }
+
+    private static final String[] MODE_NAMES = { "APP", "ALL" };
+    private static final String[] STYLE_NAMES = { "NATIVE", "WEB" };
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(AMMGenerateLinks.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+        for(final Element element : round.getElementsAnnotatedWith(AMMGenerateLinks.class)) {
+            if(element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.INTERFACE) {
+                error(element, "@AMMGenerateLinks applies to classes only");
+                continue;
+            }
+
+            final AMMGenerateLinks spec = element.getAnnotation(AMMGenerateLinks.class);
+            if(spec.appPackage().isEmpty()) {
+                error(element, "@AMMGenerateLinks needs an appPackage");
+                continue;
+            }
+
+            try {
+                generate((TypeElement) element, spec);
+            } catch(IOException e) {
+                error(element, "Could not write store links: " + e.getMessage());
+            }
+        }
+
+        return true;
+    }
+
+    private void error(final Element element, final String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String value(final String annotationValue) {
+        return annotationValue.isEmpty() ? null : annotationValue;
+    }
+
+    /*
+     * Key used by the generated switch; must match the code written below.
+     *  As in AMMLinks, any mode other than LINK_MODE_ALL links to the app and
+     *  any style other than URL_STYLE_WEB is native.
+     */
+    private static int key(final int marketSelector, final int linkMode, final int urlStyle) {
+        return (marketSelector << 2) | (linkMode << 1) | urlStyle;
+    }
+
+    private void generate(final TypeElement type, final AMMGenerateLinks spec) throws IOException {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String className = spec.className().isEmpty()
+                ? type.getSimpleName() + CLASS_SUFFIX
+                : spec.className();
+        final String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        final AMMAppDescriptor app = new AMMAppDescriptor(
+                value(spec.appPackage()),
+                value(spec.nookEAN()),
+                value(spec.bbID()),
+                value(spec.bbVendorID()),
+                value(spec.googleDeveloperID()),
+                value(spec.amazonPackageID()),
+                value(spec.samsungDeveloperID()),
+                value(spec.developerName()));
+
+        final JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        final PrintWriter out = new PrintWriter(file.openWriter());
+        try {
+            if(!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import com.simplifynowsoftware.androidmarketmanager.AMMStoreLinks;");
+            out.println();
+            out.println("/**");
+            out.println(" * Market URLs for " + spec.appPackage() + ", generated from @AMMGenerateLinks on");
+            out.println(" *  " + type.getQualifiedName() + ".  Do not edit.");
+            out.println(" */");
+            out.println("public final class " + className + " implements AMMStoreLinks {");
+            out.println("    public static final " + className + " INSTANCE = new " + className + "();");
+            out.println();
+            out.println("    public static final String DEVELOPER_NAME = " + literal(app.getDeveloperName()) + ";");
+
+            final StringBuilder cases = new StringBuilder();
+            for(int selector = 0; selector < MARKET_NAMES.length; selector++) {
+                if(null == MARKET_NAMES[selector]) {
+                    continue;
+                }
+                for(int mode = AMMConstants.LINK_MODE_APP; mode <= AMMConstants.LINK_MODE_ALL; mode++) {
+                    for(int style = AMMConstants.URL_STYLE_NATIVE; style <= AMMConstants.URL_STYLE_WEB; style++) {
+                        final String url = app.getUrl(selector, mode, style);
+                        if(null == url) {
+                            continue;
+                        }
+
+                        final String constant = MARKET_NAMES[selector] + "_" + MODE_NAMES[mode] + "_" + STYLE_NAMES[style];
+                        out.println("    public static final String " + constant + " = " + literal(url) + ";");
+                        cases.append("            case ").append(key(selector, mode, style))
+                                .append(": return ").append(constant).append(";\n");
+                    }
+                }
+            }
+
+            out.println();
+            out.println("    private " + className + "() {");
+            out.println("    }");
+            out.println();
+            out.println("    public String getUrl(final int marketSelector, final int linkMode, final int urlStyle) {");
+            out.println("        if(marketSelector < 0) {");
+            out.println("            return null;");
+            out.println("        }");
+            out.println();
+            out.println("        final int mode = (linkMode == " + AMMConstants.LINK_MODE_ALL + ") ? 1 : 0;");
+            out.println("        final int style = (urlStyle == " + AMMConstants.URL_STYLE_WEB + ") ? 1 : 0;");
+            out.println("        switch((marketSelector << 2) | (mode << 1) | style) {");
+            out.print(cases);
+            out.println("            default: return null;");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+            out.println("    public String getDeveloperName() {");
+            out.println("        return DEVELOPER_NAME;");
+            out.println("    }");
+            out.println("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String literal(final String value) {
+        if(null == value) {
+            return "null";
+        }
+
+        final StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for(int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if(c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if(c < 0x20 || c > 0x7e) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
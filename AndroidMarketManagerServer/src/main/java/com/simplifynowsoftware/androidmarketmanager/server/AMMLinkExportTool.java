@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.server;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMAppDescriptor;
+import com.simplifynowsoftware.androidmarketmanager.AMMLinkExporter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * AMMLinkExportTool writes link manifests and sitemaps for an apps file, using
+ *  AMMLinkExporter.
+ *
+ * Usage: AMMLinkExportTool [apps file] [output directory] [sitemap base URL]
+ * <br>
+ * The apps file has the format read by AMMRedirectServer, and is read one
+ *  line at a time, so catalogs of any size can be exported.  The output
+ *  directory gets links.jsonl, links.csv and sitemap-N.xml.gz files, plus
+ *  sitemap-index.xml when a base URL is given.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMLinkExportTool {
+    public static final String JSON_NAME = "links.jsonl";
+    public static final String CSV_NAME = "links.csv";
+
+    private AMMLinkExportTool() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: AMMLinkExportTool [apps file] [output directory] [sitemap base URL]");
+            System.exit(1);
+            return;
+        }
+
+        final File directory = new File(args[1]);
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+
+        final long start = System.nanoTime();
+        final AMMLinkExporter exporter = new AMMLinkExporter(
+                new File(directory, JSON_NAME),
+                new File(directory, CSV_NAME),
+                directory,
+                (args.length > 2) ? args[2] : null);
+        final int[] apps = new int[1];
+
+        try {
+            final Reader reader = new InputStreamReader(new FileInputStream(args[0]), Charset.forName("UTF-8"));
+            try {
+                AMMRedirectServer.readApps(reader, new AMMRedirectServer.AppSink() {
+                    public void app(final String key, final AMMAppDescriptor app) throws IOException {
+                        exporter.add(key, app);
+                        apps[0]++;
+                    }
+                });
+            } finally {
+                reader.close();
+            }
+        } finally {
+            exporter.close();
+        }
+
+        System.out.println("Exported " + apps[0] + " apps: " + exporter.getLinkCount() + " links, "
+                + exporter.getSitemapUrlCount() + " sitemap URLs in " + exporter.getSitemapCount()
+                + " sitemaps, " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+}
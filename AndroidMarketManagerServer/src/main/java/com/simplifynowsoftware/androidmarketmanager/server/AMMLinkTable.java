@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.server;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMAppDescriptor;
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+
+/**
+ * AMMLinkTable holds every redirect target for one app, computed when the
+ *  server starts, so answering a request is an array load.
+ *
+ * Visitors arrive from a browser, so the web URL is preferred and the native
+ *  market URL is used only when a market has no web page for the link.
+ *  Markets with no URL at all fall back to Google Play.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMLinkTable {
+    /*
+     * Selectors covered by each table: the built-in markets
+     */
+    public static final int SELECTOR_COUNT = AMMConstants.MARKET_SELECTOR_SAMSUNG + 1;
+
+    private static final int[] STYLES = {
+            AMMConstants.URL_STYLE_WEB,
+            AMMConstants.URL_STYLE_NATIVE
+    };
+
+    /*
+     * Indexed by [link mode * SELECTOR_COUNT + market selector]
+     */
+    private final String[] mUrls = new String[2 * SELECTOR_COUNT];
+
+    public AMMLinkTable(final AMMAppDescriptor app) {
+        for(int mode = AMMConstants.LINK_MODE_APP; mode <= AMMConstants.LINK_MODE_ALL; mode++) {
+            final String fallback = build(app, AMMConstants.MARKET_SELECTOR_GOOGLE, mode);
+
+            for(int selector = 0; selector < SELECTOR_COUNT; selector++) {
+                final String url = build(app, selector, mode);
+                mUrls[mode * SELECTOR_COUNT + selector] = (null == url) ? fallback : url;
+            }
+        }
+    }
+
+    private static String build(final AMMAppDescriptor app, final int marketSelector, final int linkMode) {
+        for(final int style : STYLES) {
+            final String url = app.getUrl(marketSelector, linkMode, style);
+            if(null != url) {
+                return url;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param marketSelector   the visitor's market
+     * @param linkMode         AMMConstants.LINK_MODE_APP or LINK_MODE_ALL
+     * @return the redirect target, or null if there is none
+     */
+    public String getUrl(final int marketSelector, final int linkMode) {
+        if(marketSelector < 0 || marketSelector >= SELECTOR_COUNT) {
+            return mUrls[linkMode * SELECTOR_COUNT + AMMConstants.MARKET_SELECTOR_GOOGLE];
+        }
+        return mUrls[linkMode * SELECTOR_COUNT + marketSelector];
+    }
+}
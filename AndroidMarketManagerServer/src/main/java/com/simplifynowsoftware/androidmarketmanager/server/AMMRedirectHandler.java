@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.server;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * AMMRedirectHandler answers smart links with a 302 to the visitor's market.
+ *
+ * Paths:
+ *  /<app key>      the app's page
+ *  /<app key>/all  all apps by the developer
+ *
+ * Unknown apps get a 404.  Only GET and HEAD are accepted.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMRedirectHandler implements HttpHandler {
+    private static final String ALL_SUFFIX = "/all";
+
+    private final Map<String, AMMLinkTable> mTables;
+
+    /**
+     * @param tables   link tables by app key; must not be modified afterwards
+     */
+    public AMMRedirectHandler(final Map<String, AMMLinkTable> tables) {
+        mTables = tables;
+    }
+
+    public void handle(final HttpExchange exchange) throws IOException {
+        try {
+            /*
+             * The connection is only kept alive if the request was read to
+             *  the end; GET and HEAD have no body, so this is cheap
+             */
+            exchange.getRequestBody().close();
+
+            final String method = exchange.getRequestMethod();
+            if(!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            final String path = exchange.getRequestURI().getRawPath();
+            int end = path.length();
+            int linkMode = AMMConstants.LINK_MODE_APP;
+
+            if(path.endsWith(ALL_SUFFIX)) {
+                end -= ALL_SUFFIX.length();
+                linkMode = AMMConstants.LINK_MODE_ALL;
+            }
+
+            final AMMLinkTable table = (end > 1) ? mTables.get(path.substring(1, end)) : null;
+            final Headers request = exchange.getRequestHeaders();
+            final String url = (null == table)
+                    ? null
+                    : table.getUrl(AMMVisitorMarket.selectorFor(request.getFirst("User-Agent")), linkMode);
+
+            if(null == url) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            final Headers response = exchange.getResponseHeaders();
+            response.set("Location", url);
+            // The target depends on the device, so shared caches must not keep it
+            response.set("Cache-Control", "private, no-cache");
+            response.set("Vary", "User-Agent");
+            exchange.sendResponseHeaders(302, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.server;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AMMRedirectLoadTest drives a redirect server with concurrent clients for a
+ *  fixed time, then reports requests per second and latency percentiles.
+ *
+ * Usage: AMMRedirectLoadTest [base URL] [threads] [seconds]
+ * <br>
+ * With no URL (or "-"), a server with the demo app is started in-process on
+ *  a free port.  Requests cycle through app and developer links with several
+ *  User-Agents, so every market path is exercised.
+ * <br>
+ * Each thread keeps one HTTP/1.1 connection open and writes pre-encoded
+ *  requests on it, so the client costs as little as possible and the numbers
+ *  reflect the server.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMRedirectLoadTest {
+    private static final int DEFAULT_THREADS = 32;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int WARMUP_SECONDS = 2;
+
+    /*
+     * Latency histogram: one bucket per microsecond up to 100ms, then overflow
+     */
+    private static final int BUCKET_COUNT = 100001;
+
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 Chrome/124.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (Linux; Android 9; KFTRWI) AppleWebKit/537.36 Silk/124.1 like Chrome/124.0 Safari/537.36",
+            "Mozilla/5.0 (BB10; Touch) AppleWebKit/537.35+ Version/10.3.3 Mobile Safari/537.35+",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/124.0 Safari/537.36"
+    };
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private AMMRedirectLoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final String target = (args.length > 0) ? args[0] : "-";
+        final int threads = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_THREADS;
+        final int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_SECONDS;
+
+        AMMRedirectServer server = null;
+        final String base;
+        if("-".equals(target)) {
+            server = new AMMRedirectServer(new InetSocketAddress("127.0.0.1", 0), AMMRedirectServer.demoApps());
+            server.start();
+            base = "http://127.0.0.1:" + server.getPort() + "/demo";
+        } else {
+            base = target;
+        }
+
+        try {
+            System.out.println("Target " + base + ", " + threads + " threads");
+            run(base, threads, WARMUP_SECONDS, false);
+            run(base, threads, seconds, true);
+        } finally {
+            if(null != server) {
+                server.stop(0);
+            }
+        }
+    }
+
+    private static void run(final String base, final int threads, final int seconds, final boolean report)
+            throws InterruptedException {
+        final URI uri = URI.create(base);
+        final String host = uri.getHost();
+        final int port = (uri.getPort() < 0) ? 80 : uri.getPort();
+        final byte[][] requests = new byte[USER_AGENTS.length * 2][];
+        for(int i = 0; i < requests.length; i++) {
+            final String path = (i % 2 == 0) ? uri.getRawPath() : uri.getRawPath() + "/all";
+            requests[i] = ("GET " + path + " HTTP/1.1\r\n"
+                    + "Host: " + host + ":" + port + "\r\n"
+                    + "User-Agent: " + USER_AGENTS[i / 2] + "\r\n"
+                    + "\r\n").getBytes(ASCII);
+        }
+
+        final long[][] histograms = new long[threads][];
+        final AtomicLong errors = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long start = System.nanoTime();
+        final long deadline = start + seconds * 1000000000L;
+
+        for(int t = 0; t < threads; t++) {
+            final long[] histogram = new long[BUCKET_COUNT];
+            final int offset = t;
+            histograms[t] = histogram;
+
+            final Thread worker = new Thread(new Runnable() {
+                public void run() {
+                    Connection connection = null;
+                    try {
+                        for(int i = offset; System.nanoTime() < deadline; i++) {
+                            final long sent = System.nanoTime();
+                            try {
+                                if(null == connection) {
+                                    connection = new Connection(host, port);
+                                }
+                                if(connection.exchange(requests[i % requests.length]) != 302) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch(IOException e) {
+                                errors.incrementAndGet();
+                                close(connection);
+                                connection = null;
+                            }
+
+                            final long micros = (System.nanoTime() - sent) / 1000;
+                            histogram[(int) Math.min(micros, BUCKET_COUNT - 1)]++;
+                        }
+                    } finally {
+                        close(connection);
+                        done.countDown();
+                    }
+                }
+            }, "load-" + t);
+            worker.start();
+        }
+
+        done.await();
+        final double elapsed = (System.nanoTime() - start) / 1e9;
+
+        if(report) {
+            report(merge(histograms), errors.get(), elapsed);
+        }
+    }
+
+    private static void close(final Connection connection) {
+        if(null != connection) {
+            try {
+                connection.mSocket.close();
+            } catch(IOException e) {
+                // Already gone
+            }
+        }
+    }
+
+    /*
+     * Minimal keep-alive HTTP/1.1 client: reads the status line and headers,
+     *  and skips a body of known length
+     */
+    private static final class Connection {
+        private static final String CONTENT_LENGTH = "content-length:";
+
+        final Socket mSocket;
+        final OutputStream mOut;
+        final InputStream mIn;
+        final StringBuilder mLine = new StringBuilder(128);
+
+        Connection(final String host, final int port) throws IOException {
+            mSocket = new Socket(host, port);
+            mSocket.setTcpNoDelay(true);
+            mOut = mSocket.getOutputStream();
+            mIn = new BufferedInputStream(mSocket.getInputStream());
+        }
+
+        int exchange(final byte[] request) throws IOException {
+            mOut.write(request);
+            mOut.flush();
+
+            final String status = readLine();
+            if(status.length() < 12) {
+                throw new IOException("Bad status line: " + status);
+            }
+
+            long contentLength = 0;
+            for(String header = readLine(); header.length() > 0; header = readLine()) {
+                if(header.regionMatches(true, 0, CONTENT_LENGTH, 0, CONTENT_LENGTH.length())) {
+                    contentLength = Long.parseLong(header.substring(CONTENT_LENGTH.length()).trim());
+                }
+            }
+
+            while(contentLength > 0) {
+                final long skipped = mIn.skip(contentLength);
+                if(skipped <= 0) {
+                    throw new EOFException();
+                }
+                contentLength -= skipped;
+            }
+
+            return Integer.parseInt(status.substring(9, 12));
+        }
+
+        private String readLine() throws IOException {
+            mLine.setLength(0);
+            for(int c = mIn.read(); c != '\n'; c = mIn.read()) {
+                if(c < 0) {
+                    throw new EOFException();
+                } else if(c != '\r') {
+                    mLine.append((char) c);
+                }
+            }
+            return mLine.toString();
+        }
+    }
+
+    private static long[] merge(final long[][] histograms) {
+        final long[] merged = new long[BUCKET_COUNT];
+        for(final long[] histogram : histograms) {
+            for(int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] += histogram[i];
+            }
+        }
+        return merged;
+    }
+
+    private static void report(final long[] histogram, final long errors, final double elapsed) {
+        long total = 0;
+        for(final long count : histogram) {
+            total += count;
+        }
+
+        System.out.println(String.format("Requests:   %d in %.1fs, %d errors", total, elapsed, errors));
+        System.out.println(String.format("Throughput: %.0f requests/s", total / elapsed));
+        System.out.println(String.format("Latency:    p50 %s  p90 %s  p99 %s  p99.9 %s  max %s",
+                percentile(histogram, total, 0.50),
+                percentile(histogram, total, 0.90),
+                percentile(histogram, total, 0.99),
+                percentile(histogram, total, 0.999),
+                percentile(histogram, total, 1.0)));
+    }
+
+    private static String percentile(final long[] histogram, final long total, final double fraction) {
+        final long rank = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+
+        for(int micros = 0; micros < histogram.length; micros++) {
+            seen += histogram[micros];
+            if(seen >= rank) {
+                return (micros == BUCKET_COUNT - 1) ? ">100ms" : String.format("%.3fms", micros / 1000.0);
+            }
+        }
+        return "-";
+    }
+}
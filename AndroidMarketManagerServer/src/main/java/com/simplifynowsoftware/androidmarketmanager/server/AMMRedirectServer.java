@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.server;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMAppDescriptor;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AMMRedirectServer is a standalone smart-link server: one link per app, which
+ *  redirects each visitor to the right market.  It uses the same URL rules
+ *  as AMMLinks, and needs nothing beyond the JDK.
+ *
+ * Usage: AMMRedirectServer [port] [apps file]
+ * <br>
+ * The apps file has one app per line, tab separated, '-' for unknown values:
+ *  key, app package, Google developer ID, Amazon package ID, BlackBerry ID,
+ *  BlackBerry vendor ID, Samsung developer ID, developer name.
+ *  Lines starting with '#' are ignored.  Without a file, a demo app is
+ *  served under the key "demo".
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMRedirectServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int BACKLOG = 1024;
+    private static final int COLUMN_COUNT = 8;
+    private static final String UNKNOWN = "-";
+
+    private final HttpServer mServer;
+    private final ExecutorService mExecutor;
+
+    /**
+     * @param address  where to listen; port 0 picks a free port
+     * @param tables   link tables by app key
+     * @throws IOException if the port cannot be bound
+     */
+    public AMMRedirectServer(final InetSocketAddress address, final Map<String, AMMLinkTable> tables)
+            throws IOException {
+        mExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        mServer = HttpServer.create(address, BACKLOG);
+        mServer.createContext("/", new AMMRedirectHandler(tables));
+        mServer.setExecutor(mExecutor);
+    }
+
+    public void start() {
+        mServer.start();
+    }
+
+    /**
+     * @param delaySeconds time allowed for requests in progress to finish
+     */
+    public void stop(final int delaySeconds) {
+        mServer.stop(delaySeconds);
+        mExecutor.shutdown();
+        try {
+            mExecutor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return mServer.getAddress().getPort();
+    }
+
+    /**
+     * Receives apps from readApps, one at a time
+     */
+    public interface AppSink {
+        void app(String key, AMMAppDescriptor app) throws IOException;
+    }
+
+    /**
+     * Read the apps file format described above
+     *
+     * @param reader   source of the apps file; not closed
+     * @return link tables by app key
+     * @throws IOException on read errors or malformed lines
+     */
+    public static Map<String, AMMLinkTable> loadApps(final Reader reader) throws IOException {
+        final Map<String, AMMLinkTable> tables = new HashMap<String, AMMLinkTable>();
+
+        readApps(reader, new AppSink() {
+            public void app(final String key, final AMMAppDescriptor app) {
+                tables.put(key, new AMMLinkTable(app));
+            }
+        });
+
+        return Collections.unmodifiableMap(tables);
+    }
+
+    /**
+     * Read the apps file format described above, passing each app on as it
+     *  is read, so files of any size can be processed
+     *
+     * @param reader   source of the apps file; not closed
+     * @param sink     receives each app with its key
+     * @throws IOException on read errors, malformed lines, or from the sink
+     */
+    public static void readApps(final Reader reader, final AppSink sink) throws IOException {
+        final BufferedReader lines = new BufferedReader(reader);
+
+        String line;
+        int number = 0;
+        while(null != (line = lines.readLine())) {
+            number++;
+            if(line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final String[] columns = line.split("\t", -1);
+            if(columns.length != COLUMN_COUNT) {
+                throw new IOException("Line " + number + ": expected " + COLUMN_COUNT
+                        + " columns, found " + columns.length);
+            }
+
+            sink.app(columns[0], new AMMAppDescriptor(
+                    value(columns[1]), null, value(columns[4]), value(columns[5]),
+                    value(columns[2]), value(columns[3]), value(columns[6]), value(columns[7])));
+        }
+    }
+
+    private static String value(final String column) {
+        final String trimmed = column.trim();
+        return (trimmed.isEmpty() || UNKNOWN.equals(trimmed)) ? null : trimmed;
+    }
+
+    /**
+     * @return a single app, the library's own test app, under the key "demo"
+     */
+    public static Map<String, AMMLinkTable> demoApps() {
+        final Map<String, AMMLinkTable> tables = new HashMap<String, AMMLinkTable>();
+        tables.put("demo", new AMMLinkTable(new AMMAppDescriptor(
+                "com.simplifynowsoftware.androidmarketmanager.test", null, null, "12345",
+                "Simplify Now, LLC", null, "simplifynow", "Simplify Now")));
+
+        return Collections.unmodifiableMap(tables);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final Map<String, AMMLinkTable> tables;
+
+        if(args.length > 1) {
+            final Reader reader = new InputStreamReader(new FileInputStream(args[1]), Charset.forName("UTF-8"));
+            try {
+                tables = loadApps(reader);
+            } finally {
+                reader.close();
+            }
+        } else {
+            tables = demoApps();
+        }
+
+        final AMMRedirectServer server = new AMMRedirectServer(new InetSocketAddress(port), tables);
+        server.start();
+        System.out.println("Serving " + tables.size() + " apps on port " + server.getPort());
+    }
+}
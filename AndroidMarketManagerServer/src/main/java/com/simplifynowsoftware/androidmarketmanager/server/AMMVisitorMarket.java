@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011-2012 Simplify Now, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.simplifynowsoftware.androidmarketmanager.server;
+
+import com.simplifynowsoftware.androidmarketmanager.AMMConstants;
+import com.simplifynowsoftware.androidmarketmanager.AMMUserAgentClassifier;
+
+/**
+ * AMMVisitorMarket picks the market for a web visitor from the User-Agent
+ *  header.  Only devices tied to their own market are told apart; everyone
+ *  else, including desktop browsers, is sent to Google Play.
+ *
+ * @author Tim Mackenzie - Simplify Now, LLC
+ * @since Android API 3
+ * @version 1.0.0
+ */
+public final class AMMVisitorMarket {
+    private static final AMMUserAgentClassifier CLASSIFIER = new AMMUserAgentClassifier();
+
+    private AMMVisitorMarket() {
+    }
+
+    /**
+     * @param userAgent    the User-Agent header; may be null
+     * @return the market selector for the visitor
+     */
+    public static int selectorFor(final String userAgent) {
+        final int selector = CLASSIFIER.getMarketSelector(userAgent);
+
+        return (selector == AMMConstants.MARKET_SELECTOR_NONE) ? AMMConstants.MARKET_SELECTOR_GOOGLE : selector;
+    }
+}
@@ -40,10 +40,11 @@ public class AndroidMarketManagerTestActivity extends Activity {
      * Test data for the app Evernote.  Replace all of these constants to test
      *  a different app/vendor.  BB_DEVELOPER_ID is for Simplify Now because 
      *  Evernote's ID comes up blank (at least on the Playbook) 
-     * Note the use of formatting characters.
+     * IDs are given as plain text; the library URL-encodes them, so spaces
+     *  need no '+' or %20.
      */
     public static final String DEVELOPER_NAME = "Evernote";
-    public static final String GOOGLE_DEVELOPER_ID = "Evernote+Corporation";
+    public static final String GOOGLE_DEVELOPER_ID = "Evernote Corporation";
     public static final String AMAZON_PACKAGE_ID = "com.evernote";//"B004LOMB2Q";
     public static final String BB_DEVELOPER_ID = "24165";// Evernote is "581", but somehow this doesn't work.  Using ID for Simplify Now
     public static final String APP_PACKAGE = "com.evernote";